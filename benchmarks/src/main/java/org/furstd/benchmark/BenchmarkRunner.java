@@ -0,0 +1,50 @@
+package org.furstd.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result also reports the allocation
+ * rate. Standard JMH arguments (include pattern, -p, -f, -wi, -i, -bm, -tu) are accepted;
+ * without them the run is a short one in throughput mode.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        // Výchozí hodnoty jen tam, kde je nezadal příkazový řádek; latence se měří přes -bm avgt -tu us
+        if (commandLine.getBenchModes().isEmpty()) {
+            options.mode(Mode.Throughput);
+        }
+        if (!commandLine.getTimeUnit().hasValue()) {
+            options.timeUnit(TimeUnit.SECONDS);
+        }
+        if (!commandLine.getWarmupIterations().hasValue()) {
+            options.warmupIterations(3).warmupTime(TimeValue.seconds(1));
+        }
+        if (!commandLine.getMeasurementIterations().hasValue()) {
+            options.measurementIterations(5).measurementTime(TimeValue.seconds(1));
+        }
+        if (!commandLine.getForkCount().hasValue()) {
+            options.forks(1);
+        }
+        // Bez modulu Vector API by jádra běžela skalárně, -jvmArgsAppend -Dfurstd.kernel=scalar je vynutí
+        if (!commandLine.getJvmArgsAppend().hasValue()) {
+            options.jvmArgsAppend("--add-modules", "jdk.incubator.vector");
+        }
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("org\\.furstd\\.benchmark\\..*");
+        }
+        new Runner(options.build()).run();
+    }
+}
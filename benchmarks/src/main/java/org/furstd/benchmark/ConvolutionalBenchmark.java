@@ -0,0 +1,61 @@
+package org.furstd.benchmark;
+
+import org.furstd.convolutional.Conv2DLayer;
+import org.furstd.convolutional.ConvolutionalNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+@State(Scope.Thread)
+public class ConvolutionalBenchmark {
+    @Param({"28", "64", "128"})
+    public int imageSize;
+
+    @Param({"3", "5"})
+    public int filterSize;
+
+    private final ConvolutionalNetwork network = new ConvolutionalNetwork();
+    private double[][] image;
+    private double[][] filter;
+    private Conv2DLayer layer;
+    private double[] flatImage;
+    private double[] layerOutput;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        image = new double[imageSize][imageSize];
+        flatImage = new double[imageSize * imageSize];
+        for (int i = 0; i < imageSize; i++) {
+            for (int j = 0; j < imageSize; j++) {
+                image[i][j] = random.nextDouble();
+                flatImage[i * imageSize + j] = image[i][j];
+            }
+        }
+        filter = new double[filterSize][filterSize];
+        for (double[] row : filter) {
+            for (int j = 0; j < filterSize; j++) {
+                row[j] = random.nextDouble() * 2 - 1;
+            }
+        }
+
+        layer = new Conv2DLayer(1, 1, filterSize, filterSize, 1, 0);
+        layer.setFilter(0, 0, filter);
+        layerOutput = new double[layer.getOutputHeight(imageSize) * layer.getOutputWidth(imageSize)];
+    }
+
+    @Benchmark
+    public double[][] convPlusMaxPooling() {
+        return network.convPlusMaxPooling(image, filter);
+    }
+
+    @Benchmark
+    public double[] conv2DLayerForward() {
+        layer.forward(flatImage, 1, imageSize, imageSize, layerOutput);
+        return layerOutput;
+    }
+}
@@ -0,0 +1,97 @@
+package org.furstd.benchmark;
+
+import org.furstd.feed_forward.ActivationFunction;
+import org.furstd.feed_forward.CompiledNetwork;
+import org.furstd.feed_forward.FeedForwardNetwork;
+import org.furstd.feed_forward.QuantisationMode;
+import org.furstd.feed_forward.QuantisedNetwork;
+import org.furstd.trace.MetricsTracer;
+import org.furstd.trace.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+@State(Scope.Thread)
+public class FeedForwardBenchmark {
+    private static final int BATCH_ROWS = 256;
+
+    @Param({"16", "64", "256"})
+    public int layerWidth;
+
+    // NONE ověřuje, že vypnuté trasování nic nestojí
+    @Param({"NONE", "METRICS"})
+    public String tracer;
+
+    private FeedForwardNetwork network;
+    private CompiledNetwork compiled;
+    private QuantisedNetwork quantised;
+    private double[] target;
+    private double[][] batch;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        // Stejná šířka všech vrstev, textbook computeBGD jiné tvary nepodporuje
+        network = new FeedForwardNetwork();
+        network.initializeRandom(new int[]{layerWidth, layerWidth, layerWidth},
+                new ActivationFunction[]{ActivationFunction.HYPERBOLIC_TANGENT, ActivationFunction.LINEAR_IDENT}, random);
+        network.setTracer("METRICS".equals(tracer) ? new MetricsTracer() : Tracer.NONE);
+        for (int i = 0; i < layerWidth; i++) {
+            network.addX(random.nextDouble() * 2 - 1);
+        }
+        network.computeResponse();
+
+        target = new double[layerWidth];
+        for (int i = 0; i < layerWidth; i++) {
+            target[i] = random.nextDouble() * 2 - 1;
+        }
+        batch = new double[BATCH_ROWS][layerWidth];
+        for (double[] row : batch) {
+            for (int i = 0; i < layerWidth; i++) {
+                row[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+        compiled = network.compile();
+        quantised = network.quantise(batch, QuantisationMode.PER_CHANNEL);
+    }
+
+    @Benchmark
+    public double[] computeResponse() {
+        network.computeResponse();
+        return network.getLayersData().get(1).getY();
+    }
+
+    @Benchmark
+    public void computeBGD(Blackhole blackhole) {
+        network.computeResponse();
+        // Malý krok, aby váhy během měření neutekly
+        network.computeBGD(target, 1e-6);
+        blackhole.consume(network.getWeights());
+    }
+
+    @Benchmark
+    public double[][] compiledBatch() {
+        return compiled.computeResponses(batch);
+    }
+
+    @Benchmark
+    public double[][] quantisedBatch() {
+        return quantised.computeResponses(batch);
+    }
+
+    // Latence jednoho požadavku, jak ho vidí skórovací služba
+    @Benchmark
+    public double[] compiledRow() {
+        return compiled.computeResponses(batch[0], 1);
+    }
+
+    @Benchmark
+    public double[] quantisedRow() {
+        return quantised.computeResponse(batch[0]);
+    }
+}
@@ -0,0 +1,56 @@
+package org.furstd.benchmark;
+
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.hopfield.UpdateSchedule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+@State(Scope.Thread)
+public class HopfieldBenchmark {
+    private static final int PROBES = 64;
+
+    @Param({"64", "256", "1024"})
+    public int patternLength;
+
+    @Param({"SYNCHRONOUS", "ASYNCHRONOUS"})
+    public UpdateSchedule schedule;
+
+    private HopfieldNetwork network;
+    private int[][] probes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        network = new HopfieldNetwork(patternLength);
+        network.setUpdateSchedule(schedule);
+        // Počet vzorů pod kapacitou ~0.138 N, aby vybavování konvergovalo
+        int patternCount = Math.max(1, patternLength / 20);
+        int[][] patterns = new int[patternCount][patternLength];
+        for (int[] pattern : patterns) {
+            for (int i = 0; i < patternLength; i++) {
+                pattern[i] = random.nextBoolean() ? 1 : -1;
+            }
+            network.addPattern(pattern);
+        }
+
+        probes = new int[PROBES][];
+        for (int p = 0; p < PROBES; p++) {
+            probes[p] = patterns[p % patternCount].clone();
+            for (int flip = 0; flip < patternLength / 10; flip++) {
+                probes[p][random.nextInt(patternLength)] *= -1;
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] recall() {
+        next = (next + 1) & (PROBES - 1);
+        return network.recall(probes[next]);
+    }
+}
@@ -0,0 +1,60 @@
+package org.furstd.benchmark;
+
+import org.furstd.kohen.KohonenMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+@State(Scope.Thread)
+public class KohonenBenchmark {
+    private static final int SAMPLES = 1024;
+
+    @Param({"100", "1000", "10000"})
+    public int neuronCount;
+
+    @Param({"4", "32"})
+    public int inputDim;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private KohonenMap map;
+    private double[][] samples;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        samples = new double[SAMPLES][inputDim];
+        for (double[] sample : samples) {
+            for (int i = 0; i < inputDim; i++) {
+                sample[i] = random.nextDouble();
+            }
+        }
+        map = new KohonenMap(neuronCount, inputDim);
+        map.initializeFromSamples(samples, random);
+        if (indexed) {
+            map.enableIndex(0);
+        }
+    }
+
+    private double[] nextSample() {
+        next = (next + 1) & (SAMPLES - 1);
+        return samples[next];
+    }
+
+    @Benchmark
+    public int findBMU() {
+        return map.findBMU(nextSample());
+    }
+
+    @Benchmark
+    public double[][] train() {
+        map.train(nextSample(), 0.01, 1);
+        return map.getWeights();
+    }
+}
@@ -0,0 +1,271 @@
+package org.furstd.cli;
+
+import org.furstd.dataset.Datasets;
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.feed_forward.Activation;
+import org.furstd.feed_forward.ActivationFunction;
+import org.furstd.feed_forward.CompiledNetwork;
+import org.furstd.feed_forward.FeedForwardNetwork;
+import org.furstd.feed_forward.MiniBatchTrainer;
+import org.furstd.feed_forward.ModelFile;
+import org.furstd.hopfield.HopfieldFile;
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.hopfield.LearningRule;
+import org.furstd.hopfield.WeightStorage;
+import org.furstd.kernel.Precision;
+import org.furstd.kohen.Decay;
+import org.furstd.kohen.KohonenMap;
+import org.furstd.kohen.Lattice;
+import org.furstd.kohen.LatticeType;
+import org.furstd.kohen.MapFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Headless runner for scripted batch jobs. Models and data are files, results go to an
+ * output file and nothing is traced per step; on completion a single line with the row
+ * count, wall time and rows per second is printed. Data files are streamed in batches
+ * through {@link Datasets}, so they may be larger than the heap.
+ */
+public final class BatchRunner {
+    // Blok řádků pro trénink FFN, MiniBatchTrainer potřebuje vstupy v paměti
+    private static final int TRAINING_CHUNK_ROWS = 1 << 16;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage:",
+            "  train ffn --data FILE --output MODEL (--layers 4,8,2 --activations relu,linear_ident | --model MODEL)",
+            "            [--epochs 10] [--mini-batch 32] [--learning-rate 0.01] [--seed 42]",
+            "  train som --data FILE --output MAP --lattice 10x10 [--lattice-type rectangular|hexagonal]",
+            "            [--mode batch|online] [--epochs 10] [--radius R] [--learning-rate 0.5] [--seed 42]",
+            "  train hopfield --data FILE --output NET [--rule hebbian|storkey|pseudo_inverse]",
+            "  infer --model MODEL --data FILE --output FILE [--precision double|float32|mixed]",
+            "  bmu --model MAP --data FILE --output FILE",
+            "  recall --model NET --data FILE --output FILE [--storage dense|sparse]",
+            "Common: --batch-size N rows streamed per batch (default " + Datasets.DEFAULT_BATCH_SIZE + ").",
+            "Files ending in .csv are written as CSV, anything else in the binary row format.");
+
+    private BatchRunner() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args, System.out));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (NoSuchFileException e) {
+            System.err.println("File not found: " + e.getFile());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public static int run(String[] args, PrintStream report) throws IOException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Missing command");
+        }
+        String command = args[0];
+        boolean hasType = command.equals("train");
+        if (hasType && args.length < 2) {
+            throw new IllegalArgumentException("Missing network type for train");
+        }
+        String label = hasType ? command + " " + args[1] : command;
+        Options options = Options.parse(args, hasType ? 2 : 1, allowedOptions(label));
+
+        long start = System.nanoTime();
+        long rows;
+        switch (label) {
+            case "train ffn":
+                rows = trainFeedForward(options);
+                break;
+            case "train som":
+                rows = trainSom(options);
+                break;
+            case "train hopfield":
+                rows = trainHopfield(options);
+                break;
+            case "infer":
+                rows = infer(options);
+                break;
+            case "bmu":
+                rows = bmu(options);
+                break;
+            default:
+                rows = recall(options);
+                break;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        report.printf(Locale.ROOT, "%s: %d rows in %.3f s (%.0f rows/s)%n", label, rows, seconds, seconds > 0 ? rows / seconds : 0);
+        return 0;
+    }
+
+    private static List<String> allowedOptions(String label) {
+        switch (label) {
+            case "train ffn":
+                return List.of("data", "output", "layers", "activations", "model", "epochs", "mini-batch", "learning-rate", "seed", "batch-size");
+            case "train som":
+                return List.of("data", "output", "lattice", "lattice-type", "mode", "epochs", "radius", "learning-rate", "seed", "batch-size");
+            case "train hopfield":
+                return List.of("data", "output", "rule", "batch-size");
+            case "infer":
+                return List.of("model", "data", "output", "precision", "batch-size");
+            case "bmu":
+                return List.of("model", "data", "output", "batch-size");
+            case "recall":
+                return List.of("model", "data", "output", "storage", "batch-size");
+            default:
+                throw new IllegalArgumentException("Unknown command: " + label);
+        }
+    }
+
+    private static long infer(Options options) throws IOException {
+        FeedForwardNetwork network = ModelFile.load(options.path("model"));
+        Precision precision = options.enumValue("precision", Precision.class, Precision.DOUBLE);
+        CompiledNetwork compiled = network.compile(precision);
+        try (RowSource source = Datasets.open(options.path("data"));
+             RowSink sink = Datasets.create(options.path("output"), compiled.getNumberOfOutputs())) {
+            return compiled.computeResponses(source, options.batchSize(), sink);
+        }
+    }
+
+    private static long bmu(Options options) throws IOException {
+        KohonenMap map = MapFile.load(options.path("model"));
+        try (RowSource source = Datasets.open(options.path("data"));
+             RowSink sink = Datasets.create(options.path("output"), 1)) {
+            return map.findBMUs(source, options.batchSize(), sink);
+        }
+    }
+
+    private static long recall(Options options) throws IOException {
+        HopfieldNetwork network = HopfieldFile.load(options.path("model"), options.enumValue("storage", WeightStorage.class, WeightStorage.DENSE));
+        try (RowSource source = Datasets.open(options.path("data"));
+             RowSink sink = Datasets.create(options.path("output"), network.getSize())) {
+            return network.recall(source, options.batchSize(), sink);
+        }
+    }
+
+    // Data obsahují v každém řádku vstupy a za nimi cílové hodnoty
+    private static long trainFeedForward(Options options) throws IOException {
+        FeedForwardNetwork network;
+        if (options.has("model")) {
+            network = ModelFile.load(options.path("model"));
+        } else {
+            int[] layers = options.intList("layers");
+            String[] names = options.required("activations").split(",");
+            Activation[] activations = new Activation[names.length];
+            for (int i = 0; i < names.length; i++) {
+                activations[i] = Options.parseEnum(ActivationFunction.class, names[i]);
+            }
+            network = new FeedForwardNetwork();
+            network.initializeRandom(layers, activations, new Random(options.longValue("seed", 42)));
+        }
+        int inputs = network.getNumberOfInputs();
+        int outputs = network.compile().getNumberOfOutputs();
+        int epochs = options.intValue("epochs", 10);
+        int miniBatch = options.intValue("mini-batch", 32);
+        double learningRate = options.doubleValue("learning-rate", 0.01);
+        long seed = options.longValue("seed", 42);
+        MiniBatchTrainer trainer = new MiniBatchTrainer(network);
+
+        long rows = 0;
+        try (RowSource source = Datasets.open(options.path("data"))) {
+            if (source.getColumns() != inputs + outputs) {
+                throw new IllegalArgumentException("Training data needs " + inputs + " input and " + outputs + " target columns, got " + source.getColumns());
+            }
+            int chunkRows = Math.max(options.batchSize(), TRAINING_CHUNK_ROWS);
+            for (int epoch = 0; epoch < epochs; epoch++) {
+                trainer.setSeed(seed + epoch);
+                source.reset();
+                rows += source.forEachBatch(chunkRows, (batch, count) -> {
+                    double[][] x = new double[count][inputs];
+                    double[][] t = new double[count][outputs];
+                    for (int row = 0; row < count; row++) {
+                        System.arraycopy(batch, row * (inputs + outputs), x[row], 0, inputs);
+                        System.arraycopy(batch, row * (inputs + outputs) + inputs, t[row], 0, outputs);
+                    }
+                    trainer.train(x, t, miniBatch, 1, learningRate);
+                });
+            }
+        }
+        ModelFile.save(network, options.path("output"));
+        return rows;
+    }
+
+    private static long trainSom(Options options) throws IOException {
+        String[] shape = options.required("lattice").toLowerCase(Locale.ROOT).split("x");
+        if (shape.length != 2) {
+            throw new IllegalArgumentException("Lattice must be given as ROWSxCOLS, got " + options.required("lattice"));
+        }
+        Lattice lattice = new Lattice(Options.parseInt("lattice", shape[0]), Options.parseInt("lattice", shape[1]),
+                options.enumValue("lattice-type", LatticeType.class, LatticeType.RECTANGULAR));
+        int epochs = options.intValue("epochs", 10);
+        long seed = options.longValue("seed", 42);
+        Decay radius = Decay.linear(options.doubleValue("radius", Math.max(lattice.getRows(), lattice.getCols()) / 2.0), 0.5);
+        String mode = options.value("mode", "batch");
+
+        KohonenMap map;
+        long rows;
+        try (RowSource source = Datasets.open(options.path("data"))) {
+            map = new KohonenMap(lattice, source.getColumns());
+
+            // Počáteční váhy z prvního bloku dat
+            int sampleRows = Math.max(lattice.size(), options.batchSize());
+            double[] batch = new double[sampleRows * source.getColumns()];
+            int count = source.read(batch, sampleRows);
+            if (count == 0) {
+                throw new IllegalArgumentException("Training data is empty");
+            }
+            double[][] samples = new double[count][source.getColumns()];
+            for (int row = 0; row < count; row++) {
+                System.arraycopy(batch, row * source.getColumns(), samples[row], 0, source.getColumns());
+            }
+            map.initializeFromSamples(samples, new Random(seed));
+
+            switch (mode) {
+                case "batch":
+                    rows = map.trainBatch(source, options.batchSize(), epochs, radius);
+                    break;
+                case "online":
+                    rows = map.trainOnline(source, options.batchSize(), epochs, Decay.linear(options.doubleValue("learning-rate", 0.5), 0.01), radius, seed);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown SOM training mode: " + mode);
+            }
+        }
+        MapFile.save(map, options.path("output"));
+        return rows;
+    }
+
+    private static long trainHopfield(Options options) throws IOException {
+        List<int[]> patterns = new ArrayList<>();
+        int size;
+        try (RowSource source = Datasets.open(options.path("data"))) {
+            size = source.getColumns();
+            source.forEachBatch(options.batchSize(), (batch, count) -> {
+                for (int row = 0; row < count; row++) {
+                    int[] pattern = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        pattern[i] = (int) batch[row * size + i];
+                    }
+                    patterns.add(pattern);
+                }
+            });
+        }
+        HopfieldNetwork network = new HopfieldNetwork(size);
+        network.setLearningRule(options.enumValue("rule", LearningRule.class, LearningRule.HEBBIAN));
+        network.addPatterns(patterns);
+        HopfieldFile.save(network, options.path("output"));
+        return patterns.size();
+    }
+}
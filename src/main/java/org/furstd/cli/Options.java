@@ -0,0 +1,111 @@
+package org.furstd.cli;
+
+import org.furstd.dataset.Datasets;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Volby příkazové řádky ve tvaru --name value, sdílené BatchRunner a ServerRunner
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+
+    // Překlep v názvu volby se nesmí tiše ignorovat
+    static Options parse(String[] args, int from, List<String> allowed) {
+        Options options = new Options();
+        for (int i = from; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            options.values.put(name, args[i + 1]);
+        }
+        return options;
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    String value(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    String required(String name) {
+        String value = value(name, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing option --" + name);
+        }
+        return value;
+    }
+
+    Path path(String name) {
+        return Path.of(required(name));
+    }
+
+    int intValue(String name, int defaultValue) {
+        String value = value(name, null);
+        return value == null ? defaultValue : parseInt(name, value);
+    }
+
+    long longValue(String name, long defaultValue) {
+        String value = value(name, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects an integer, got " + value);
+        }
+    }
+
+    double doubleValue(String name, double defaultValue) {
+        String value = value(name, null);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number, got " + value);
+        }
+    }
+
+    int[] intList(String name) {
+        String[] parts = required(name).split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = parseInt(name, parts[i]);
+        }
+        return result;
+    }
+
+    <E extends Enum<E>> E enumValue(String name, Class<E> type, E defaultValue) {
+        String value = value(name, null);
+        return value == null ? defaultValue : parseEnum(type, value);
+    }
+
+    int batchSize() {
+        int batchSize = intValue("batch-size", Datasets.DEFAULT_BATCH_SIZE);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Option --batch-size must be positive");
+        }
+        return batchSize;
+    }
+
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + name);
+        }
+    }
+
+    static int parseInt(String option, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + option + " expects an integer, got " + value);
+        }
+    }
+}
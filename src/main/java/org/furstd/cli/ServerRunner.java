@@ -0,0 +1,150 @@
+package org.furstd.cli;
+
+import org.furstd.dataset.Datasets;
+import org.furstd.dataset.RowSource;
+import org.furstd.feed_forward.ModelFile;
+import org.furstd.feed_forward.PublishedModel;
+import org.furstd.hopfield.HopfieldFile;
+import org.furstd.hopfield.WeightStorage;
+import org.furstd.kernel.Precision;
+import org.furstd.kohen.MapFile;
+import org.furstd.serve.InferenceServer;
+import org.furstd.serve.LoadGenerator;
+import org.furstd.serve.LoadReport;
+import org.furstd.serve.MicroBatcher;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the {@link InferenceServer} on the loopback interface and drives it with the
+ * {@link LoadGenerator}, so batching settings can be tuned without external tools.
+ */
+public final class ServerRunner {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage:",
+            "  serve [--ffn MODEL [--precision double|float32|mixed]] [--som MAP] [--hopfield NET [--storage dense|sparse]]",
+            "        [--port 8080] [--max-batch 64] [--max-wait-us 1000] [--queue " + InferenceServer.DEFAULT_QUEUE_CAPACITY + "]",
+            "  load --url http://localhost:8080/ffn --data FILE [--rows 10000] [--concurrency 64] [--seconds 10]",
+            "Endpoints: /ffn, /som and /hopfield take one vector per POST, values separated by commas.");
+
+    private ServerRunner() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args, System.out));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (NoSuchFileException e) {
+            System.err.println("File not found: " + e.getFile());
+            System.exit(1);
+        } catch (IOException e) {
+            System.err.println("I/O error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            System.exit(1);
+        }
+    }
+
+    public static int run(String[] args, PrintStream report) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Missing command");
+        }
+        switch (args[0]) {
+            case "serve":
+                serve(Options.parse(args, 1, List.of("ffn", "precision", "som", "hopfield", "storage", "port", "max-batch", "max-wait-us", "queue")), report);
+                return 0;
+            case "load":
+                load(Options.parse(args, 1, List.of("url", "data", "rows", "concurrency", "seconds")), report);
+                return 0;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+
+    // Běží do ukončení procesu, statistiky dávek vypíše při vypnutí
+    private static void serve(Options options, PrintStream report) throws IOException, InterruptedException {
+        if (!options.has("ffn") && !options.has("som") && !options.has("hopfield")) {
+            throw new IllegalArgumentException("At least one of --ffn, --som or --hopfield is required");
+        }
+        // Hlavičky a tělo odpovědi jdou zvlášť, bez TCP_NODELAY čeká klient na zpožděné ACK desítky ms.
+        // JDK čte vlastnost jen jednou, při prvním vytvoření HttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int maxBatch = options.intValue("max-batch", 64);
+        long maxWaitNanos = options.longValue("max-wait-us", 1000) * 1000;
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), options.intValue("port", 8080));
+        InferenceServer server = new InferenceServer(address, maxBatch, maxWaitNanos, options.intValue("queue", InferenceServer.DEFAULT_QUEUE_CAPACITY));
+
+        List<String> paths = new ArrayList<>();
+        if (options.has("ffn")) {
+            Precision precision = options.enumValue("precision", Precision.class, Precision.DOUBLE);
+            server.addFeedForward("/ffn", new PublishedModel(ModelFile.load(options.path("ffn")).compile(precision)));
+            paths.add("/ffn");
+        }
+        if (options.has("som")) {
+            server.addKohonen("/som", MapFile.load(options.path("som")));
+            paths.add("/som");
+        }
+        if (options.has("hopfield")) {
+            WeightStorage storage = options.enumValue("storage", WeightStorage.class, WeightStorage.DENSE);
+            server.addHopfield("/hopfield", HopfieldFile.load(options.path("hopfield"), storage));
+            paths.add("/hopfield");
+        }
+        server.start();
+        report.printf("Serving %s on http://localhost:%d%n", String.join(", ", paths), server.getPort());
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            List<MicroBatcher<?, ?>> batchers = server.getBatchers();
+            for (int i = 0; i < batchers.size(); i++) {
+                MicroBatcher<?, ?> batcher = batchers.get(i);
+                report.printf(Locale.ROOT, "%s: %d requests in %d batches (mean batch %.1f)%n",
+                        paths.get(i), batcher.getRequests(), batcher.getBatches(), batcher.getMeanBatchSize());
+            }
+        }));
+        Thread.currentThread().join();
+    }
+
+    private static void load(Options options, PrintStream report) throws IOException, InterruptedException {
+        URI uri = URI.create(options.required("url"));
+        int maxRows = options.intValue("rows", 10000);
+        List<String> bodies = new ArrayList<>();
+        try (RowSource source = Datasets.open(options.path("data"))) {
+            int columns = source.getColumns();
+            double[] batch = new double[Datasets.DEFAULT_BATCH_SIZE * columns];
+            int count;
+            while (bodies.size() < maxRows && (count = source.read(batch, Math.min(Datasets.DEFAULT_BATCH_SIZE, maxRows - bodies.size()))) > 0) {
+                for (int row = 0; row < count; row++) {
+                    StringBuilder body = new StringBuilder();
+                    for (int i = 0; i < columns; i++) {
+                        if (i > 0) {
+                            body.append(',');
+                        }
+                        body.append(batch[row * columns + i]);
+                    }
+                    bodies.add(body.toString());
+                }
+            }
+        }
+        if (bodies.isEmpty()) {
+            throw new IllegalArgumentException("Load data is empty");
+        }
+
+        Duration duration = Duration.ofSeconds(options.intValue("seconds", 10));
+        LoadReport result = new LoadGenerator().run(uri, bodies, options.intValue("concurrency", 64), duration);
+        report.println("load: " + result);
+    }
+}
@@ -0,0 +1,307 @@
+package org.furstd.convolutional;
+
+import org.furstd.kernel.Precision;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Multi-channel 2-D convolution over flat tensors of shape [batch][channels][height][width].
+ * Every image is lowered with im2col into a [channels * kernelHeight * kernelWidth][outputHeight * outputWidth]
+ * matrix, which is then multiplied by the filter bank [outChannels][channels * kernelHeight * kernelWidth].
+ * The column buffer is kept between calls, so an instance must not be shared between threads.
+ * With {@link Precision#FLOAT32} or {@link Precision#MIXED} the filters are stored as float;
+ * gradients are always accumulated in double.
+ */
+public class Conv2DLayer {
+    private final int inChannels;
+    private final int outChannels;
+    private final int kernelHeight;
+    private final int kernelWidth;
+    private final int stride;
+    private final int padding;
+    private final Precision precision;
+    private final double[] filters;
+    private final float[] floatFilters;
+    private final double[] bias;
+    private double[] columns = new double[0];
+    private float[] floatColumns = new float[0];
+    private float[] floatOutput = new float[0];
+
+    public Conv2DLayer(int inChannels, int outChannels, int kernelHeight, int kernelWidth, int stride, int padding) {
+        this(inChannels, outChannels, kernelHeight, kernelWidth, stride, padding, Precision.DOUBLE);
+    }
+
+    public Conv2DLayer(int inChannels, int outChannels, int kernelHeight, int kernelWidth, int stride, int padding, Precision precision) {
+        if (inChannels < 1 || outChannels < 1 || kernelHeight < 1 || kernelWidth < 1) {
+            throw new IllegalArgumentException("Channels and kernel size must be positive");
+        }
+        if (stride < 1 || padding < 0) {
+            throw new IllegalArgumentException("Stride must be positive and padding non-negative");
+        }
+        this.inChannels = inChannels;
+        this.outChannels = outChannels;
+        this.kernelHeight = kernelHeight;
+        this.kernelWidth = kernelWidth;
+        this.stride = stride;
+        this.padding = padding;
+        this.precision = precision;
+        int filterWeights = outChannels * inChannels * kernelHeight * kernelWidth;
+        this.filters = precision == Precision.DOUBLE ? new double[filterWeights] : null;
+        this.floatFilters = precision == Precision.DOUBLE ? null : new float[filterWeights];
+        this.bias = new double[outChannels];
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public int getFilterWeightCount() {
+        return outChannels * inChannels * kernelHeight * kernelWidth;
+    }
+
+    public int getInChannels() {
+        return inChannels;
+    }
+
+    public int getOutChannels() {
+        return outChannels;
+    }
+
+    // Filtr oc, kanál c, řádek ky, sloupec kx je na indexu ((oc * inChannels + c) * kernelHeight + ky) * kernelWidth + kx
+    public double[] getFilters() {
+        if (filters == null) {
+            throw new IllegalStateException("Filters are stored as float, use getFloatFilters()");
+        }
+        return filters;
+    }
+
+    public float[] getFloatFilters() {
+        if (floatFilters == null) {
+            throw new IllegalStateException("Filters are stored as double, use getFilters()");
+        }
+        return floatFilters;
+    }
+
+    public double[] getBias() {
+        return bias;
+    }
+
+    public void setFilter(int outChannel, int inChannel, double[][] filter) {
+        if (filter.length != kernelHeight || filter[0].length != kernelWidth) {
+            throw new IllegalArgumentException("Filter must have size " + kernelHeight + "x" + kernelWidth);
+        }
+        int offset = (outChannel * inChannels + inChannel) * kernelHeight * kernelWidth;
+        for (int ky = 0; ky < kernelHeight; ky++) {
+            if (filters != null) {
+                System.arraycopy(filter[ky], 0, filters, offset + ky * kernelWidth, kernelWidth);
+            } else {
+                for (int kx = 0; kx < kernelWidth; kx++) {
+                    floatFilters[offset + ky * kernelWidth + kx] = (float) filter[ky][kx];
+                }
+            }
+        }
+    }
+
+    // Xavier/Glorot uniform inicializace
+    public void initializeRandom(Random random) {
+        int fanIn = inChannels * kernelHeight * kernelWidth;
+        int fanOut = outChannels * kernelHeight * kernelWidth;
+        double limit = Math.sqrt(6.0 / (fanIn + fanOut));
+        for (int i = 0; i < getFilterWeightCount(); i++) {
+            double value = (random.nextDouble() * 2 - 1) * limit;
+            if (filters != null) {
+                filters[i] = value;
+            } else {
+                floatFilters[i] = (float) value;
+            }
+        }
+        Arrays.fill(bias, 0);
+    }
+
+    // Krok učení w += scale * gradient; MIXED počítá v double a výsledek uloží jako float
+    public void applyGradients(double[] filterGradients, double[] biasGradients, double scale) {
+        switch (precision) {
+            case FLOAT32:
+                float floatScale = (float) scale;
+                for (int i = 0; i < floatFilters.length; i++) {
+                    floatFilters[i] += floatScale * (float) filterGradients[i];
+                }
+                break;
+            case MIXED:
+                for (int i = 0; i < floatFilters.length; i++) {
+                    floatFilters[i] = (float) (floatFilters[i] + scale * filterGradients[i]);
+                }
+                break;
+            default:
+                for (int i = 0; i < filters.length; i++) {
+                    filters[i] += scale * filterGradients[i];
+                }
+                break;
+        }
+        for (int i = 0; i < bias.length; i++) {
+            bias[i] += scale * biasGradients[i];
+        }
+    }
+
+    public int getOutputHeight(int inputHeight) {
+        return (inputHeight + 2 * padding - kernelHeight) / stride + 1;
+    }
+
+    public int getOutputWidth(int inputWidth) {
+        return (inputWidth + 2 * padding - kernelWidth) / stride + 1;
+    }
+
+    public double[] forward(double[] input, int batch, int height, int width) {
+        double[] output = new double[batch * outChannels * getOutputHeight(height) * getOutputWidth(width)];
+        forward(input, batch, height, width, output);
+        return output;
+    }
+
+    public void forward(double[] input, int batch, int height, int width, double[] output) {
+        int outputHeight = getOutputHeight(height);
+        int outputWidth = getOutputWidth(width);
+        if (outputHeight < 1 || outputWidth < 1) {
+            throw new IllegalArgumentException("Kernel " + kernelHeight + "x" + kernelWidth + " does not fit input " + height + "x" + width);
+        }
+        int inputSize = inChannels * height * width;
+        int positions = outputHeight * outputWidth;
+        int patchSize = inChannels * kernelHeight * kernelWidth;
+        if (input.length < batch * inputSize) {
+            throw new IllegalArgumentException("Input must hold " + batch + " images of " + inChannels + "x" + height + "x" + width);
+        }
+        if (output.length < batch * outChannels * positions) {
+            throw new IllegalArgumentException("Output must hold " + batch + " images of " + outChannels + "x" + outputHeight + "x" + outputWidth);
+        }
+        if (columns.length < patchSize * positions) {
+            columns = new double[patchSize * positions];
+        }
+        if (precision == Precision.FLOAT32 && floatColumns.length < patchSize * positions) {
+            floatColumns = new float[patchSize * positions];
+            floatOutput = new float[outChannels * positions];
+        }
+
+        for (int image = 0; image < batch; image++) {
+            im2col(input, image * inputSize, height, width, outputHeight, outputWidth, columns);
+
+            int outOffset = image * outChannels * positions;
+            if (precision == Precision.FLOAT32) {
+                for (int i = 0; i < patchSize * positions; i++) {
+                    floatColumns[i] = (float) columns[i];
+                }
+                for (int oc = 0; oc < outChannels; oc++) {
+                    Arrays.fill(floatOutput, oc * positions, (oc + 1) * positions, (float) bias[oc]);
+                }
+                MatrixMultiply.multiply(floatFilters, 0, floatColumns, 0, floatOutput, 0, outChannels, patchSize, positions);
+                for (int i = 0; i < outChannels * positions; i++) {
+                    output[outOffset + i] = floatOutput[i];
+                }
+                continue;
+            }
+
+            for (int oc = 0; oc < outChannels; oc++) {
+                Arrays.fill(output, outOffset + oc * positions, outOffset + (oc + 1) * positions, bias[oc]);
+            }
+            if (precision == Precision.MIXED) {
+                MatrixMultiply.multiply(floatFilters, 0, columns, 0, output, outOffset, outChannels, patchSize, positions);
+            } else {
+                MatrixMultiply.multiply(filters, 0, columns, 0, output, outOffset, outChannels, patchSize, positions);
+            }
+        }
+    }
+
+    /**
+     * Accumulates filter and bias gradients for the given output gradient and, when
+     * {@code gradInput} is not null, adds the gradient of the input to it. Gradients use
+     * the same sign convention as the feed-forward trainer, i.e. {@code w += alpha * gradient}.
+     */
+    public void backward(double[] input, int batch, int height, int width, double[] gradOutput,
+                         double[] filterGradients, double[] biasGradients, double[] gradInput) {
+        int outputHeight = getOutputHeight(height);
+        int outputWidth = getOutputWidth(width);
+        int inputSize = inChannels * height * width;
+        int positions = outputHeight * outputWidth;
+        int patchSize = inChannels * kernelHeight * kernelWidth;
+        if (columns.length < patchSize * positions) {
+            columns = new double[patchSize * positions];
+        }
+
+        for (int image = 0; image < batch; image++) {
+            int outOffset = image * outChannels * positions;
+            im2col(input, image * inputSize, height, width, outputHeight, outputWidth, columns);
+            MatrixMultiply.multiplyTransposedB(gradOutput, outOffset, columns, 0, filterGradients, 0, outChannels, positions, patchSize);
+            for (int oc = 0; oc < outChannels; oc++) {
+                double sum = 0;
+                for (int p = 0; p < positions; p++) {
+                    sum += gradOutput[outOffset + oc * positions + p];
+                }
+                biasGradients[oc] += sum;
+            }
+
+            if (gradInput != null) {
+                Arrays.fill(columns, 0, patchSize * positions, 0);
+                if (filters != null) {
+                    MatrixMultiply.multiplyTransposedA(filters, 0, gradOutput, outOffset, columns, 0, patchSize, outChannels, positions);
+                } else {
+                    MatrixMultiply.multiplyTransposedA(floatFilters, 0, gradOutput, outOffset, columns, 0, patchSize, outChannels, positions);
+                }
+                col2im(columns, height, width, outputHeight, outputWidth, gradInput, image * inputSize);
+            }
+        }
+    }
+
+    void im2col(double[] input, int inputOffset, int height, int width, int outputHeight, int outputWidth, double[] columns) {
+        int positions = outputHeight * outputWidth;
+        int row = 0;
+        for (int c = 0; c < inChannels; c++) {
+            int channelOffset = inputOffset + c * height * width;
+            for (int ky = 0; ky < kernelHeight; ky++) {
+                for (int kx = 0; kx < kernelWidth; kx++) {
+                    int columnOffset = row * positions;
+                    for (int oy = 0; oy < outputHeight; oy++) {
+                        int y = oy * stride - padding + ky;
+                        int target = columnOffset + oy * outputWidth;
+                        if (y < 0 || y >= height) {
+                            Arrays.fill(columns, target, target + outputWidth, 0);
+                            continue;
+                        }
+                        int rowOffset = channelOffset + y * width;
+                        for (int ox = 0; ox < outputWidth; ox++) {
+                            int x = ox * stride - padding + kx;
+                            columns[target + ox] = x >= 0 && x < width ? input[rowOffset + x] : 0;
+                        }
+                    }
+                    row++;
+                }
+            }
+        }
+    }
+
+    void col2im(double[] columns, int height, int width, int outputHeight, int outputWidth, double[] output, int outputOffset) {
+        int positions = outputHeight * outputWidth;
+        int row = 0;
+        for (int c = 0; c < inChannels; c++) {
+            int channelOffset = outputOffset + c * height * width;
+            for (int ky = 0; ky < kernelHeight; ky++) {
+                for (int kx = 0; kx < kernelWidth; kx++) {
+                    int columnOffset = row * positions;
+                    for (int oy = 0; oy < outputHeight; oy++) {
+                        int y = oy * stride - padding + ky;
+                        if (y < 0 || y >= height) {
+                            continue;
+                        }
+                        int source = columnOffset + oy * outputWidth;
+                        int rowOffset = channelOffset + y * width;
+                        for (int ox = 0; ox < outputWidth; ox++) {
+                            int x = ox * stride - padding + kx;
+                            if (x >= 0 && x < width) {
+                                output[rowOffset + x] += columns[source + ox];
+                            }
+                        }
+                    }
+                    row++;
+                }
+            }
+        }
+    }
+}
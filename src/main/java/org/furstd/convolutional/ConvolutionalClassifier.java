@@ -0,0 +1,162 @@
+package org.furstd.convolutional;
+
+import org.furstd.feed_forward.Activation;
+import org.furstd.feed_forward.BackpropWorkspace;
+import org.furstd.feed_forward.FeedForwardNetwork;
+import org.furstd.feed_forward.LayerData;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * End-to-end model: convolution, activation, pooling and flattening in front of the
+ * layers of a {@link FeedForwardNetwork}. Images are flat [channels][height][width]
+ * arrays. All activation and gradient buffers are allocated once in the constructor
+ * and reused by every training step, so an instance must not be shared between threads.
+ */
+public class ConvolutionalClassifier {
+    private final Conv2DLayer conv;
+    private final Activation convActivation;
+    private final Pooling2D pooling;
+    private final FeedForwardNetwork head;
+    private final int inputHeight;
+    private final int inputWidth;
+    private final int convHeight;
+    private final int convWidth;
+
+    private final double[] convPreActivation;
+    private final double[] convOutput;
+    private final double[] pooled;
+    private final int[] argmax;
+    private final double[] pooledGradient;
+    private final double[] convGradient;
+    private final double[] filterGradients;
+    private final double[] biasGradients;
+    private final Activation[] headActivations;
+    private final BackpropWorkspace headWorkspace;
+
+    public ConvolutionalClassifier(Conv2DLayer conv, Activation convActivation, Pooling2D pooling,
+                                   FeedForwardNetwork head, int inputHeight, int inputWidth) {
+        this.conv = conv;
+        this.convActivation = convActivation;
+        this.pooling = pooling;
+        this.head = head;
+        this.inputHeight = inputHeight;
+        this.inputWidth = inputWidth;
+        this.convHeight = conv.getOutputHeight(inputHeight);
+        this.convWidth = conv.getOutputWidth(inputWidth);
+
+        int convSize = conv.getOutChannels() * convHeight * convWidth;
+        int pooledSize = conv.getOutChannels() * pooling.getOutputHeight(convHeight) * pooling.getOutputWidth(convWidth);
+        if (head.getNumberOfInputs() != pooledSize) {
+            throw new IllegalArgumentException("Feed-forward head must have " + pooledSize + " inputs, has " + head.getNumberOfInputs());
+        }
+
+        convPreActivation = new double[convSize];
+        convOutput = new double[convSize];
+        pooled = new double[pooledSize];
+        argmax = new int[pooledSize];
+        pooledGradient = new double[pooledSize];
+        convGradient = new double[convSize];
+        filterGradients = new double[conv.getFilterWeightCount()];
+        biasGradients = new double[conv.getBias().length];
+
+        List<LayerData> layersData = head.getLayersData();
+        headActivations = new Activation[layersData.size()];
+        for (int i = 0; i < headActivations.length; i++) {
+            headActivations[i] = layersData.get(i).getActivationFunction();
+        }
+        headWorkspace = new BackpropWorkspace(head.getWeights());
+    }
+
+    public int getInputSize() {
+        return conv.getInChannels() * inputHeight * inputWidth;
+    }
+
+    public double[] predict(double[] image) {
+        forwardFeatures(image);
+        headWorkspace.forward(head.getWeights(), headActivations, pooled);
+        return Arrays.copyOf(headWorkspace.getOutput(), headWorkspace.getOutput().length);
+    }
+
+    public int classify(double[] image) {
+        double[] output = predict(image);
+        int best = 0;
+        for (int i = 1; i < output.length; i++) {
+            if (output[i] > output[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Trains all layers with mini-batch gradient descent on the squared error and
+     * returns the mean {@code 0.5 * sum(e^2)} per sample for every epoch.
+     */
+    public double[] train(double[][] images, double[][] targets, int batchSize, int epochs, double learningRate, long seed) {
+        if (images.length != targets.length) {
+            throw new IllegalArgumentException("Images and targets must have the same number of rows");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        double[][][] headWeights = head.getWeights();
+        int[] order = new int[images.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        double[] losses = new double[epochs];
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = order.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            double epochLoss = 0;
+            for (int start = 0; start < order.length; start += batchSize) {
+                int end = Math.min(order.length, start + batchSize);
+                headWorkspace.clear();
+                Arrays.fill(filterGradients, 0);
+                Arrays.fill(biasGradients, 0);
+
+                for (int i = start; i < end; i++) {
+                    epochLoss += accumulate(images[order[i]], targets[order[i]], headWeights);
+                }
+
+                double scale = learningRate / (end - start);
+                headWorkspace.applyTo(headWeights, scale);
+                conv.applyGradients(filterGradients, biasGradients, scale);
+            }
+            losses[epoch] = epochLoss / images.length;
+        }
+        return losses;
+    }
+
+    private double accumulate(double[] image, double[] target, double[][][] headWeights) {
+        forwardFeatures(image);
+        double loss = headWorkspace.accumulate(headWeights, headActivations, pooled, target, pooledGradient);
+
+        Arrays.fill(convGradient, 0);
+        pooling.backward(pooledGradient, 1, conv.getOutChannels(), convHeight, convWidth, argmax, convGradient);
+        convActivation.backward(convPreActivation, convOutput, convGradient, 0, convGradient.length);
+        conv.backward(image, 1, inputHeight, inputWidth, convGradient, filterGradients, biasGradients, null);
+        return loss;
+    }
+
+    private void forwardFeatures(double[] image) {
+        if (image.length != getInputSize()) {
+            throw new IllegalArgumentException("Image must have size " + getInputSize());
+        }
+        conv.forward(image, 1, inputHeight, inputWidth, convPreActivation);
+        System.arraycopy(convPreActivation, 0, convOutput, 0, convOutput.length);
+        convActivation.forward(convOutput, 0, convOutput.length);
+        pooling.forward(convOutput, 1, conv.getOutChannels(), convHeight, convWidth, pooled, argmax);
+    }
+}
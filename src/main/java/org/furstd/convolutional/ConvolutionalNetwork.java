@@ -1,12 +1,34 @@
 package org.furstd.convolutional;
 
+import org.furstd.dataset.TokenReader;
+import org.furstd.kernel.Kernels;
 import org.furstd.kohen.KohonenMap;
-
-import java.util.Scanner;
+import org.furstd.trace.Operation;
+import org.furstd.trace.TextbookTracer;
+import org.furstd.trace.Tracer;
 
 public class ConvolutionalNetwork {
+    private Tracer tracer = Tracer.NONE;
+    private boolean tracingSteps;
+    private boolean timing;
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+        this.tracingSteps = tracer.tracesSteps();
+        this.timing = tracer.measuresTime();
+    }
 
-    public void convPlusMaxPooling(double[][] input, double[][] filter) {
+    public double[][] convPlusMaxPooling(double[][] input, double[][] filter) {
+        return convPlusMaxPooling(input, filter, 2, 2);
+    }
+
+    // Vrací matici po max poolingu
+    public double[][] convPlusMaxPooling(double[][] input, double[][] filter, int poolWidth, int poolHeight) {
+        long start = timing ? System.nanoTime() : 0;
         int inputWidth = input.length;
         int inputHeight = input[0].length;
         int filterWidth = filter.length;
@@ -21,29 +43,37 @@ public class ConvolutionalNetwork {
             for (int j = 0; j < outputHeight; j++) {
                 double sum = 0;
                 for (int k = 0; k < filterWidth; k++) {
-                    for (int l = 0; l < filterHeight; l++) {
-                        sum += input[i + k][j + l] * filter[k][l];
-                    }
+                    sum = Kernels.dotAdd(sum, input[i + k], j, filter[k], 0, filterHeight);
                 }
                 output[i][j] = sum;
             }
         }
 
-        System.out.println("\nOutput matrix after convolution:");
-        printMatrix(output);
-
-        System.out.println("\nOutput matrix after max pooling:");
-        maxPooling(output, outputWidth, outputHeight);
+        double[][] pooled = pool(output, poolWidth, poolHeight);
+        if (tracingSteps) {
+            tracer.convolutionComputed(output, pooled);
+        }
+        if (timing) {
+            tracer.callFinished(Operation.CONVOLUTION, 1, System.nanoTime() - start);
+        }
+        return pooled;
     }
 
     private void maxPooling(double[][] input, int poolWidth, int poolHeight) {
+        double[][] pooled = pool(input, poolWidth, poolHeight);
+        if (tracingSteps) {
+            tracer.poolingComputed(pooled);
+        }
+    }
+
+    private static double[][] pool(double[][] input, int poolWidth, int poolHeight) {
         int inputWidth = input.length;
         int inputHeight = input[0].length;
 
         int outputWidth = inputWidth / poolWidth;
         int outputHeight = inputHeight / poolHeight;
 
-        double[][] output = new double[poolWidth][poolHeight];
+        double[][] output = new double[outputWidth][outputHeight];
 
         for (int i = 0; i < outputWidth; i++) {
             for (int j = 0; j < outputHeight; j++) {
@@ -58,8 +88,7 @@ public class ConvolutionalNetwork {
                 output[i][j] = max;
             }
         }
-
-        printMatrix(output);
+        return output;
     }
 
     public void printMatrix(double[][] matrix) {
@@ -72,8 +101,9 @@ public class ConvolutionalNetwork {
     }
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        TokenReader reader = new TokenReader(System.in);
         ConvolutionalNetwork cnn = new ConvolutionalNetwork();
+        cnn.setTracer(new TextbookTracer());
 
         while (true) {
             System.out.println("\nMenu:");
@@ -82,48 +112,49 @@ public class ConvolutionalNetwork {
             System.out.println("3) Exit");
             System.out.print("Input choice: ");
 
-            int choice = scanner.nextInt();
+            int choice = reader.nextInt();
             switch (choice) {
                 case 1:
                     System.out.println("Enter input matrix size (width x height) separated by space:");
-                    double[][] inputMatrix = new double[scanner.nextInt()][scanner.nextInt()];
+                    double[][] inputMatrix = new double[reader.nextInt()][reader.nextInt()];
                     for (int i = 0; i < inputMatrix[0].length; i++) {
                         System.out.println("Enter row " + (i + 1) + " of input matrix separated by spaces:");
                         for (int j = 0; j < inputMatrix.length; j++) {
-                            inputMatrix[i][j] = scanner.nextDouble();
+                            inputMatrix[i][j] = reader.nextDouble();
                         }
                     }
 
                     System.out.println("Enter filter size (width x height) separated by space:");
-                    double[][] filter = new double[scanner.nextInt()][scanner.nextInt()];
+                    double[][] filter = new double[reader.nextInt()][reader.nextInt()];
                     for (int i = 0; i < filter[0].length; i++) {
                         System.out.println("Enter row " + (i + 1) + " of filter matrix separated by spaces:");
                         for (int j = 0; j < filter.length; j++) {
-                            filter[i][j] = scanner.nextDouble();
+                            filter[i][j] = reader.nextDouble();
                         }
                     }
 
-                    cnn.convPlusMaxPooling(inputMatrix, filter);
+                    System.out.println("Enter pool size (width x height) separated by space:");
+                    cnn.convPlusMaxPooling(inputMatrix, filter, reader.nextInt(), reader.nextInt());
                     break;
                 case 2:
                     System.out.println("Enter input matrix size (width x height) separated by space:");
-                    inputMatrix = new double[scanner.nextInt()][scanner.nextInt()];
+                    inputMatrix = new double[reader.nextInt()][reader.nextInt()];
                     for (int i = 0; i < inputMatrix[0].length; i++) {
                         System.out.println("Enter row " + (i + 1) + " of input matrix separated by spaces:");
                         for (int j = 0; j < inputMatrix.length; j++) {
-                            inputMatrix[i][j] = scanner.nextDouble();
+                            inputMatrix[i][j] = reader.nextDouble();
                         }
                     }
 
                     System.out.println("Enter pool size (width x height) separated by space:");
-                    int poolWidth = scanner.nextInt();
-                    int poolHeight = scanner.nextInt();
+                    int poolWidth = reader.nextInt();
+                    int poolHeight = reader.nextInt();
 
                     cnn.maxPooling(inputMatrix, poolWidth, poolHeight);
                     break;
                 case 3:
                     System.out.println("Exiting...");
-                    scanner.close();
+                    reader.close();
                     return;
                 default:
                     System.out.println("Invalid choice!");
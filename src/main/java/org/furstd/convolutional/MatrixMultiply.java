@@ -0,0 +1,128 @@
+package org.furstd.convolutional;
+
+import org.furstd.kernel.Kernels;
+
+/**
+ * Cache-blocked products over flat row-major buffers. All methods accumulate into
+ * {@code c}, so the caller clears or pre-fills it (e.g. with the bias).
+ */
+final class MatrixMultiply {
+    private static final int K_BLOCK = 64;
+    private static final int N_BLOCK = 512;
+
+    private MatrixMultiply() {
+    }
+
+    // c[m][n] += a[m][k] * b[k][n]
+    static void multiply(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n) {
+        for (int nStart = 0; nStart < n; nStart += N_BLOCK) {
+            int nEnd = Math.min(n, nStart + N_BLOCK);
+            for (int kStart = 0; kStart < k; kStart += K_BLOCK) {
+                int kEnd = Math.min(k, kStart + K_BLOCK);
+                for (int i = 0; i < m; i++) {
+                    int cRow = cOffset + i * n;
+                    int aRow = aOffset + i * k;
+                    for (int p = kStart; p < kEnd; p++) {
+                        double value = a[aRow + p];
+                        if (value == 0) {
+                            continue;
+                        }
+                        Kernels.axpy(value, b, bOffset + p * n + nStart, c, cRow + nStart, nEnd - nStart);
+                    }
+                }
+            }
+        }
+    }
+
+    // Float filtry pro Precision.FLOAT32, vše ve float
+    static void multiply(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int m, int k, int n) {
+        for (int nStart = 0; nStart < n; nStart += N_BLOCK) {
+            int nEnd = Math.min(n, nStart + N_BLOCK);
+            for (int kStart = 0; kStart < k; kStart += K_BLOCK) {
+                int kEnd = Math.min(k, kStart + K_BLOCK);
+                for (int i = 0; i < m; i++) {
+                    int cRow = cOffset + i * n;
+                    int aRow = aOffset + i * k;
+                    for (int p = kStart; p < kEnd; p++) {
+                        float value = a[aRow + p];
+                        if (value == 0) {
+                            continue;
+                        }
+                        Kernels.axpy(value, b, bOffset + p * n + nStart, c, cRow + nStart, nEnd - nStart);
+                    }
+                }
+            }
+        }
+    }
+
+    // Float filtry pro Precision.MIXED, sloupce i výstup v double
+    static void multiply(float[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n) {
+        for (int nStart = 0; nStart < n; nStart += N_BLOCK) {
+            int nEnd = Math.min(n, nStart + N_BLOCK);
+            for (int kStart = 0; kStart < k; kStart += K_BLOCK) {
+                int kEnd = Math.min(k, kStart + K_BLOCK);
+                for (int i = 0; i < m; i++) {
+                    int cRow = cOffset + i * n;
+                    int aRow = aOffset + i * k;
+                    for (int p = kStart; p < kEnd; p++) {
+                        double value = a[aRow + p];
+                        if (value == 0) {
+                            continue;
+                        }
+                        Kernels.axpy(value, b, bOffset + p * n + nStart, c, cRow + nStart, nEnd - nStart);
+                    }
+                }
+            }
+        }
+    }
+
+    // c[m][n] += a[m][k] * b[n][k]^T
+    static void multiplyTransposedB(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n) {
+        for (int kStart = 0; kStart < k; kStart += N_BLOCK) {
+            int kEnd = Math.min(k, kStart + N_BLOCK);
+            for (int i = 0; i < m; i++) {
+                int aRow = aOffset + i * k;
+                int cRow = cOffset + i * n;
+                for (int j = 0; j < n; j++) {
+                    c[cRow + j] += Kernels.dot(a, aRow + kStart, b, bOffset + j * k + kStart, kEnd - kStart);
+                }
+            }
+        }
+    }
+
+    // c[m][n] += a[k][m]^T * b[k][n]
+    static void multiplyTransposedA(double[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n) {
+        for (int nStart = 0; nStart < n; nStart += N_BLOCK) {
+            int nEnd = Math.min(n, nStart + N_BLOCK);
+            for (int p = 0; p < k; p++) {
+                int aRow = aOffset + p * m;
+                int bRow = bOffset + p * n;
+                for (int i = 0; i < m; i++) {
+                    double value = a[aRow + i];
+                    if (value == 0) {
+                        continue;
+                    }
+                    Kernels.axpy(value, b, bRow + nStart, c, cOffset + i * n + nStart, nEnd - nStart);
+                }
+            }
+        }
+    }
+
+    // c[m][n] += a[k][m]^T * b[k][n] s float a, gradient se sčítá v double
+    static void multiplyTransposedA(float[] a, int aOffset, double[] b, int bOffset, double[] c, int cOffset, int m, int k, int n) {
+        for (int nStart = 0; nStart < n; nStart += N_BLOCK) {
+            int nEnd = Math.min(n, nStart + N_BLOCK);
+            for (int p = 0; p < k; p++) {
+                int aRow = aOffset + p * m;
+                int bRow = bOffset + p * n;
+                for (int i = 0; i < m; i++) {
+                    double value = a[aRow + i];
+                    if (value == 0) {
+                        continue;
+                    }
+                    Kernels.axpy(value, b, bRow + nStart, c, cOffset + i * n + nStart, nEnd - nStart);
+                }
+            }
+        }
+    }
+}
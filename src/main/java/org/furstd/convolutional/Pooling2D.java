@@ -0,0 +1,125 @@
+package org.furstd.convolutional;
+
+/**
+ * Max or average pooling over flat tensors of shape [batch][channels][height][width].
+ * All buffers are supplied by the caller, so the operator allocates nothing. In max mode
+ * the index of every winning input element is written to {@code argmax}, which lets
+ * {@link #backward} route gradients in O(output) time.
+ */
+public class Pooling2D {
+    private final PoolingMode mode;
+    private final int windowHeight;
+    private final int windowWidth;
+    private final int stride;
+
+    public Pooling2D(PoolingMode mode, int windowHeight, int windowWidth, int stride) {
+        if (windowHeight < 1 || windowWidth < 1 || stride < 1) {
+            throw new IllegalArgumentException("Window size and stride must be positive");
+        }
+        this.mode = mode;
+        this.windowHeight = windowHeight;
+        this.windowWidth = windowWidth;
+        this.stride = stride;
+    }
+
+    public PoolingMode getMode() {
+        return mode;
+    }
+
+    public int getOutputHeight(int inputHeight) {
+        return (inputHeight - windowHeight) / stride + 1;
+    }
+
+    public int getOutputWidth(int inputWidth) {
+        return (inputWidth - windowWidth) / stride + 1;
+    }
+
+    public void forward(double[] input, int batch, int channels, int height, int width, double[] output, int[] argmax) {
+        int outputHeight = getOutputHeight(height);
+        int outputWidth = getOutputWidth(width);
+        if (outputHeight < 1 || outputWidth < 1) {
+            throw new IllegalArgumentException("Window " + windowHeight + "x" + windowWidth + " does not fit input " + height + "x" + width);
+        }
+        int planes = batch * channels;
+        if (input.length < planes * height * width) {
+            throw new IllegalArgumentException("Input must hold " + planes + " planes of " + height + "x" + width);
+        }
+        if (output.length < planes * outputHeight * outputWidth) {
+            throw new IllegalArgumentException("Output must hold " + planes + " planes of " + outputHeight + "x" + outputWidth);
+        }
+        if (mode == PoolingMode.MAX && argmax != null && argmax.length < planes * outputHeight * outputWidth) {
+            throw new IllegalArgumentException("Argmax must hold " + planes * outputHeight * outputWidth + " indices");
+        }
+
+        double area = windowHeight * windowWidth;
+        int out = 0;
+        for (int plane = 0; plane < planes; plane++) {
+            int planeOffset = plane * height * width;
+            for (int oy = 0; oy < outputHeight; oy++) {
+                for (int ox = 0; ox < outputWidth; ox++) {
+                    int windowOffset = planeOffset + oy * stride * width + ox * stride;
+                    if (mode == PoolingMode.MAX) {
+                        int best = windowOffset;
+                        for (int ky = 0; ky < windowHeight; ky++) {
+                            int rowOffset = windowOffset + ky * width;
+                            for (int kx = 0; kx < windowWidth; kx++) {
+                                if (input[rowOffset + kx] > input[best]) {
+                                    best = rowOffset + kx;
+                                }
+                            }
+                        }
+                        output[out] = input[best];
+                        if (argmax != null) {
+                            argmax[out] = best;
+                        }
+                    } else {
+                        double sum = 0;
+                        for (int ky = 0; ky < windowHeight; ky++) {
+                            int rowOffset = windowOffset + ky * width;
+                            for (int kx = 0; kx < windowWidth; kx++) {
+                                sum += input[rowOffset + kx];
+                            }
+                        }
+                        output[out] = sum / area;
+                    }
+                    out++;
+                }
+            }
+        }
+    }
+
+    // Přičte gradient výstupu do gradientu vstupu, gradInput musí být předem vynulovaný
+    public void backward(double[] gradOutput, int batch, int channels, int height, int width, int[] argmax, double[] gradInput) {
+        int outputHeight = getOutputHeight(height);
+        int outputWidth = getOutputWidth(width);
+        int outputs = batch * channels * outputHeight * outputWidth;
+
+        if (mode == PoolingMode.MAX) {
+            if (argmax == null) {
+                throw new IllegalArgumentException("Max pooling backward pass needs argmax indices");
+            }
+            for (int i = 0; i < outputs; i++) {
+                gradInput[argmax[i]] += gradOutput[i];
+            }
+            return;
+        }
+
+        double area = windowHeight * windowWidth;
+        int out = 0;
+        for (int plane = 0; plane < batch * channels; plane++) {
+            int planeOffset = plane * height * width;
+            for (int oy = 0; oy < outputHeight; oy++) {
+                for (int ox = 0; ox < outputWidth; ox++) {
+                    double share = gradOutput[out++] / area;
+                    int windowOffset = planeOffset + oy * stride * width + ox * stride;
+                    for (int ky = 0; ky < windowHeight; ky++) {
+                        int rowOffset = windowOffset + ky * width;
+                        for (int kx = 0; kx < windowWidth; kx++) {
+                            gradInput[rowOffset + kx] += share;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
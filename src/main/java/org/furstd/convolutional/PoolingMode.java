@@ -0,0 +1,6 @@
+package org.furstd.convolutional;
+
+public enum PoolingMode {
+    MAX,
+    AVERAGE
+}
@@ -0,0 +1,9 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface BatchConsumer {
+    // Pole batch se po návratu přepíše dalším blokem, nesmí se uchovávat
+    void accept(double[] batch, int rows) throws IOException;
+}
@@ -0,0 +1,20 @@
+package org.furstd.dataset;
+
+/**
+ * Compact binary row format, little-endian:
+ * <pre>
+ * int magic ("AIRW"), int version, int columns, int elementBytes (8 = double, 4 = float),
+ * then rows of {@code columns} values until the end of the file
+ * </pre>
+ * The row count is not stored, so a file can be written in one streaming pass.
+ */
+public final class BinaryRowFormat {
+    public static final int MAGIC = 0x41495257;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryRowFormat() {
+    }
+}
@@ -0,0 +1,79 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class BinaryRowSink implements RowSink {
+    private final FileChannel channel;
+    private final int columns;
+    private final boolean singlePrecision;
+    private final ByteBuffer buffer;
+
+    public BinaryRowSink(Path path, int columns) throws IOException {
+        this(path, columns, false);
+    }
+
+    // singlePrecision ukládá hodnoty jako float, soubor je poloviční
+    public BinaryRowSink(Path path, int columns, boolean singlePrecision) throws IOException {
+        if (columns < 1) {
+            throw new IllegalArgumentException("Columns must be positive");
+        }
+        this.columns = columns;
+        this.singlePrecision = singlePrecision;
+        this.buffer = ByteBuffer.allocateDirect(BinaryRowFormat.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(BinaryRowFormat.MAGIC);
+        buffer.putInt(BinaryRowFormat.VERSION);
+        buffer.putInt(columns);
+        buffer.putInt(singlePrecision ? Float.BYTES : Double.BYTES);
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public void write(double[] batch, int rows) throws IOException {
+        int values = rows * columns;
+        int elementBytes = singlePrecision ? Float.BYTES : Double.BYTES;
+        int written = 0;
+        while (written < values) {
+            int count = Math.min(values - written, buffer.remaining() / elementBytes);
+            if (count == 0) {
+                flush();
+                continue;
+            }
+            if (singlePrecision) {
+                for (int i = written; i < written + count; i++) {
+                    buffer.putFloat((float) batch[i]);
+                }
+            } else {
+                buffer.asDoubleBuffer().put(batch, written, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+            }
+            written += count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
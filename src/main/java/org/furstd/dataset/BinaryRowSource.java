@@ -0,0 +1,127 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads rows of the {@link BinaryRowFormat} through a direct buffer; each batch is one bulk
+ * copy out of the buffer, without any parsing.
+ */
+public class BinaryRowSource implements RowSource {
+    private final FileChannel channel;
+    private final int columns;
+    private final int elementBytes;
+    private final int rowBytes;
+    private final long rowCount;
+    private final ByteBuffer buffer;
+    private float[] floats = new float[0];
+
+    public BinaryRowSource(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BinaryRowFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Not a binary row file: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != BinaryRowFormat.MAGIC) {
+                throw new IOException("Not a binary row file: " + path);
+            }
+            int version = header.getInt();
+            if (version != BinaryRowFormat.VERSION) {
+                throw new IOException("Unsupported binary row file version " + version + ": " + path);
+            }
+            columns = header.getInt();
+            elementBytes = header.getInt();
+            if (columns < 1 || (elementBytes != Double.BYTES && elementBytes != Float.BYTES)) {
+                throw new IOException("Invalid binary row header in " + path);
+            }
+            long longRowBytes = (long) columns * elementBytes;
+            if (longRowBytes > Integer.MAX_VALUE) {
+                throw new IOException("Binary row file has rows larger than 2 GB: " + path);
+            }
+            rowBytes = (int) longRowBytes;
+            long dataBytes = channel.size() - BinaryRowFormat.HEADER_SIZE;
+            if (dataBytes % rowBytes != 0) {
+                throw new IOException("Binary row file is truncated: " + path);
+            }
+            rowCount = dataBytes / rowBytes;
+            // Buffer nikdy nepřeroste data, prázdný soubor s poškozeným počtem sloupců nic nealokuje
+            int rowsPerBuffer = Math.max(1, BinaryRowFormat.BUFFER_SIZE / rowBytes);
+            buffer = ByteBuffer.allocateDirect((int) Math.min((long) rowsPerBuffer * rowBytes, dataBytes)).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int read(double[] batch, int maxRows) throws IOException {
+        int rows = 0;
+        while (rows < maxRows) {
+            if (buffer.remaining() < rowBytes && !fill()) {
+                break;
+            }
+            int count = Math.min(maxRows - rows, buffer.remaining() / rowBytes);
+            int values = count * columns;
+            int offset = rows * columns;
+            if (elementBytes == Double.BYTES) {
+                buffer.asDoubleBuffer().get(batch, offset, values);
+            } else {
+                buffer.asFloatBuffer().get(floatView(values), 0, values);
+                for (int i = 0; i < values; i++) {
+                    batch[offset + i] = floats[i];
+                }
+            }
+            buffer.position(buffer.position() + count * rowBytes);
+            rows += count;
+        }
+        return rows;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        channel.position(BinaryRowFormat.HEADER_SIZE);
+        buffer.clear().flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private float[] floatView(int values) {
+        if (floats.length < values) {
+            floats = new float[values];
+        }
+        return floats;
+    }
+
+    // Načte další celé řádky, false na konci souboru
+    private boolean fill() throws IOException {
+        buffer.compact();
+        while (buffer.hasRemaining() && (buffer.position() < rowBytes || buffer.position() % rowBytes != 0)) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= rowBytes;
+    }
+}
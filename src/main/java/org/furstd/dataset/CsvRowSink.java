@@ -0,0 +1,68 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class CsvRowSink implements RowSink {
+    private final FileChannel channel;
+    private final int columns;
+    private final byte delimiter;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryRowFormat.BUFFER_SIZE);
+    private final StringBuilder text = new StringBuilder();
+
+    public CsvRowSink(Path path, int columns) throws IOException {
+        this(path, columns, ',');
+    }
+
+    public CsvRowSink(Path path, int columns, char delimiter) throws IOException {
+        if (columns < 1) {
+            throw new IllegalArgumentException("Columns must be positive");
+        }
+        this.columns = columns;
+        this.delimiter = (byte) delimiter;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    // Double.toString zachová hodnotu přesně, po načtení přes CsvRowSource vyjde stejné číslo
+    @Override
+    public void write(double[] batch, int rows) throws IOException {
+        for (int row = 0; row < rows; row++) {
+            for (int c = 0; c < columns; c++) {
+                text.setLength(0);
+                text.append(batch[row * columns + c]);
+                if (buffer.remaining() < text.length() + 1) {
+                    flush();
+                }
+                for (int i = 0; i < text.length(); i++) {
+                    buffer.put((byte) text.charAt(i));
+                }
+                buffer.put(c == columns - 1 ? (byte) '\n' : delimiter);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,247 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams numeric CSV rows from a file. Bytes are read through a {@link FileChannel} into
+ * one reused buffer and every field is parsed in place by {@link DoubleParser}, so there is
+ * no regular expression, no line String and no String per value. Blank lines are skipped;
+ * a space or tab delimiter treats any run of whitespace as one separator.
+ */
+public class CsvRowSource implements RowSource {
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private byte delimiter;
+    private boolean whitespaceDelimited;
+    private final boolean header;
+    private final int columns;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfFile;
+    private long lineNumber;
+    private int lineStart;
+    private int lineEnd;
+
+    // Oddělovač (čárka, středník, tabulátor nebo mezery) i hlavička se poznají z prvního řádku
+    public CsvRowSource(Path path) throws IOException {
+        this(path, (char) 0, null);
+    }
+
+    public CsvRowSource(Path path, char delimiter, boolean header) throws IOException {
+        this(path, delimiter, Boolean.valueOf(header));
+    }
+
+    private CsvRowSource(Path path, char delimiter, Boolean header) throws IOException {
+        if (delimiter > 127 || delimiter == '\n' || delimiter == '\r' || delimiter == '.' || delimiter == '-'
+                || (delimiter >= '0' && delimiter <= '9')) {
+            throw new IllegalArgumentException("Invalid delimiter '" + delimiter + "'");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (!nextDataLine()) {
+                throw new IOException("Dataset is empty: " + path);
+            }
+            setDelimiter(delimiter != 0 ? delimiter : detectDelimiter());
+            this.columns = fields(null, 0);
+            boolean numeric = true;
+            try {
+                parseLine(null, 0);
+            } catch (NumberFormatException e) {
+                numeric = false;
+            }
+            this.header = header != null ? header : !numeric;
+            rewind();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getColumns() {
+        return columns;
+    }
+
+    @Override
+    public int read(double[] batch, int maxRows) throws IOException {
+        int rows = 0;
+        while (rows < maxRows && nextDataLine()) {
+            int count;
+            try {
+                count = parseLine(batch, rows * columns);
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            if (count != columns) {
+                throw new IOException("Line " + lineNumber + " has " + count + " columns, expected " + columns);
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        rewind();
+    }
+
+    // Soukromá, aby konstruktor nevolal přepsatelnou metodu
+    private void rewind() throws IOException {
+        channel.position(0);
+        position = 0;
+        limit = 0;
+        endOfFile = false;
+        lineNumber = 0;
+        if (header) {
+            nextDataLine();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void setDelimiter(char delimiter) {
+        this.delimiter = (byte) delimiter;
+        this.whitespaceDelimited = delimiter == ' ' || delimiter == '\t';
+    }
+
+    private char detectDelimiter() {
+        for (char candidate : new char[]{',', ';', '\t'}) {
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (buffer[i] == candidate) {
+                    return candidate;
+                }
+            }
+        }
+        return ' ';
+    }
+
+    private boolean nextDataLine() throws IOException {
+        while (nextLine()) {
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (!isWhitespace(buffer[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean nextLine() throws IOException {
+        int scan = position;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(position, i);
+                    position = i + 1;
+                    return true;
+                }
+            }
+            if (endOfFile) {
+                if (position < limit) {
+                    setLine(position, limit);
+                    position = limit;
+                    return true;
+                }
+                return false;
+            }
+            scan = limit - position;
+            fill();
+        }
+    }
+
+    private void setLine(int start, int end) {
+        lineStart = start;
+        lineEnd = end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+        lineNumber++;
+    }
+
+    // Posune nezpracovaný zbytek na začátek bufferu a dočte; řádek delší než buffer ho zvětší
+    private void fill() throws IOException {
+        int remaining = limit - position;
+        if (position == 0 && limit == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private int fields(double[] target, int offset) {
+        return scan(target, offset, false);
+    }
+
+    private int parseLine(double[] target, int offset) {
+        return scan(target, offset, true);
+    }
+
+    // Projde pole aktuálního řádku, při parse je převede na čísla; vrací počet polí
+    private int scan(double[] target, int offset, boolean parse) {
+        int count = 0;
+        int i = lineStart;
+        if (whitespaceDelimited) {
+            while (true) {
+                while (i < lineEnd && isWhitespace(buffer[i])) {
+                    i++;
+                }
+                if (i == lineEnd) {
+                    return count;
+                }
+                int start = i;
+                while (i < lineEnd && !isWhitespace(buffer[i])) {
+                    i++;
+                }
+                store(target, offset, count++, start, i, parse);
+            }
+        }
+        while (true) {
+            int start = i;
+            while (i < lineEnd && buffer[i] != delimiter) {
+                i++;
+            }
+            int end = i;
+            while (start < end && isWhitespace(buffer[start])) {
+                start++;
+            }
+            while (end > start && isWhitespace(buffer[end - 1])) {
+                end--;
+            }
+            store(target, offset, count++, start, end, parse);
+            if (i == lineEnd) {
+                return count;
+            }
+            i++;
+        }
+    }
+
+    private void store(double[] target, int offset, int field, int start, int end, boolean parse) {
+        if (!parse) {
+            return;
+        }
+        double value = DoubleParser.parseDouble(buffer, start, end);
+        if (target != null && field < columns) {
+            target[offset + field] = value;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,50 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class Datasets {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private Datasets() {
+    }
+
+    // Binární soubor se pozná podle magic čísla, cokoli jiného se čte jako CSV
+    public static RowSource open(Path path) throws IOException {
+        if (isBinary(path)) {
+            return new BinaryRowSource(path);
+        }
+        return new CsvRowSource(path);
+    }
+
+    // Přípona .csv zapisuje text, jinak binární formát
+    public static RowSink create(Path path, int columns) throws IOException {
+        if (path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return new CsvRowSink(path, columns);
+        }
+        return new BinaryRowSink(path, columns);
+    }
+
+    public static long copy(RowSource source, RowSink sink, int batchSize) throws IOException {
+        if (source.getColumns() != sink.getColumns()) {
+            throw new IllegalArgumentException("Source has " + source.getColumns() + " columns, sink expects " + sink.getColumns());
+        }
+        return source.forEachBatch(batchSize, sink::write);
+    }
+
+    private static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.flip().getInt() == BinaryRowFormat.MAGIC;
+        }
+    }
+}
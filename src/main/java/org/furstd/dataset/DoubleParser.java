@@ -0,0 +1,144 @@
+package org.furstd.dataset;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers straight from bytes without regular expressions or a String per
+ * token. Values with at most 15 significant digits and a decimal exponent within ±22 are
+ * exact as {@code mantissa * 10^e} or {@code mantissa / 10^-e}, because both operands are
+ * exactly representable and the single operation is correctly rounded. Everything else
+ * (longer mantissas, large exponents, NaN, Infinity) falls back to {@link Double#parseDouble},
+ * so the result always equals {@code Double.parseDouble} of the same text. Malformed text
+ * throws {@link NumberFormatException} like {@code Double.parseDouble}.
+ */
+public final class DoubleParser {
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private DoubleParser() {
+    }
+
+    public static double parseDouble(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < to && isDigit(bytes[i])) {
+            anyDigit = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (bytes[i] - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                digits++;
+                exponent++;
+            }
+            i++;
+        }
+        if (i < to && bytes[i] == '.') {
+            i++;
+            while (i < to && isDigit(bytes[i])) {
+                anyDigit = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (bytes[i] - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    digits++;
+                }
+                i++;
+            }
+        }
+        if (anyDigit && i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            int explicit = 0;
+            boolean exponentDigit = false;
+            while (i < to && isDigit(bytes[i])) {
+                exponentDigit = true;
+                // Větší exponent už stejně skončí v záložní cestě
+                if (explicit < 100_000) {
+                    explicit = explicit * 10 + (bytes[i] - '0');
+                }
+                i++;
+            }
+            if (!exponentDigit) {
+                return fallback(bytes, from, to);
+            }
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+        if (!anyDigit || i != to) {
+            return fallback(bytes, from, to);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (digits <= MAX_EXACT_DIGITS && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallback(bytes, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    static int parseInt(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        if (i == to) {
+            throw new NumberFormatException("Not an integer: '" + text(bytes, from, to) + "'");
+        }
+        // Záporné sčítání pokryje i Integer.MIN_VALUE
+        int value = 0;
+        for (; i < to; i++) {
+            if (!isDigit(bytes[i])) {
+                throw new NumberFormatException("Not an integer: '" + text(bytes, from, to) + "'");
+            }
+            int digit = bytes[i] - '0';
+            if (value < (Integer.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Integer out of range: '" + text(bytes, from, to) + "'");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Integer.MIN_VALUE) {
+                throw new NumberFormatException("Integer out of range: '" + text(bytes, from, to) + "'");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    static String text(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.US_ASCII);
+    }
+
+    private static double fallback(byte[] bytes, int from, int to) {
+        return Double.parseDouble(text(bytes, from, to));
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
@@ -0,0 +1,16 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+
+/**
+ * Sequential writer of numeric rows, the output counterpart of {@link RowSource}.
+ */
+public interface RowSink extends AutoCloseable {
+    int getColumns();
+
+    // Zapíše prvních rows řádků ze zabaleného pole batch
+    void write(double[] batch, int rows) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,35 @@
+package org.furstd.dataset;
+
+import java.io.IOException;
+
+/**
+ * Sequential source of numeric rows with a fixed number of columns. Rows are read in
+ * batches into one packed array (row after row), so a dataset of any size streams through
+ * a single reused buffer instead of being held in the heap.
+ */
+public interface RowSource extends AutoCloseable {
+    int getColumns();
+
+    // Načte nejvýše maxRows řádků do batch od začátku pole, na konci dat vrací 0
+    int read(double[] batch, int maxRows) throws IOException;
+
+    // Další read začne znovu prvním řádkem, potřebné pro více epoch
+    void reset() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    default long forEachBatch(int batchSize, BatchConsumer consumer) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        double[] batch = new double[batchSize * getColumns()];
+        long total = 0;
+        int rows;
+        while ((rows = read(batch, batchSize)) > 0) {
+            consumer.accept(batch, rows);
+            total += rows;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+package org.furstd.dataset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Whitespace-separated number reader for the interactive menus, a drop-in for the
+ * {@code nextInt}/{@code nextDouble} subset of {@link java.util.Scanner}. Tokens are parsed
+ * straight from the byte buffer by {@link DoubleParser}. Like Scanner it reads only what is
+ * available, so typed input is answered line by line, and it throws
+ * {@link InputMismatchException} for a token of the wrong type and
+ * {@link NoSuchElementException} at the end of input.
+ */
+public final class TokenReader implements Closeable {
+    private final ReadableByteChannel channel;
+    private byte[] buffer = new byte[1 << 13];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    public TokenReader(InputStream input) {
+        this.channel = Channels.newChannel(input);
+    }
+
+    public int nextInt() {
+        int end = nextToken();
+        try {
+            int value = DoubleParser.parseInt(buffer, position, end);
+            position = end;
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException("For input string: \"" + DoubleParser.text(buffer, position, end) + "\"");
+        }
+    }
+
+    public double nextDouble() {
+        int end = nextToken();
+        try {
+            double value = DoubleParser.parseDouble(buffer, position, end);
+            position = end;
+            return value;
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException("For input string: \"" + DoubleParser.text(buffer, position, end) + "\"");
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Přeskočí bílé znaky a vrátí konec tokenu začínajícího na position; token se nespotřebuje
+    private int nextToken() {
+        while (true) {
+            while (position < limit && isWhitespace(buffer[position])) {
+                position++;
+            }
+            if (position < limit) {
+                break;
+            }
+            if (endOfInput || !fill()) {
+                throw new NoSuchElementException();
+            }
+        }
+        int end = position;
+        while (true) {
+            while (end < limit && !isWhitespace(buffer[end])) {
+                end++;
+            }
+            if (end < limit || endOfInput) {
+                return end;
+            }
+            int consumed = position;
+            if (!fill()) {
+                return end - consumed;
+            }
+            end -= consumed;
+        }
+    }
+
+    // Zachová rozpracovaný token od position; false na konci vstupu
+    private boolean fill() {
+        int remaining = limit - position;
+        if (position == 0 && limit == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, limit);
+            buffer = larger;
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        try {
+            int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+}
@@ -0,0 +1,24 @@
+package org.furstd.feed_forward;
+
+/**
+ * Activation kernel of one layer. Both methods work in place on the range
+ * {@code [offset, offset + length)} of flat arrays, so a whole layer (or one row of a
+ * batch) is processed in a single loop without allocation. The built-in functions are
+ * the constants of {@link ActivationFunction}; other activations can implement this
+ * interface and be set on a {@link LayerData} directly.
+ */
+public interface Activation {
+    // values = f(values)
+    void forward(double[] values, int offset, int length);
+
+    /*
+    Vynásobí gradient derivací aktivace. preActivation je vstup a output výstup forward,
+    takže funkce s derivací vyjádřitelnou z výstupu (tanh, sigmoida) nemusí nic přepočítávat.
+     */
+    void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length);
+
+    // Softmax a podobné funkce závisí na celé vrstvě, nejen na jednom neuronu
+    default boolean isElementwise() {
+        return true;
+    }
+}
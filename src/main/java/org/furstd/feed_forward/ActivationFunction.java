@@ -1,6 +1,134 @@
 package org.furstd.feed_forward;
 
-public enum ActivationFunction {
-    HYPERBOLIC_TANGENT,
-    LINEAR_IDENT
+public enum ActivationFunction implements Activation {
+    HYPERBOLIC_TANGENT {
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = Math.tanh(values[i]);
+            }
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                gradient[i] *= 1 - output[i] * output[i];
+            }
+        }
+    },
+    LINEAR_IDENT {
+        @Override
+        public void forward(double[] values, int offset, int length) {
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+        }
+    },
+    RELU {
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = Math.max(0, values[i]);
+            }
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                gradient[i] = preActivation[i] > 0 ? gradient[i] : 0;
+            }
+        }
+    },
+    LEAKY_RELU {
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                double value = values[i];
+                values[i] = value > 0 ? value : LEAKY_SLOPE * value;
+            }
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                gradient[i] *= preActivation[i] > 0 ? 1 : LEAKY_SLOPE;
+            }
+        }
+    },
+    SIGMOID {
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = 1 / (1 + Math.exp(-values[i]));
+            }
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                gradient[i] *= output[i] * (1 - output[i]);
+            }
+        }
+    },
+    SOFTMAX {
+        // Odečtení maxima zabrání přetečení exp
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = offset; i < offset + length; i++) {
+                max = Math.max(max, values[i]);
+            }
+            double sum = 0;
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = Math.exp(values[i] - max);
+                sum += values[i];
+            }
+            double scale = 1 / sum;
+            for (int i = offset; i < offset + length; i++) {
+                values[i] *= scale;
+            }
+        }
+
+        // g_i = y_i * (g_i - sum_j g_j * y_j)
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            double dot = 0;
+            for (int i = offset; i < offset + length; i++) {
+                dot += gradient[i] * output[i];
+            }
+            for (int i = offset; i < offset + length; i++) {
+                gradient[i] = output[i] * (gradient[i] - dot);
+            }
+        }
+
+        @Override
+        public boolean isElementwise() {
+            return false;
+        }
+    },
+    GELU {
+        // Aproximace přes tanh: 0.5 x (1 + tanh(sqrt(2 / pi) (x + 0.044715 x^3)))
+        @Override
+        public void forward(double[] values, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                double x = values[i];
+                values[i] = 0.5 * x * (1 + Math.tanh(GELU_SCALE * (x + GELU_CUBIC * x * x * x)));
+            }
+        }
+
+        @Override
+        public void backward(double[] preActivation, double[] output, double[] gradient, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                double x = preActivation[i];
+                double tanh = Math.tanh(GELU_SCALE * (x + GELU_CUBIC * x * x * x));
+                double inner = GELU_SCALE * (1 + 3 * GELU_CUBIC * x * x);
+                gradient[i] *= 0.5 * (1 + tanh) + 0.5 * x * (1 - tanh * tanh) * inner;
+            }
+        }
+    };
+
+    private static final double LEAKY_SLOPE = 0.01;
+    private static final double GELU_SCALE = Math.sqrt(2 / Math.PI);
+    private static final double GELU_CUBIC = 0.044715;
 }
@@ -0,0 +1,138 @@
+package org.furstd.feed_forward;
+
+import org.furstd.kernel.Kernels;
+
+import java.util.Arrays;
+
+/**
+ * Per-worker buffers for one forward/backward pass: activations, local gradients
+ * and the accumulated weight gradients. Gradients follow the sign convention of
+ * {@link FeedForwardNetwork#computeBGD}, i.e. {@code w += alpha * gradient}.
+ */
+public class BackpropWorkspace {
+    private final int[] layerSizes;
+    private final double[][] ya;
+    private final double[][] y;
+    private final double[][] localGradients;
+    private final double[][][] gradients;
+
+    public BackpropWorkspace(double[][][] weights) {
+        layerSizes = new int[weights.length + 1];
+        layerSizes[0] = weights[0].length - 1; // -1 protože bias
+        ya = new double[weights.length + 1][];
+        y = new double[weights.length + 1][];
+        y[0] = new double[layerSizes[0]];
+        localGradients = new double[weights.length][];
+        gradients = new double[weights.length][][];
+        for (int layer = 0; layer < weights.length; layer++) {
+            layerSizes[layer + 1] = weights[layer][0].length;
+            ya[layer + 1] = new double[layerSizes[layer + 1]];
+            y[layer + 1] = new double[layerSizes[layer + 1]];
+            localGradients[layer] = new double[layerSizes[layer + 1]];
+            gradients[layer] = new double[weights[layer].length][layerSizes[layer + 1]];
+        }
+    }
+
+    public double[][][] getGradients() {
+        return gradients;
+    }
+
+    public double[] getOutput() {
+        return y[y.length - 1];
+    }
+
+    public void clear() {
+        for (double[][] layer : gradients) {
+            for (double[] row : layer) {
+                Arrays.fill(row, 0);
+            }
+        }
+    }
+
+    public void forward(double[][][] weights, Activation[] activationFunctions, double[] input) {
+        System.arraycopy(input, 0, y[0], 0, layerSizes[0]);
+        for (int layer = 0; layer < weights.length; layer++) {
+            double[] in = y[layer];
+            double[] out = y[layer + 1];
+            double[][] w = weights[layer];
+
+            System.arraycopy(w[0], 0, out, 0, out.length); // bias
+            for (int j = 0; j < in.length; j++) {
+                Kernels.axpy(in[j], w[j + 1], 0, out, 0, out.length);
+            }
+            // Vstup aktivace si ponecháme pro derivace ReLU a GELU
+            System.arraycopy(out, 0, ya[layer + 1], 0, out.length);
+            activationFunctions[layer].forward(out, 0, out.length);
+        }
+    }
+
+    /**
+     * Runs a forward and backward pass for one sample, adds its weight gradients to
+     * the accumulated ones and returns the squared error {@code 0.5 * sum(e^2)}.
+     * When {@code inputGradient} is not null it receives the local gradient of the
+     * network input, so the pass can be chained behind other layers.
+     */
+    public double accumulate(double[][][] weights, Activation[] activationFunctions, double[] input, double[] t, double[] inputGradient) {
+        forward(weights, activationFunctions, input);
+
+        int last = weights.length - 1;
+        double[] output = y[last + 1];
+        double[] delta = localGradients[last];
+        double loss = 0;
+        for (int i = 0; i < output.length; i++) {
+            double e = t[i] - output[i];
+            loss += e * e;
+            delta[i] = e;
+        }
+        activationFunctions[last].backward(ya[last + 1], output, delta, 0, delta.length);
+
+        for (int layer = last; layer >= 0; layer--) {
+            double[] in = y[layer];
+            double[] layerDelta = localGradients[layer];
+            double[][] g = gradients[layer];
+
+            Kernels.axpy(1, layerDelta, 0, g[0], 0, layerDelta.length);
+            for (int j = 0; j < in.length; j++) {
+                Kernels.axpy(in[j], layerDelta, 0, g[j + 1], 0, layerDelta.length);
+            }
+
+            double[] previousDelta = layer > 0 ? localGradients[layer - 1] : inputGradient;
+            if (previousDelta == null) {
+                continue;
+            }
+            double[][] w = weights[layer];
+            for (int j = 0; j < in.length; j++) {
+                previousDelta[j] = Kernels.dot(w[j + 1], 0, layerDelta, 0, layerDelta.length);
+            }
+            if (layer > 0) {
+                activationFunctions[layer - 1].backward(ya[layer], in, previousDelta, 0, previousDelta.length);
+            }
+        }
+        return 0.5 * loss;
+    }
+
+    public void addTo(BackpropWorkspace target) {
+        for (int layer = 0; layer < gradients.length; layer++) {
+            for (int j = 0; j < gradients[layer].length; j++) {
+                double[] source = gradients[layer][j];
+                double[] destination = target.gradients[layer][j];
+                for (int k = 0; k < source.length; k++) {
+                    destination[k] += source[k];
+                }
+            }
+        }
+    }
+
+    public void applyTo(double[][][] weights, double scale) {
+        for (int layer = 0; layer < gradients.length; layer++) {
+            for (int j = 0; j < gradients[layer].length; j++) {
+                double[] source = gradients[layer][j];
+                double[] destination = weights[layer][j];
+                for (int k = 0; k < source.length; k++) {
+                    destination[k] += scale * source[k];
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package org.furstd.feed_forward;
+
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.kernel.Kernels;
+import org.furstd.kernel.Precision;
+import org.furstd.trace.Operation;
+import org.furstd.trace.Tracer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Inference-only view of a {@link FeedForwardNetwork} for scoring whole batches.
+ * Weights of every layer are copied once into a contiguous, pre-transposed block
+ * (one row per output neuron, bias first), so the forward pass is a blocked
+ * matrix-matrix product without any per-row allocation or console output.
+ * With {@link Precision#FLOAT32} or {@link Precision#MIXED} the packed weights are
+ * stored as float, which halves their footprint and the memory traffic per batch.
+ * A compiled network is immutable: it copies the weights when it is built and keeps all
+ * intermediate values in an {@link InferenceWorkspace}, so one instance can be shared by
+ * any number of threads.
+ */
+public class CompiledNetwork {
+    private static final int ROW_BLOCK = 32;
+    private static final int NEURON_BLOCK = 64;
+
+    private final int[] layerSizes;
+    private final Activation[] activationFunctions;
+    private final double[][] packedWeights;
+    private final float[][] packedFloatWeights;
+    private final int maxLayerSize;
+    private final NumericMode numericMode;
+    private final Precision precision;
+    private final Tracer tracer;
+    private final boolean timing;
+
+    public CompiledNetwork(double[][][] weights, List<LayerData> layersData) {
+        this(weights, layersData, NumericMode.EXACT);
+    }
+
+    public CompiledNetwork(double[][][] weights, List<LayerData> layersData, NumericMode numericMode) {
+        this(weights, layersData, numericMode, Precision.DOUBLE);
+    }
+
+    public CompiledNetwork(double[][][] weights, List<LayerData> layersData, NumericMode numericMode, Precision precision) {
+        this(weights, layersData, numericMode, precision, Tracer.NONE);
+    }
+
+    public CompiledNetwork(double[][][] weights, List<LayerData> layersData, NumericMode numericMode, Precision precision, Tracer tracer) {
+        if (weights.length != layersData.size()) {
+            throw new IllegalArgumentException("Expected " + weights.length + " layers, got " + layersData.size());
+        }
+        layerSizes = new int[weights.length + 1];
+        layerSizes[0] = weights[0].length - 1; // -1 protože bias
+        activationFunctions = new Activation[weights.length];
+        packedWeights = precision == Precision.DOUBLE ? new double[weights.length][] : null;
+        packedFloatWeights = precision == Precision.DOUBLE ? null : new float[weights.length][];
+
+        int max = layerSizes[0];
+        for (int layer = 0; layer < weights.length; layer++) {
+            int inputs = weights[layer].length;
+            int outputs = weights[layer][0].length;
+            if (inputs != layerSizes[layer] + 1) {
+                throw new IllegalArgumentException("Layer " + layer + " expects " + (inputs - 1) + " inputs, previous layer has " + layerSizes[layer]);
+            }
+            layerSizes[layer + 1] = outputs;
+            activationFunctions[layer] = layersData.get(layer).getActivationFunction();
+            max = Math.max(max, outputs);
+
+            if (precision == Precision.DOUBLE) {
+                double[] packed = new double[outputs * inputs];
+                for (int j = 0; j < inputs; j++) {
+                    for (int k = 0; k < outputs; k++) {
+                        packed[k * inputs + j] = weights[layer][j][k];
+                    }
+                }
+                packedWeights[layer] = packed;
+            } else {
+                float[] packed = new float[outputs * inputs];
+                for (int j = 0; j < inputs; j++) {
+                    for (int k = 0; k < outputs; k++) {
+                        packed[k * inputs + j] = (float) weights[layer][j][k];
+                    }
+                }
+                packedFloatWeights[layer] = packed;
+            }
+        }
+        maxLayerSize = max;
+        this.numericMode = numericMode;
+        this.precision = precision;
+        this.tracer = tracer;
+        this.timing = tracer.measuresTime();
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    // Velikost zabalených vah v bajtech
+    public long getWeightBytes() {
+        long count = 0;
+        for (int layer = 0; layer < activationFunctions.length; layer++) {
+            count += (long) (layerSizes[layer] + 1) * layerSizes[layer + 1];
+        }
+        return count * (precision == Precision.DOUBLE ? Double.BYTES : Float.BYTES);
+    }
+
+    public int getNumberOfInputs() {
+        return layerSizes[0];
+    }
+
+    public int getNumberOfOutputs() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    public double[][] computeResponses(double[][] inputs) {
+        int n = getNumberOfInputs();
+        double[] packedInputs = new double[inputs.length * n];
+        for (int row = 0; row < inputs.length; row++) {
+            if (inputs[row].length != n) {
+                throw new IllegalArgumentException("Input " + row + " must have size " + n);
+            }
+            System.arraycopy(inputs[row], 0, packedInputs, row * n, n);
+        }
+
+        int m = getNumberOfOutputs();
+        double[] packedOutputs = computeResponses(packedInputs, inputs.length);
+        double[][] outputs = new double[inputs.length][];
+        for (int row = 0; row < inputs.length; row++) {
+            outputs[row] = new double[m];
+            System.arraycopy(packedOutputs, row * m, outputs[row], 0, m);
+        }
+        return outputs;
+    }
+
+    public double[] computeResponses(double[] packedInputs, int rows) {
+        double[] packedOutputs = new double[rows * getNumberOfOutputs()];
+        computeResponses(packedInputs, rows, packedOutputs);
+        return packedOutputs;
+    }
+
+    public void computeResponses(double[] packedInputs, int rows, double[] packedOutputs) {
+        computeResponses(packedInputs, rows, packedOutputs, new InferenceWorkspace());
+    }
+
+    public void computeResponses(double[] packedInputs, int rows, double[] packedOutputs, InferenceWorkspace workspace) {
+        int n = getNumberOfInputs();
+        int m = getNumberOfOutputs();
+        if (packedInputs.length < rows * n) {
+            throw new IllegalArgumentException("Packed input must hold " + rows + " rows of size " + n);
+        }
+        if (packedOutputs.length < rows * m) {
+            throw new IllegalArgumentException("Packed output must hold " + rows + " rows of size " + m);
+        }
+
+        long start = timing ? System.nanoTime() : 0;
+        // Každý blok řádků projde všemi vrstvami, dokud je v cache
+        workspace.ensureCapacity(Math.min(ROW_BLOCK, rows) * maxLayerSize, maxLayerSize, precision == Precision.FLOAT32);
+        double[] current = workspace.getCurrent();
+        double[] next = workspace.getNext();
+        float[] floatInput = precision == Precision.FLOAT32 ? workspace.getFloatInput() : null;
+        double[] preActivation = workspace.getPreActivation();
+        for (int first = 0; first < rows; first += ROW_BLOCK) {
+            int blockRows = Math.min(ROW_BLOCK, rows - first);
+            System.arraycopy(packedInputs, first * n, current, 0, blockRows * n);
+
+            for (int layer = 0; layer < activationFunctions.length; layer++) {
+                if (floatInput != null) {
+                    for (int i = 0; i < blockRows * layerSizes[layer]; i++) {
+                        floatInput[i] = (float) current[i];
+                    }
+                }
+                multiply(layer, current, floatInput, blockRows, next, preActivation);
+                double[] swap = current;
+                current = next;
+                next = swap;
+            }
+            System.arraycopy(current, 0, packedOutputs, first * m, blockRows * m);
+        }
+        if (timing) {
+            tracer.callFinished(Operation.COMPILED_BATCH, rows, System.nanoTime() - start);
+        }
+    }
+
+    // Proudové vyhodnocení: v paměti je vždy jen jeden blok vstupů a výstupů, vrací počet řádků
+    public long computeResponses(RowSource source, int batchSize, RowSink sink) throws IOException {
+        if (source.getColumns() != getNumberOfInputs()) {
+            throw new IllegalArgumentException("Dataset has " + source.getColumns() + " columns, network expects " + getNumberOfInputs());
+        }
+        if (sink.getColumns() != getNumberOfOutputs()) {
+            throw new IllegalArgumentException("Output must have " + getNumberOfOutputs() + " columns, got " + sink.getColumns());
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        double[] packedOutputs = new double[batchSize * getNumberOfOutputs()];
+        InferenceWorkspace workspace = new InferenceWorkspace();
+        return source.forEachBatch(batchSize, (batch, rows) -> {
+            computeResponses(batch, rows, packedOutputs, workspace);
+            sink.write(packedOutputs, rows);
+        });
+    }
+
+    // Bias, součin a aktivace v jednom průchodu: řádek se aktivuje hned po posledním bloku neuronů, dokud je v L1
+    private void multiply(int layer, double[] input, float[] floatInput, int rows, double[] output, double[] preActivation) {
+        int inputs = layerSizes[layer];
+        int outputs = layerSizes[layer + 1];
+        Activation activationFunction = activationFunctions[layer];
+
+        for (int neuronStart = 0; neuronStart < outputs; neuronStart += NEURON_BLOCK) {
+            int neuronEnd = Math.min(outputs, neuronStart + NEURON_BLOCK);
+            for (int row = 0; row < rows; row++) {
+                int inOffset = row * inputs;
+                int outOffset = row * outputs;
+                for (int neuron = neuronStart; neuron < neuronEnd; neuron++) {
+                    output[outOffset + neuron] = numericMode.apply(weightedSum(layer, neuron, input, floatInput, inOffset));
+                }
+                if (neuronEnd == outputs) {
+                    if (numericMode == NumericMode.EXACT) {
+                        activationFunction.forward(output, outOffset, outputs);
+                    } else {
+                        // Vážený součet je už zaokrouhlený, znovu se zaokrouhlí jen hodnota změněná aktivací
+                        System.arraycopy(output, outOffset, preActivation, 0, outputs);
+                        activationFunction.forward(output, outOffset, outputs);
+                        for (int neuron = 0; neuron < outputs; neuron++) {
+                            output[outOffset + neuron] = numericMode.applyOnce(output[outOffset + neuron], preActivation[neuron]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // bias + w . x v přesnosti modelu
+    private double weightedSum(int layer, int neuron, double[] input, float[] floatInput, int inOffset) {
+        int inputs = layerSizes[layer];
+        int wOffset = neuron * (inputs + 1);
+        switch (precision) {
+            case FLOAT32: {
+                float[] w = packedFloatWeights[layer];
+                return Kernels.dotAdd(w[wOffset], floatInput, inOffset, w, wOffset + 1, inputs);
+            }
+            case MIXED: {
+                float[] w = packedFloatWeights[layer];
+                return Kernels.dotAdd((double) w[wOffset], w, wOffset + 1, input, inOffset, inputs);
+            }
+            default: {
+                double[] w = packedWeights[layer];
+                return Kernels.dotAdd(w[wOffset], input, inOffset, w, wOffset + 1, inputs);
+            }
+        }
+    }
+}
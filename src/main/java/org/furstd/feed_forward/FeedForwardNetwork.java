@@ -1,14 +1,33 @@
 package org.furstd.feed_forward;
 
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.dataset.TokenReader;
+import org.furstd.kernel.Kernels;
+import org.furstd.kernel.Precision;
+import org.furstd.trace.Operation;
+import org.furstd.trace.TextbookTracer;
+import org.furstd.trace.Tracer;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Random;
 
+/**
+ * Textbook network for one sample at a time: inputs, activations and local gradients are
+ * kept in the instance, so it must not be used from several threads. For concurrent
+ * inference use {@link #compile()} and share the snapshot, e.g. through a {@link PublishedModel}.
+ */
 public class FeedForwardNetwork {
     private double[][][] weights;
     private final List<Double> x;
     private final List<LayerData> layersData;
+    private NumericMode numericMode = NumericMode.EXACT;
+    private Tracer tracer = Tracer.NONE;
+    private boolean tracingSteps;
+    private boolean timing;
 
     public FeedForwardNetwork() {
         x = new ArrayList<>();
@@ -19,6 +38,11 @@ public class FeedForwardNetwork {
         this.x.add(x);
     }
 
+    // Vstup se jinak hromadí a další computeResponse by počítal se starými hodnotami
+    public void clearX() {
+        x.clear();
+    }
+
     public void addLayerData(LayerData layerData) {
         layersData.add(layerData);
     }
@@ -31,11 +55,55 @@ public class FeedForwardNetwork {
         this.weights = weights;
     }
 
-    private int[] loadNeuronsPerLayer(Scanner scanner, int numberOfLayers) {
+    public double[][][] getWeights() {
+        return weights;
+    }
+
+    public List<LayerData> getLayersData() {
+        return layersData;
+    }
+
+    public NumericMode getNumericMode() {
+        return numericMode;
+    }
+
+    public void setNumericMode(NumericMode numericMode) {
+        this.numericMode = numericMode;
+    }
+
+    public CompiledNetwork compile() {
+        return compile(Precision.DOUBLE);
+    }
+
+    public CompiledNetwork compile(Precision precision) {
+        return new CompiledNetwork(weights, layersData, numericMode, precision, tracer);
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    // Předává se i sítím z compile()
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+        this.tracingSteps = tracer.tracesSteps();
+        this.timing = tracer.measuresTime();
+    }
+
+    public QuantisedNetwork quantise(double[][] calibrationInputs, QuantisationMode mode) {
+        return QuantisedNetwork.quantise(this, calibrationInputs, mode);
+    }
+
+    // Vstupy ze souboru po blocích, výsledky do sink; data se nemusí vejít do paměti
+    public long computeResponses(RowSource source, int batchSize, RowSink sink) throws IOException {
+        return compile().computeResponses(source, batchSize, sink);
+    }
+
+    private int[] loadNeuronsPerLayer(TokenReader reader, int numberOfLayers) {
         System.out.println("Enter number of neurons for each layer (separated by space): ");
         int[] neuronPerLayer = new int[numberOfLayers];
         for (int i = 0; i < numberOfLayers; i++) {
-            neuronPerLayer[i] = scanner.nextInt();
+            neuronPerLayer[i] = reader.nextInt();
             if (i > 0) {
                 LayerData layerData = new LayerData();
                 layerData.setNeuronCount(neuronPerLayer[i]);
@@ -45,14 +113,19 @@ public class FeedForwardNetwork {
         return neuronPerLayer;
     }
 
-    private void loadActivationFunctions(Scanner scanner, int numberOfLayers) {
+    private void loadActivationFunctions(TokenReader reader, int numberOfLayers) {
         for (int i = 0; i < numberOfLayers - 1; i++) {
             LayerData layerData = layersData.get(i);
             System.out.println("\nChoose activation function for layer " + (i + 1));
             System.out.println("1) Hyperbolic tangent - y = tanh(ya)");
             System.out.println("2) Linear ident - y = ya");
+            System.out.println("3) ReLU - y = max(0, ya)");
+            System.out.println("4) Leaky ReLU - y = max(0.01 * ya, ya)");
+            System.out.println("5) Sigmoid - y = 1 / (1 + exp(-ya))");
+            System.out.println("6) Softmax - y = exp(ya) / sum(exp(ya))");
+            System.out.println("7) GELU - y = ya * Phi(ya)");
             System.out.print("Input choice: ");
-            int choice = scanner.nextInt();
+            int choice = reader.nextInt();
             switch (choice) {
                 case 1:
                     layerData.setActivationFunction(ActivationFunction.HYPERBOLIC_TANGENT);
@@ -60,6 +133,21 @@ public class FeedForwardNetwork {
                 case 2:
                     layerData.setActivationFunction(ActivationFunction.LINEAR_IDENT);
                     break;
+                case 3:
+                    layerData.setActivationFunction(ActivationFunction.RELU);
+                    break;
+                case 4:
+                    layerData.setActivationFunction(ActivationFunction.LEAKY_RELU);
+                    break;
+                case 5:
+                    layerData.setActivationFunction(ActivationFunction.SIGMOID);
+                    break;
+                case 6:
+                    layerData.setActivationFunction(ActivationFunction.SOFTMAX);
+                    break;
+                case 7:
+                    layerData.setActivationFunction(ActivationFunction.GELU);
+                    break;
                 default:
                     System.out.println("Invalid choice!");
                     break;
@@ -67,9 +155,9 @@ public class FeedForwardNetwork {
         }
     }
 
-    public void initializeNetwork(int numberOfLayers, Scanner scanner) {
-        int[] neuronPerLayer = loadNeuronsPerLayer(scanner, numberOfLayers);
-        loadActivationFunctions(scanner, numberOfLayers);
+    public void initializeNetwork(int numberOfLayers, TokenReader reader) {
+        int[] neuronPerLayer = loadNeuronsPerLayer(reader, numberOfLayers);
+        loadActivationFunctions(reader, numberOfLayers);
 
         weights = new double[numberOfLayers - 1][][];
 
@@ -82,7 +170,31 @@ public class FeedForwardNetwork {
             for (int j = 0; j < currentLayerNeuronCount + 1; j++) { // + 1 protože bias
                 System.out.println("Enter weights for " + (j == 0 ? "bias" : "neuron " + j) + " in layer " + i + " to all neurons in the layer: ");
                 for (int k = 0; k < nextLayerNeuronCount; k++) {
-                    weights[i][j][k] = scanner.nextDouble();
+                    weights[i][j][k] = reader.nextDouble();
+                }
+            }
+        }
+    }
+
+    // Xavier/Glorot uniform inicializace místo ručního zadávání vah
+    public void initializeRandom(int[] neuronPerLayer, Activation[] activationFunctions, Random random) {
+        if (activationFunctions.length != neuronPerLayer.length - 1) {
+            throw new IllegalArgumentException("Expected " + (neuronPerLayer.length - 1) + " activation functions");
+        }
+        layersData.clear();
+        weights = new double[neuronPerLayer.length - 1][][];
+
+        for (int i = 0; i < neuronPerLayer.length - 1; i++) {
+            LayerData layerData = new LayerData();
+            layerData.setNeuronCount(neuronPerLayer[i + 1]);
+            layerData.setActivationFunction(activationFunctions[i]);
+            layersData.add(layerData);
+
+            double limit = Math.sqrt(6.0 / (neuronPerLayer[i] + neuronPerLayer[i + 1]));
+            weights[i] = new double[neuronPerLayer[i] + 1][neuronPerLayer[i + 1]];
+            for (int j = 1; j < neuronPerLayer[i] + 1; j++) { // bias zůstává 0
+                for (int k = 0; k < neuronPerLayer[i + 1]; k++) {
+                    weights[i][j][k] = (random.nextDouble() * 2 - 1) * limit;
                 }
             }
         }
@@ -103,17 +215,7 @@ public class FeedForwardNetwork {
     }
 
     public double roundTo4DecimalPlaces(double value) {
-        //if is 0.99 or -0.99, round to 1 or -1
-        //trim value to string
-        String valueStr = String.valueOf(value);
-        //if value is 0.99 or -0.99, return 1 or -1
-
-        if (valueStr.startsWith("0.99")) {
-            return 1;
-        } else if (valueStr.startsWith("-0.99")) {
-            return -1;
-        }
-        return Math.round(value * 1000.0) / 1000.0;
+        return NumericMode.TEXTBOOK.apply(value);
     }
 
     private double[] addBiasToInput(double[] input) {
@@ -123,59 +225,48 @@ public class FeedForwardNetwork {
         return inputWithBias;
     }
 
-    private double[][] transposeMatrix(double[][] weights) {
-        double[][] transposed = new double[weights[0].length][weights.length];
-
-        for (int i = 0; i < weights.length; i++) {
-            for (int j = 0; j < weights[0].length; j++) {
-                transposed[j][i] = weights[i][j];
-            }
-        }
-
-        return transposed;
-    }
-
-    private double[] applyActivationFunction(double[] input, ActivationFunction activationFunction) {
-        switch (activationFunction) {
-            case HYPERBOLIC_TANGENT:
-                double[] output = new double[input.length];
-                for (int i = 0; i < input.length; i++) {
-                    output[i] = roundTo4DecimalPlaces(Math.tanh(input[i]));
-                }
-                return output;
-            case LINEAR_IDENT:
-                return input;
-            default:
-                throw new IllegalArgumentException("Unknown activation function");
+    private double[] applyActivationFunction(double[] input, Activation activationFunction) {
+        double[] output = Arrays.copyOf(input, input.length);
+        activationFunction.forward(output, 0, output.length);
+        for (int i = 0; i < output.length; i++) {
+            output[i] = numericMode.applyOnce(output[i], input[i]);
         }
+        return output;
     }
 
     public void computeResponse() {
+        long start = timing ? System.nanoTime() : 0;
         double[] input = x.stream().mapToDouble(Double::doubleValue).toArray();
 
         for (int i = 0; i < weights.length; i++) {
             LayerData layerData = layersData.get(i);
             input = addBiasToInput(input);
 
-            double[][] transposeMatrix = transposeMatrix(weights[i]);
-            double[] output = new double[transposeMatrix.length];
+            // Po řádcích vah: každý výstup sčítá vstupy ve stejném pořadí jako dřív
+            double[][] layerWeights = weights[i];
+            double[] output = new double[layerWeights[0].length];
 
-            for (int j = 0; j < transposeMatrix.length; j++) {
-                for (int k = 0; k < transposeMatrix[0].length; k++) {
-                    double value = transposeMatrix[j][k];
-                    output[j] += input[k] * value;
-                }
-                output[j] = roundTo4DecimalPlaces(output[j]);
+            for (int k = 0; k < layerWeights.length; k++) {
+                Kernels.axpy(input[k], layerWeights[k], 0, output, 0, output.length);
+            }
+            for (int j = 0; j < output.length; j++) {
+                output[j] = numericMode.apply(output[j]);
             }
 
-            System.out.println("\ny" + (i + 1) + "a = " + Arrays.toString(output));
             input = applyActivationFunction(output, layerData.getActivationFunction());
+            layerData.setYa(output);
             layerData.setY(input);
-            System.out.println("y" + (i + 1) + " = " + Arrays.toString(input));
+            if (tracingSteps) {
+                tracer.layerComputed(i, output, input);
+            }
+        }
+        if (timing) {
+            tracer.callFinished(Operation.FEED_FORWARD, 1, System.nanoTime() - start);
         }
     }
 
     public void computeBGD(double[] t, double alpha) {
+        long start = timing ? System.nanoTime() : 0;
         double[] e = new double[t.length];
         double[] finalY = layersData.get(layersData.size() - 1).getY();
 
@@ -183,9 +274,11 @@ public class FeedForwardNetwork {
         Compute error vector e
          */
         for (int i = 0; i < t.length; i++) {
-            e[i] = roundTo4DecimalPlaces(t[i] - finalY[i]);
+            e[i] = numericMode.apply(t[i] - finalY[i]);
+        }
+        if (tracingSteps) {
+            tracer.outputError(e);
         }
-        System.out.println("Error vector e: " + Arrays.toString(e));
 
         /*
         Compute local gradients
@@ -193,28 +286,47 @@ public class FeedForwardNetwork {
 
         for (int layer = weights.length - 1; layer >= 0; layer--) {
             LayerData layerData = layersData.get(layer);
+            Activation activationFunction = layerData.getActivationFunction();
             double[] localGradients = new double[layerData.getNeuronCount()];
 
+            // Derivace po prvcích = zpětný průchod jednotkového gradientu
+            double[] derivations = new double[layerData.getNeuronCount()];
+            Arrays.fill(derivations, 1);
+            if (activationFunction.isElementwise()) {
+                activationFunction.backward(layerData.getYa(), layerData.getY(), derivations, 0, derivations.length);
+            }
+
             for (int neuron = 0; neuron < layerData.getNeuronCount(); neuron++) {
-                if (layerData.getActivationFunction() == ActivationFunction.LINEAR_IDENT) {
-                    localGradients[neuron] = e[neuron];
+                double sum;
+                if (layer == weights.length - 1) {
+                    sum = e[neuron];
                 } else {
-                    double derivation = roundTo4DecimalPlaces(derivateTanh(layerData.getY()[neuron]));
                     LayerData nextLayerData = layersData.get(layer + 1);
-                    double sum = 0;
+                    sum = 0;
                     for (int i = 0; i < nextLayerData.getNeuronCount(); i++) {
                         double[] neuronWeights = weights[layer + 1][neuron + 1];
-                        System.out.println("Neuron weights: " + Arrays.toString(neuronWeights));
-                        System.out.println("Local gradient of next layer: " + Arrays.toString(nextLayerData.getLocalGradients()));
+                        if (tracingSteps) {
+                            tracer.backpropagatedTerm(neuronWeights, nextLayerData.getLocalGradients());
+                        }
                         sum += nextLayerData.getLocalGradients()[i] * neuronWeights[i];
                     }
+                }
 
-                    double delta = derivation * sum;
-                    localGradients[neuron] = roundTo4DecimalPlaces(delta);
+                double derivation = numericMode.apply(derivations[neuron]);
+                double delta = derivation * sum;
+                // Na výstupní vrstvě je sum už zaokrouhlená chyba e
+                localGradients[neuron] = layer == weights.length - 1 ? numericMode.applyOnce(delta, sum) : numericMode.apply(delta);
+            }
+            if (!activationFunction.isElementwise()) {
+                activationFunction.backward(layerData.getYa(), layerData.getY(), localGradients, 0, localGradients.length);
+                for (int neuron = 0; neuron < localGradients.length; neuron++) {
+                    localGradients[neuron] = numericMode.apply(localGradients[neuron]);
                 }
             }
             layerData.setLocalGradients(localGradients);
-            System.out.println("Local gradients for layer " + layer + ": " + Arrays.toString(localGradients));
+            if (tracingSteps) {
+                tracer.localGradientsComputed(layer, localGradients);
+            }
         }
 
         /*
@@ -231,7 +343,7 @@ public class FeedForwardNetwork {
                 for (int i = 0; i < layerData.getNeuronCount(); i++) {
                     double oldWeight = weights[layer][neuron][i];
                     double delta = layerData.getLocalGradients()[i];
-                    double backpropagation = roundTo4DecimalPlaces(alpha * delta * previousLayerYVector[neuron]);
+                    double backpropagation = numericMode.apply(alpha * delta * previousLayerYVector[neuron]);
                     backpropagationWeights[layer][neuron][i] = backpropagation;
 
                     double newWeight = oldWeight + backpropagation;
@@ -240,14 +352,12 @@ public class FeedForwardNetwork {
             }
         }
 
-        System.out.println("\nBackpropagation weights:");
-        printWeights(backpropagationWeights);
-        System.out.println("\nNew weights:");
-        printWeights(weights);
-    }
-
-    private double derivateTanh(double value) {
-        return 1 - Math.pow(value, 2);
+        if (tracingSteps) {
+            tracer.weightsUpdated(backpropagationWeights, weights);
+        }
+        if (timing) {
+            tracer.callFinished(Operation.BACKPROPAGATION, 1, System.nanoTime() - start);
+        }
     }
 
     private double[] getYVector(int layer) {
@@ -260,13 +370,15 @@ public class FeedForwardNetwork {
 
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        TokenReader reader = new TokenReader(System.in);
         FeedForwardNetwork ffnn = new FeedForwardNetwork();
+        ffnn.setNumericMode(NumericMode.TEXTBOOK);
+        ffnn.setTracer(new TextbookTracer());
 
         System.out.println("Enter number of layers (included input layer): ");
-        int numberOfLayers = scanner.nextInt();
+        int numberOfLayers = reader.nextInt();
 
-        ffnn.initializeNetwork(numberOfLayers, scanner);
+        ffnn.initializeNetwork(numberOfLayers, reader);
 
         while (true) {
             System.out.println("\nMenu:");
@@ -276,13 +388,14 @@ public class FeedForwardNetwork {
             System.out.println("4) Exit");
             System.out.print("Input choice: ");
 
-            int choice = scanner.nextInt();
+            int choice = reader.nextInt();
             switch (choice) {
                 case 1:
                     System.out.println("Enter input vector separated by spaces: ");
                     double[] input = new double[ffnn.getNumberOfInputs()];
+                    ffnn.clearX();
                     for (int i = 0; i < input.length; i++) {
-                        ffnn.addX(scanner.nextDouble());
+                        ffnn.addX(reader.nextDouble());
                     }
                     ffnn.computeResponse();
                     break;
@@ -294,17 +407,17 @@ public class FeedForwardNetwork {
                     System.out.println("Enter t vector separated by spaces: ");
                     double[] t = new double[tSize];
                     for (int i = 0; i < t.length; i++) {
-                        t[i] = scanner.nextDouble();
+                        t[i] = reader.nextDouble();
                     }
 
                     System.out.println("Enter alpha: ");
-                    double alpha = scanner.nextDouble();
+                    double alpha = reader.nextDouble();
 
                     ffnn.computeBGD(t, alpha);
                     break;
                 case 4:
                     System.out.println("Exiting...");
-                    scanner.close();
+                    reader.close();
                     return;
                 default:
                     System.out.println("Invalid choice!");
@@ -0,0 +1,44 @@
+package org.furstd.feed_forward;
+
+/**
+ * Per-thread buffers for {@link CompiledNetwork#computeResponses(double[], int, double[], InferenceWorkspace)}.
+ * A compiled network keeps no state between calls, so any number of threads can share it
+ * as long as each one passes its own workspace. The buffers grow to the largest network
+ * they have been used with, so a workspace can outlive the snapshots published to a
+ * {@link PublishedModel}.
+ */
+public class InferenceWorkspace {
+    private double[] current = new double[0];
+    private double[] next = new double[0];
+    private float[] floatInput = new float[0];
+    private double[] preActivation = new double[0];
+
+    void ensureCapacity(int size, int rowSize, boolean floats) {
+        if (current.length < size) {
+            current = new double[size];
+            next = new double[size];
+        }
+        if (preActivation.length < rowSize) {
+            preActivation = new double[rowSize];
+        }
+        if (floats && floatInput.length < size) {
+            floatInput = new float[size];
+        }
+    }
+
+    double[] getCurrent() {
+        return current;
+    }
+
+    double[] getNext() {
+        return next;
+    }
+
+    float[] getFloatInput() {
+        return floatInput;
+    }
+
+    double[] getPreActivation() {
+        return preActivation;
+    }
+}
@@ -3,9 +3,11 @@ package org.furstd.feed_forward;
 public class LayerData {
     private int neuronCount;
 
+    private double[] ya;
+
     private double[] y;
 
-    private ActivationFunction activationFunction;
+    private Activation activationFunction;
 
     private double[] localGradients;
 
@@ -17,6 +19,14 @@ public class LayerData {
         this.neuronCount = neuronCount;
     }
 
+    public double[] getYa() {
+        return ya;
+    }
+
+    public void setYa(double[] ya) {
+        this.ya = ya;
+    }
+
     public double[] getY() {
         return y;
     }
@@ -25,11 +35,11 @@ public class LayerData {
         this.y = y;
     }
 
-    public ActivationFunction getActivationFunction() {
+    public Activation getActivationFunction() {
         return activationFunction;
     }
 
-    public void setActivationFunction(ActivationFunction activationFunction) {
+    public void setActivationFunction(Activation activationFunction) {
         this.activationFunction = activationFunction;
     }
 
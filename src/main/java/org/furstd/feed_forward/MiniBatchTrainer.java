@@ -0,0 +1,149 @@
+package org.furstd.feed_forward;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Mini-batch gradient descent over a whole dataset. Every batch is split into a
+ * fixed number of partitions, each processed by a ForkJoinPool worker with its own
+ * {@link BackpropWorkspace}; the partial gradients are then summed in partition
+ * order, so for a given seed and partition count the result does not depend on
+ * thread scheduling. The default partition count is fixed rather than taken from the
+ * pool, so the same seed gives the same weights on any machine.
+ */
+public class MiniBatchTrainer {
+    private static final int DEFAULT_PARTITIONS = 16;
+
+    private final FeedForwardNetwork network;
+    private final ForkJoinPool pool;
+    private int partitions;
+    private long seed = 42;
+    private boolean shuffle = true;
+    private PublishedModel publishTarget;
+
+    public MiniBatchTrainer(FeedForwardNetwork network) {
+        this(network, ForkJoinPool.commonPool());
+    }
+
+    public MiniBatchTrainer(FeedForwardNetwork network, ForkJoinPool pool) {
+        this.network = network;
+        this.pool = pool;
+        this.partitions = DEFAULT_PARTITIONS;
+    }
+
+    public void setPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        this.partitions = partitions;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setShuffle(boolean shuffle) {
+        this.shuffle = shuffle;
+    }
+
+    // Po každé epoše se váhy publikují jako nový snímek, inference mezitím běží dál
+    public void setPublishTarget(PublishedModel publishTarget) {
+        this.publishTarget = publishTarget;
+    }
+
+    /**
+     * Trains the network in place and returns the mean squared error
+     * {@code 0.5 * sum(e^2)} per sample for every epoch.
+     */
+    public double[] train(double[][] inputs, double[][] targets, int batchSize, int epochs, double learningRate) {
+        if (inputs.length != targets.length) {
+            throw new IllegalArgumentException("Inputs and targets must have the same number of rows");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        double[][][] weights = network.getWeights();
+        Activation[] activationFunctions = getActivationFunctions();
+        int workers = Math.min(partitions, batchSize);
+        List<BackpropWorkspace> workspaces = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            workspaces.add(new BackpropWorkspace(weights));
+        }
+
+        int[] order = new int[inputs.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        double[] losses = new double[epochs];
+        double[] partitionLosses = new double[workers];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers];
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            if (shuffle) {
+                shuffle(order, random);
+            }
+
+            double epochLoss = 0;
+            for (int start = 0; start < order.length; start += batchSize) {
+                int end = Math.min(order.length, start + batchSize);
+                int rows = end - start;
+                int used = Math.min(workers, rows);
+
+                for (int p = 0; p < used; p++) {
+                    int from = start + rows * p / used;
+                    int to = start + rows * (p + 1) / used;
+                    BackpropWorkspace workspace = workspaces.get(p);
+                    int partition = p;
+                    tasks[p] = pool.submit(() -> {
+                        workspace.clear();
+                        double loss = 0;
+                        for (int i = from; i < to; i++) {
+                            int row = order[i];
+                            loss += workspace.accumulate(weights, activationFunctions, inputs[row], targets[row], null);
+                        }
+                        partitionLosses[partition] = loss;
+                    });
+                }
+
+                // Redukce vždy ve stejném pořadí oddílů
+                BackpropWorkspace total = workspaces.get(0);
+                tasks[0].join();
+                epochLoss += partitionLosses[0];
+                for (int p = 1; p < used; p++) {
+                    tasks[p].join();
+                    workspaces.get(p).addTo(total);
+                    epochLoss += partitionLosses[p];
+                }
+                total.applyTo(weights, learningRate / rows);
+            }
+            losses[epoch] = epochLoss / inputs.length;
+            if (publishTarget != null) {
+                publishTarget.publish(network);
+            }
+        }
+        return losses;
+    }
+
+    private Activation[] getActivationFunctions() {
+        List<LayerData> layersData = network.getLayersData();
+        Activation[] activationFunctions = new Activation[layersData.size()];
+        for (int i = 0; i < activationFunctions.length; i++) {
+            activationFunctions[i] = layersData.get(i).getActivationFunction();
+        }
+        return activationFunctions;
+    }
+
+    private static void shuffle(int[] order, Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.furstd.feed_forward;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary format of a {@link FeedForwardNetwork}, little-endian:
+ * <pre>
+ * int magic ("AIFF"), int version, int numberOfLayers, int[numberOfLayers] neuronsPerLayer,
+ * per weight layer: short nameLength, byte[nameLength] activation function name,
+ * short nameLength, byte[nameLength] numeric mode name,
+ * zero padding to 8 bytes, then per weight layer double[inputs + 1][outputs] row by row
+ * </pre>
+ * Loading memory-maps the weight section, so the file stays shared in the page
+ * cache between processes and every layer is copied into the heap in one bulk read.
+ */
+public final class ModelFile {
+    public static final int MAGIC = 0x41494646;
+    public static final int VERSION = 1;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private ModelFile() {
+    }
+
+    public static void save(FeedForwardNetwork network, Path path) throws IOException {
+        double[][][] weights = network.getWeights();
+        int numberOfLayers = weights.length + 1;
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize(network)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(numberOfLayers);
+        header.putInt(weights[0].length - 1); // -1 protože bias
+        for (double[][] layer : weights) {
+            header.putInt(layer[0].length);
+        }
+        for (LayerData layerData : network.getLayersData()) {
+            putName(header, activationName(layerData));
+        }
+        putName(header, network.getNumericMode().name());
+        header.position(header.capacity());
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (double[][] layer : weights) {
+                for (double[] row : layer) {
+                    for (double value : row) {
+                        if (!buffer.hasRemaining()) {
+                            buffer.flip();
+                            writeFully(channel, buffer);
+                            buffer.clear();
+                        }
+                        buffer.putDouble(value);
+                    }
+                }
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+        }
+    }
+
+    public static FeedForwardNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer fixed = read(channel, path, 0, 12);
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("Not a network model file: " + path);
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported model file version " + version + ": " + path);
+            }
+            int numberOfLayers = fixed.getInt();
+            if (numberOfLayers < 2) {
+                throw new IOException("Model must have at least 2 layers, got " + numberOfLayers + ": " + path);
+            }
+            // Počet vrstev z poškozené hlavičky nesmí alokovat víc, než soubor obsahuje
+            if (numberOfLayers > (channel.size() - 12) / Integer.BYTES) {
+                throw new IOException("Model file is truncated: " + path);
+            }
+
+            ByteBuffer sizes = read(channel, path, 12, Integer.BYTES * numberOfLayers);
+            int[] neuronsPerLayer = new int[numberOfLayers];
+            for (int i = 0; i < numberOfLayers; i++) {
+                neuronsPerLayer[i] = sizes.getInt();
+                if (neuronsPerLayer[i] < 1) {
+                    throw new IOException("Invalid size " + neuronsPerLayer[i] + " of layer " + i + " in " + path);
+                }
+            }
+
+            long[] position = {12 + Integer.BYTES * (long) numberOfLayers};
+            FeedForwardNetwork network = new FeedForwardNetwork();
+            for (int i = 1; i < numberOfLayers; i++) {
+                LayerData layerData = new LayerData();
+                layerData.setNeuronCount(neuronsPerLayer[i]);
+                layerData.setActivationFunction(valueOf(ActivationFunction.class, readName(channel, path, position), path));
+                network.addLayerData(layerData);
+            }
+            network.setNumericMode(valueOf(NumericMode.class, readName(channel, path, position), path));
+
+            long offset = align(position[0]);
+            double[][][] weights = new double[numberOfLayers - 1][][];
+            for (int layer = 0; layer < weights.length; layer++) {
+                long rows = neuronsPerLayer[layer] + 1L;
+                int columns = neuronsPerLayer[layer + 1];
+                // Porovnává se po činitelích, součin rows * columns * 8 může přetéct i v long
+                if (rows > (channel.size() - offset) / ((long) columns * Double.BYTES)) {
+                    throw new IOException("Model file is truncated in layer " + layer + ": " + path);
+                }
+                long bytes = rows * columns * Double.BYTES;
+                if (bytes > Integer.MAX_VALUE) {
+                    throw new IOException("Layer " + layer + " is larger than 2 GB: " + path);
+                }
+
+                DoubleBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                weights[layer] = new double[(int) rows][columns];
+                for (double[] row : weights[layer]) {
+                    data.get(row);
+                }
+                offset += bytes;
+            }
+            network.setWeights(weights);
+            return network;
+        }
+    }
+
+    private static int headerSize(FeedForwardNetwork network) {
+        int size = 12 + Integer.BYTES * (network.getWeights().length + 1);
+        for (LayerData layerData : network.getLayersData()) {
+            size += Short.BYTES + activationName(layerData).length();
+        }
+        size += Short.BYTES + network.getNumericMode().name().length();
+        return (int) align(size);
+    }
+
+    // Uložit jde jen vestavěné aktivace, vlastní implementace nemají jméno pro načtení
+    private static String activationName(LayerData layerData) {
+        if (!(layerData.getActivationFunction() instanceof ActivationFunction)) {
+            throw new IllegalArgumentException("Only built-in activation functions can be saved, got " + layerData.getActivationFunction());
+        }
+        return ((ActivationFunction) layerData.getActivationFunction()).name();
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String name, Path path) throws IOException {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " '" + name + "' in " + path, e);
+        }
+    }
+
+    private static String readName(FileChannel channel, Path path, long[] position) throws IOException {
+        int length = read(channel, path, position[0], Short.BYTES).getShort();
+        if (length < 0) {
+            throw new IOException("Model file header is corrupted: " + path);
+        }
+        ByteBuffer name = read(channel, path, position[0] + Short.BYTES, length);
+        position[0] += Short.BYTES + length;
+        return StandardCharsets.US_ASCII.decode(name).toString();
+    }
+
+    private static ByteBuffer read(FileChannel channel, Path path, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Model file is truncated: " + path);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.furstd.feed_forward;
+
+public enum NumericMode {
+    // Plná IEEE aritmetika bez zaokrouhlování
+    EXACT {
+        @Override
+        public double apply(double value) {
+            return value;
+        }
+    },
+    // Zaokrouhlení jako při ručním výpočtu: hodnoty od 0.99 do 1 (bez 1) dají 1, jinak na 3 desetinná místa
+    TEXTBOOK {
+        @Override
+        public double apply(double value) {
+            if (value >= 0.99 && value < 1.0) {
+                return 1;
+            } else if (value <= -0.99 && value > -1.0) {
+                return -1;
+            }
+            return Math.round(value * 1000.0) / 1000.0;
+        }
+    };
+
+    public abstract double apply(double value);
+
+    // Hodnota spočtená z už zaokrouhlené se zaokrouhlí jen tehdy, když se změnila; TEXTBOOK není idempotentní (0.9896 -> 0.99 -> 1)
+    public double applyOnce(double value, double roundedSource) {
+        return value == roundedSource ? value : apply(value);
+    }
+}
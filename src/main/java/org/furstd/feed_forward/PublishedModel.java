@@ -0,0 +1,55 @@
+package org.furstd.feed_forward;
+
+/**
+ * Shares one feed-forward model between inference threads and a trainer. Readers take the
+ * current {@link CompiledNetwork} snapshot without locking and keep it for the whole call;
+ * {@link #publish(CompiledNetwork)} swaps in a new snapshot atomically, so every call sees
+ * either the old or the new weights, never a mix of both.
+ */
+public class PublishedModel {
+    private volatile CompiledNetwork snapshot;
+    private volatile long version;
+
+    public PublishedModel(CompiledNetwork snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public CompiledNetwork getSnapshot() {
+        return snapshot;
+    }
+
+    // Počet publikací od vytvoření
+    public long getVersion() {
+        return version;
+    }
+
+    // Nový snímek musí mít stejné vstupy a výstupy, aby běžící klienti nic nepoznali
+    public synchronized void publish(CompiledNetwork next) {
+        CompiledNetwork current = snapshot;
+        if (next.getNumberOfInputs() != current.getNumberOfInputs() || next.getNumberOfOutputs() != current.getNumberOfOutputs()) {
+            throw new IllegalArgumentException("Snapshot must have " + current.getNumberOfInputs() + " inputs and "
+                    + current.getNumberOfOutputs() + " outputs");
+        }
+        snapshot = next;
+        version++;
+    }
+
+    // Zkompiluje aktuální váhy sítě v přesnosti publikovaného modelu
+    public void publish(FeedForwardNetwork network) {
+        publish(network.compile(snapshot.getPrecision()));
+    }
+
+    public double[] computeResponse(double[] input, InferenceWorkspace workspace) {
+        CompiledNetwork network = snapshot;
+        if (input.length != network.getNumberOfInputs()) {
+            throw new IllegalArgumentException("Input must have size " + network.getNumberOfInputs());
+        }
+        double[] output = new double[network.getNumberOfOutputs()];
+        network.computeResponses(input, 1, output, workspace);
+        return output;
+    }
+
+    public void computeResponses(double[] packedInputs, int rows, double[] packedOutputs, InferenceWorkspace workspace) {
+        snapshot.computeResponses(packedInputs, rows, packedOutputs, workspace);
+    }
+}
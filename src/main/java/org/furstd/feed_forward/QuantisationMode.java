@@ -0,0 +1,8 @@
+package org.furstd.feed_forward;
+
+public enum QuantisationMode {
+    // Jedno měřítko pro všechny váhy vrstvy
+    PER_LAYER,
+    // Vlastní měřítko pro váhy každého výstupního neuronu
+    PER_CHANNEL
+}
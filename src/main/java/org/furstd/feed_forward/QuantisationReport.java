@@ -0,0 +1,57 @@
+package org.furstd.feed_forward;
+
+import java.util.Locale;
+
+/**
+ * Accuracy of a {@link QuantisedNetwork} against the full-precision network it was
+ * built from, measured on a set of inputs.
+ */
+public class QuantisationReport {
+    private final int samples;
+    private final double maxAbsoluteError;
+    private final double meanAbsoluteError;
+    private final double argmaxAgreement;
+    private final long referenceBytes;
+    private final long quantisedBytes;
+
+    public QuantisationReport(int samples, double maxAbsoluteError, double meanAbsoluteError, double argmaxAgreement,
+                              long referenceBytes, long quantisedBytes) {
+        this.samples = samples;
+        this.maxAbsoluteError = maxAbsoluteError;
+        this.meanAbsoluteError = meanAbsoluteError;
+        this.argmaxAgreement = argmaxAgreement;
+        this.referenceBytes = referenceBytes;
+        this.quantisedBytes = quantisedBytes;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public double getMaxAbsoluteError() {
+        return maxAbsoluteError;
+    }
+
+    public double getMeanAbsoluteError() {
+        return meanAbsoluteError;
+    }
+
+    // Podíl vstupů, u kterých oba modely vybraly stejný výstup s největší hodnotou
+    public double getArgmaxAgreement() {
+        return argmaxAgreement;
+    }
+
+    public long getReferenceBytes() {
+        return referenceBytes;
+    }
+
+    public long getQuantisedBytes() {
+        return quantisedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "samples = %d, max |error| = %.6f, mean |error| = %.6f, argmax agreement = %.2f %%, size = %d -> %d bytes",
+                samples, maxAbsoluteError, meanAbsoluteError, 100 * argmaxAgreement, referenceBytes, quantisedBytes);
+    }
+}
@@ -0,0 +1,299 @@
+package org.furstd.feed_forward;
+
+import org.furstd.kernel.Kernels;
+
+import java.util.List;
+
+/**
+ * Inference-only int8 version of a {@link FeedForwardNetwork}. Weights are stored as
+ * symmetric int8 values with one scale per layer or per output neuron; the inputs of
+ * every layer are quantised to int8 with a scale taken from a calibration dataset, so the
+ * weighted sum is an integer dot product:
+ * <pre>
+ * y_k = f(bias_k + (sum_j qx_j * qw_kj) * inputScale * weightScale_k)
+ * </pre>
+ * Biases stay in double and are added after scaling, so a bias that is large against the
+ * scales cannot overflow the accumulator. Activations are
+ * applied in double, so the output has the same shape as {@link FeedForwardNetwork#computeResponse}.
+ */
+public class QuantisedNetwork {
+    private static final int ROW_BLOCK = 32;
+    private static final int NEURON_BLOCK = 64;
+    private static final int INT8_MAX = 127;
+    // Nejvíc vstupů, jejichž součin 127 * 127 se ještě vejde do int
+    private static final int DOT_CHUNK = Integer.MAX_VALUE / (INT8_MAX * INT8_MAX);
+
+    private final int[] layerSizes;
+    private final Activation[] activationFunctions;
+    private final byte[][] weights;
+    private final double[][] bias;
+    private final double[][] weightScales;
+    private final double[] inputScales;
+    private final QuantisationMode mode;
+    private final int maxLayerSize;
+
+    private QuantisedNetwork(int[] layerSizes, Activation[] activationFunctions, QuantisationMode mode) {
+        this.layerSizes = layerSizes;
+        this.activationFunctions = activationFunctions;
+        this.mode = mode;
+        int layers = activationFunctions.length;
+        this.weights = new byte[layers][];
+        this.bias = new double[layers][];
+        this.weightScales = new double[layers][];
+        this.inputScales = new double[layers];
+        int max = 0;
+        for (int size : layerSizes) {
+            max = Math.max(max, size);
+        }
+        this.maxLayerSize = max;
+    }
+
+    /**
+     * Quantises the weights of {@code network} and calibrates the input scale of every layer
+     * as the largest absolute value that layer sees while the full-precision network scores
+     * {@code calibrationInputs}.
+     */
+    public static QuantisedNetwork quantise(FeedForwardNetwork network, double[][] calibrationInputs, QuantisationMode mode) {
+        if (calibrationInputs.length == 0) {
+            throw new IllegalArgumentException("Calibration needs at least one input");
+        }
+        double[][][] w = network.getWeights();
+        List<LayerData> layersData = network.getLayersData();
+        int layers = w.length;
+        int[] layerSizes = new int[layers + 1];
+        layerSizes[0] = w[0].length - 1; // -1 protože bias
+        Activation[] activationFunctions = new Activation[layers];
+        for (int layer = 0; layer < layers; layer++) {
+            layerSizes[layer + 1] = w[layer][0].length;
+            activationFunctions[layer] = layersData.get(layer).getActivationFunction();
+        }
+
+        QuantisedNetwork quantised = new QuantisedNetwork(layerSizes, activationFunctions, mode);
+        quantised.calibrate(w, calibrationInputs);
+        for (int layer = 0; layer < layers; layer++) {
+            quantised.quantiseLayer(layer, w[layer]);
+        }
+        return quantised;
+    }
+
+    public QuantisationMode getMode() {
+        return mode;
+    }
+
+    public int getNumberOfInputs() {
+        return layerSizes[0];
+    }
+
+    public int getNumberOfOutputs() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    // Váhy po bajtech, biasy a měřítka
+    public long getModelBytes() {
+        long bytes = 0;
+        for (int layer = 0; layer < weights.length; layer++) {
+            bytes += weights[layer].length + (long) bias[layer].length * Double.BYTES
+                    + (long) weightScales[layer].length * Double.BYTES + Double.BYTES;
+        }
+        return bytes;
+    }
+
+    public double[] computeResponse(double[] input) {
+        if (input.length != getNumberOfInputs()) {
+            throw new IllegalArgumentException("Input must have size " + getNumberOfInputs());
+        }
+        return computeResponses(input, 1);
+    }
+
+    public double[][] computeResponses(double[][] inputs) {
+        int n = getNumberOfInputs();
+        double[] packedInputs = new double[inputs.length * n];
+        for (int row = 0; row < inputs.length; row++) {
+            if (inputs[row].length != n) {
+                throw new IllegalArgumentException("Input " + row + " must have size " + n);
+            }
+            System.arraycopy(inputs[row], 0, packedInputs, row * n, n);
+        }
+
+        int m = getNumberOfOutputs();
+        double[] packedOutputs = computeResponses(packedInputs, inputs.length);
+        double[][] outputs = new double[inputs.length][];
+        for (int row = 0; row < inputs.length; row++) {
+            outputs[row] = new double[m];
+            System.arraycopy(packedOutputs, row * m, outputs[row], 0, m);
+        }
+        return outputs;
+    }
+
+    public double[] computeResponses(double[] packedInputs, int rows) {
+        int n = getNumberOfInputs();
+        int m = getNumberOfOutputs();
+        if (packedInputs.length < rows * n) {
+            throw new IllegalArgumentException("Packed input must hold " + rows + " rows of size " + n);
+        }
+        double[] packedOutputs = new double[rows * m];
+        // Jeden řádek nepotřebuje buffery na celý blok
+        int bufferSize = Math.min(ROW_BLOCK, rows) * maxLayerSize;
+        double[] current = new double[bufferSize];
+        double[] next = new double[bufferSize];
+        byte[] quantisedInput = new byte[bufferSize];
+
+        for (int start = 0; start < rows; start += ROW_BLOCK) {
+            int blockRows = Math.min(ROW_BLOCK, rows - start);
+            System.arraycopy(packedInputs, start * n, current, 0, blockRows * n);
+            for (int layer = 0; layer < weights.length; layer++) {
+                quantiseInput(layer, current, blockRows * layerSizes[layer], quantisedInput);
+                multiply(layer, quantisedInput, blockRows, next);
+                double[] swap = current;
+                current = next;
+                next = swap;
+            }
+            System.arraycopy(current, 0, packedOutputs, start * m, blockRows * m);
+        }
+        return packedOutputs;
+    }
+
+    /**
+     * Scores {@code inputs} with both this network and the full-precision {@code network}
+     * and reports how far the outputs are apart.
+     */
+    public QuantisationReport compare(FeedForwardNetwork network, double[][] inputs) {
+        CompiledNetwork reference = network.compile();
+        double[][] expected = reference.computeResponses(inputs);
+        double[][] actual = computeResponses(inputs);
+
+        double maxError = 0;
+        double errorSum = 0;
+        int agreements = 0;
+        for (int row = 0; row < inputs.length; row++) {
+            for (int k = 0; k < expected[row].length; k++) {
+                double error = Math.abs(expected[row][k] - actual[row][k]);
+                maxError = Math.max(maxError, error);
+                errorSum += error;
+            }
+            if (argmax(expected[row]) == argmax(actual[row])) {
+                agreements++;
+            }
+        }
+        int values = inputs.length * getNumberOfOutputs();
+        return new QuantisationReport(inputs.length, maxError, values > 0 ? errorSum / values : 0,
+                inputs.length > 0 ? (double) agreements / inputs.length : 1, reference.getWeightBytes(), getModelBytes());
+    }
+
+    private void calibrate(double[][][] w, double[][] calibrationInputs) {
+        double[] maxAbs = new double[w.length];
+        double[] current = new double[maxLayerSize];
+        double[] next = new double[maxLayerSize];
+        for (double[] input : calibrationInputs) {
+            if (input.length != getNumberOfInputs()) {
+                throw new IllegalArgumentException("Calibration input must have size " + getNumberOfInputs());
+            }
+            System.arraycopy(input, 0, current, 0, input.length);
+            for (int layer = 0; layer < w.length; layer++) {
+                int inputs = layerSizes[layer];
+                int outputs = layerSizes[layer + 1];
+                for (int j = 0; j < inputs; j++) {
+                    maxAbs[layer] = Math.max(maxAbs[layer], Math.abs(current[j]));
+                }
+                System.arraycopy(w[layer][0], 0, next, 0, outputs); // bias
+                for (int j = 0; j < inputs; j++) {
+                    Kernels.axpy(current[j], w[layer][j + 1], 0, next, 0, outputs);
+                }
+                activationFunctions[layer].forward(next, 0, outputs);
+                double[] swap = current;
+                current = next;
+                next = swap;
+            }
+        }
+        for (int layer = 0; layer < w.length; layer++) {
+            inputScales[layer] = maxAbs[layer] > 0 ? maxAbs[layer] / INT8_MAX : 1;
+        }
+    }
+
+    private void quantiseLayer(int layer, double[][] w) {
+        int inputs = layerSizes[layer];
+        int outputs = layerSizes[layer + 1];
+        double[] scales = new double[mode == QuantisationMode.PER_CHANNEL ? outputs : 1];
+        for (int k = 0; k < outputs; k++) {
+            int channel = mode == QuantisationMode.PER_CHANNEL ? k : 0;
+            for (int j = 1; j <= inputs; j++) {
+                scales[channel] = Math.max(scales[channel], Math.abs(w[j][k]));
+            }
+        }
+        for (int c = 0; c < scales.length; c++) {
+            scales[c] = scales[c] > 0 ? scales[c] / INT8_MAX : 1;
+        }
+
+        // Řádek na výstupní neuron, aby byl součin souvislý jako v CompiledNetwork
+        byte[] packed = new byte[outputs * inputs];
+        for (int k = 0; k < outputs; k++) {
+            double scale = scales[mode == QuantisationMode.PER_CHANNEL ? k : 0];
+            for (int j = 0; j < inputs; j++) {
+                packed[k * inputs + j] = (byte) clamp(Math.round(w[j + 1][k] / scale));
+            }
+        }
+        weights[layer] = packed;
+        bias[layer] = w[0].clone();
+        weightScales[layer] = scales;
+    }
+
+    private void quantiseInput(int layer, double[] values, int length, byte[] quantised) {
+        double inverseScale = 1 / inputScales[layer];
+        for (int i = 0; i < length; i++) {
+            quantised[i] = (byte) clamp(Math.round(values[i] * inverseScale));
+        }
+    }
+
+    private void multiply(int layer, byte[] input, int rows, double[] output) {
+        int inputs = layerSizes[layer];
+        int outputs = layerSizes[layer + 1];
+        byte[] w = weights[layer];
+        double[] b = bias[layer];
+        double[] scales = weightScales[layer];
+        double inputScale = inputScales[layer];
+        Activation activationFunction = activationFunctions[layer];
+
+        for (int neuronStart = 0; neuronStart < outputs; neuronStart += NEURON_BLOCK) {
+            int neuronEnd = Math.min(outputs, neuronStart + NEURON_BLOCK);
+            for (int row = 0; row < rows; row++) {
+                int inOffset = row * inputs;
+                int outOffset = row * outputs;
+                for (int neuron = neuronStart; neuron < neuronEnd; neuron++) {
+                    long accumulator = dot(w, neuron * inputs, input, inOffset, inputs);
+                    double scale = scales[scales.length == 1 ? 0 : neuron];
+                    output[outOffset + neuron] = b[neuron] + accumulator * inputScale * scale;
+                }
+                if (neuronEnd == outputs) {
+                    activationFunction.forward(output, outOffset, outputs);
+                }
+            }
+        }
+    }
+
+    // Široké vrstvy se sčítají po částech do long, int by přetekl
+    private static long dot(byte[] w, int wOffset, byte[] input, int inOffset, int length) {
+        if (length <= DOT_CHUNK) {
+            return Kernels.dot(w, wOffset, input, inOffset, length);
+        }
+        long sum = 0;
+        for (int start = 0; start < length; start += DOT_CHUNK) {
+            int chunk = Math.min(DOT_CHUNK, length - start);
+            sum += Kernels.dot(w, wOffset + start, input, inOffset + start, chunk);
+        }
+        return sum;
+    }
+
+    private static long clamp(long value) {
+        return Math.max(-INT8_MAX, Math.min(INT8_MAX, value));
+    }
+
+    private static int argmax(double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,116 @@
+package org.furstd.hopfield;
+
+import org.furstd.kernel.Kernels;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+final class DenseWeights implements HopfieldWeights {
+    private static final int BLOCK_ROWS = 64;
+    private static final int TILE_COLUMNS = 1024;
+
+    private final int[][] matrix;
+    private final int size;
+    private final boolean symmetric;
+
+    DenseWeights(int[][] matrix, boolean symmetric) {
+        this.matrix = matrix;
+        this.size = matrix.length;
+        this.symmetric = symmetric;
+    }
+
+    static DenseWeights of(int[][] matrix) {
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = i + 1; j < matrix.length; j++) {
+                if (matrix[i][j] != matrix[j][i]) {
+                    return new DenseWeights(matrix, false);
+                }
+            }
+        }
+        return new DenseWeights(matrix, true);
+    }
+
+    int[][] getMatrix() {
+        return matrix;
+    }
+
+    @Override
+    public int get(int i, int j) {
+        return matrix[i][j];
+    }
+
+    @Override
+    public void computeFields(int[] state, int[] fields, ForkJoinPool pool) {
+        if (pool == null) {
+            computeRows(state, fields, 0, size);
+            return;
+        }
+        int blocks = Math.max(1, Math.min(pool.getParallelism() * 4, size / BLOCK_ROWS));
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int from = (int) ((long) size * b / blocks);
+            int to = (int) ((long) size * (b + 1) / blocks);
+            tasks[b] = pool.submit(() -> computeRows(state, fields, from, to));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    // Dlaždice vah se načte jednou pro všechny aktivní vzory
+    @Override
+    public void computeFields(int[][] states, int[][] fields, int[] active, int activeCount, ForkJoinPool pool) {
+        int blocks = (size + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int from = b * BLOCK_ROWS;
+            int to = Math.min(size, from + BLOCK_ROWS);
+            Runnable tile = () -> {
+                for (int a = 0; a < activeCount; a++) {
+                    Arrays.fill(fields[active[a]], from, to, 0);
+                }
+                for (int columnStart = 0; columnStart < size; columnStart += TILE_COLUMNS) {
+                    int columnEnd = Math.min(size, columnStart + TILE_COLUMNS);
+                    for (int a = 0; a < activeCount; a++) {
+                        int[] state = states[active[a]];
+                        int[] probeFields = fields[active[a]];
+                        for (int i = from; i < to; i++) {
+                            probeFields[i] += Kernels.dot(matrix[i], columnStart, state, columnStart, columnEnd - columnStart);
+                        }
+                    }
+                }
+            };
+            if (pool == null) {
+                tile.run();
+            } else {
+                tasks[b] = pool.submit(tile);
+            }
+        }
+        if (pool != null) {
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+    }
+
+    @Override
+    public void addColumn(int column, int delta, int[] fields) {
+        if (symmetric) {
+            int[] row = matrix[column];
+            for (int i = 0; i < size; i++) {
+                fields[i] += delta * row[i];
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                fields[i] += delta * matrix[i][column];
+            }
+        }
+    }
+
+    private void computeRows(int[] state, int[] fields, int from, int to) {
+        for (int i = from; i < to; i++) {
+            fields[i] = Kernels.dot(matrix[i], 0, state, 0, size);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.furstd.hopfield;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of the weights of a {@link HopfieldNetwork}, little-endian:
+ * <pre>
+ * int magic ("AIHN"), int version, int size, int reserved, then int[size][size] row by row
+ * </pre>
+ * Only the weights are stored, so a network loads ready for recall with any storage
+ * that accepts a weight matrix.
+ */
+public final class HopfieldFile {
+    public static final int MAGIC = 0x4149484E;
+    public static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private HopfieldFile() {
+    }
+
+    public static void save(HopfieldNetwork network, Path path) throws IOException {
+        int size = network.getSize();
+        int[][] weights = network.getWeightMatrix();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * size * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(size);
+        buffer.putInt(0);
+        for (int[] row : weights) {
+            for (int value : row) {
+                buffer.putInt(value);
+            }
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static HopfieldNetwork load(Path path) throws IOException {
+        return load(path, WeightStorage.DENSE);
+    }
+
+    public static HopfieldNetwork load(Path path, WeightStorage storage) throws IOException {
+        if (storage == WeightStorage.LOW_RANK) {
+            throw new IllegalArgumentException("Low-rank storage is built from patterns, not from a weight matrix");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a Hopfield network file: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a Hopfield network file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported Hopfield file version " + version + ": " + path);
+            }
+            int size = header.getInt();
+            // Porovnává se po činitelích, size * size * 4 může přetéct i v long
+            if (size < 1 || size > (channel.size() - HEADER_SIZE) / ((long) size * Integer.BYTES)) {
+                throw new IOException("Hopfield file is truncated: " + path);
+            }
+            long bytes = (long) size * size * Integer.BYTES;
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("Hopfield network is larger than 2 GB: " + path);
+            }
+
+            IntBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, bytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[][] weights = new int[size][size];
+            for (int[] row : weights) {
+                data.get(row);
+            }
+            HopfieldNetwork network = new HopfieldNetwork(size, storage);
+            network.setWeightsDirectly(weights);
+            return network;
+        }
+    }
+}
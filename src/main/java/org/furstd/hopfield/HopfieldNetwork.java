@@ -1,46 +1,245 @@
 package org.furstd.hopfield;
 
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.dataset.TokenReader;
+import org.furstd.trace.Operation;
+import org.furstd.trace.TextbookTracer;
+import org.furstd.trace.Tracer;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Scanner;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class HopfieldNetwork {
+    private static final int FIXED_POINT_ONE = 1 << 16;
+    static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+    private final WeightStorage storage;
     private int[][] weightMatrix;
+    private HopfieldWeights weights;
     private final int size;
     private final ArrayList<int[]> patterns = new ArrayList<>();
+    private Tracer tracer = Tracer.NONE;
+    private boolean tracingSteps;
+    private boolean timing;
+    private LearningRule learningRule = LearningRule.HEBBIAN;
+    private boolean weightsDirty;
+    private boolean weightsSetDirectly;
+    private UpdateSchedule updateSchedule = UpdateSchedule.SYNCHRONOUS;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private int energyPlateau;
+    private long seed = 42;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int lastIterations;
+    private double lastEnergy;
+    private boolean lastConverged;
 
     public HopfieldNetwork(int size) {
+        this(size, WeightStorage.DENSE);
+    }
+
+    // Jen DENSE alokuje matici size x size
+    public HopfieldNetwork(int size, WeightStorage storage) {
         this.size = size;
-        this.weightMatrix = new int[size][size];
+        this.storage = storage;
+        switch (storage) {
+            case DENSE:
+                weightMatrix = new int[size][size];
+                weights = new DenseWeights(weightMatrix, true);
+                break;
+            case LOW_RANK:
+                weights = new LowRankWeights(patterns, size);
+                break;
+            case SPARSE:
+                weights = new SparseWeights(size, new int[size + 1], new int[0], new int[0]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown weight storage");
+        }
+    }
+
+    public WeightStorage getWeightStorage() {
+        return storage;
+    }
+
+    public LearningRule getLearningRule() {
+        return learningRule;
+    }
+
+    public void setLearningRule(LearningRule learningRule) {
+        if (storage == WeightStorage.LOW_RANK && learningRule != LearningRule.HEBBIAN) {
+            throw new IllegalStateException("Low-rank storage supports only the Hebbian rule");
+        }
+        if (this.learningRule != learningRule) {
+            // Přepočet ze vzorů by zahodil ručně nastavené váhy
+            if (storage == WeightStorage.SPARSE || weightsSetDirectly) {
+                throw new IllegalStateException("Learning rule cannot change once weights are set directly");
+            }
+            this.learningRule = learningRule;
+            weightsDirty = true;
+        }
+    }
+
+    public List<int[]> getPatterns() {
+        return Collections.unmodifiableList(patterns);
     }
 
     public void addPattern(int[] pattern) {
+        checkPattern(pattern);
+        checkPatternStorage();
+        int[] stored = pattern.clone();
+        patterns.add(stored);
+        if (storage == WeightStorage.LOW_RANK) {
+            ((LowRankWeights) weights).updateDiagonal(stored, 1);
+            return;
+        }
+        if (learningRule == LearningRule.HEBBIAN && !weightsDirty) {
+            updateWeights(stored, 1);
+        } else {
+            weightsDirty = true;
+        }
+    }
+
+    // Hromadné vložení přepočítá váhy jen jednou
+    public void addPatterns(List<int[]> newPatterns) {
+        for (int[] pattern : newPatterns) {
+            checkPattern(pattern);
+        }
+        checkPatternStorage();
+        for (int[] pattern : newPatterns) {
+            patterns.add(pattern.clone());
+        }
+        if (storage == WeightStorage.LOW_RANK) {
+            for (int[] pattern : newPatterns) {
+                ((LowRankWeights) weights).updateDiagonal(pattern, 1);
+            }
+            return;
+        }
+        if (learningRule == LearningRule.HEBBIAN && !weightsDirty) {
+            int[][] added = patterns.subList(patterns.size() - newPatterns.size(), patterns.size()).toArray(new int[0][]);
+            addHebbian(added);
+        } else {
+            weightsDirty = true;
+        }
+    }
+
+    public void removePattern(int index) {
+        checkPatternStorage();
+        int[] removed = patterns.remove(index);
+        if (storage == WeightStorage.LOW_RANK) {
+            ((LowRankWeights) weights).updateDiagonal(removed, -1);
+            return;
+        }
+        if (learningRule == LearningRule.HEBBIAN && !weightsDirty) {
+            updateWeights(removed, -1);
+        } else {
+            weightsDirty = true;
+        }
+    }
+
+    public boolean removePattern(int[] pattern) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (Arrays.equals(patterns.get(i), pattern)) {
+                removePattern(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkPattern(int[] pattern) {
         if (pattern.length != size) {
             throw new IllegalArgumentException("Pattern must have size " + size);
         }
-        patterns.add(pattern);
-        updateWeights();
     }
 
-    private void updateWeights() {
-        // Reset váhové matice
-        for (int i = 0; i < size; i++) {
-            Arrays.fill(weightMatrix[i], 0);
+    private void checkPatternStorage() {
+        if (storage == WeightStorage.SPARSE) {
+            throw new IllegalStateException("Sparse storage takes weights only through setWeightsDirectly");
         }
+        // Jen Hebbovo pravidlo se přičítá k existujícím vahám, ostatní by je přepočítala ze vzorů
+        if (weightsSetDirectly && learningRule != LearningRule.HEBBIAN) {
+            throw new IllegalStateException("Weights set directly can only be extended with the Hebbian rule");
+        }
+    }
 
-        // Výpočet váh podle akumulace vzorů
-        if (patterns.size() >= 2) {
-            int[] pattern1 = patterns.get(0);
-            int[] pattern2 = patterns.get(1);
+    // Aktualizace řádu 1: w_ij += sign * p_i * p_j pro i != j
+    private void updateWeights(int[] pattern, int sign) {
+        for (int i = 0; i < size; i++) {
+            int factor = sign * pattern[i];
+            int[] row = weightMatrix[i];
+            for (int j = 0; j < size; j++) {
+                row[j] += factor * pattern[j];
+            }
+            row[i] -= factor * pattern[i];
+        }
+    }
 
-            for (int i = 0; i < size; i++) {
+    // Po řádcích, aby řádek váhové matice zůstal v cache přes všechny vzory
+    private void addHebbian(int[][] added) {
+        for (int i = 0; i < size; i++) {
+            int[] row = weightMatrix[i];
+            for (int[] pattern : added) {
+                int factor = pattern[i];
                 for (int j = 0; j < size; j++) {
-                    if (i != j) {
-                        // Akumulace pouze pro první dva vzory podle vašeho výpočtu
-                        weightMatrix[i][j] = pattern1[i] * pattern2[j] + pattern2[i] * pattern1[j];
-                    }
+                    row[j] += factor * pattern[j];
                 }
             }
+            row[i] = 0;
+        }
+    }
+
+    private void ensureWeights() {
+        if (!weightsDirty) {
+            return;
+        }
+        weightsDirty = false;
+        weights = new DenseWeights(weightMatrix, true);
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(weightMatrix[i], 0);
+        }
+        int[][] stored = patterns.toArray(new int[0][]);
+        if (stored.length == 0) {
+            return;
+        }
+
+        switch (learningRule) {
+            case HEBBIAN:
+                addHebbian(stored);
+                break;
+            case STORKEY:
+                quantise(WeightSolver.storkey(stored, size));
+                break;
+            case PSEUDO_INVERSE:
+                quantise(WeightSolver.pseudoInverse(stored, size));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown learning rule");
+        }
+    }
+
+    /*
+    Reálné váhy se uloží v pevné řádové čárce. Vybavování závisí jen na znaménku
+    lokálního pole, takže kladné měřítko výsledek nemění, a součet řádku se vejde do int.
+     */
+    private void quantise(double[] weights) {
+        double maxAbs = 0;
+        for (double value : weights) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        if (maxAbs == 0) {
+            return;
+        }
+        double scale = Math.min(FIXED_POINT_ONE, Integer.MAX_VALUE / size) / maxAbs;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                weightMatrix[i][j] = (int) Math.round(weights[i * size + j] * scale);
+            }
         }
     }
 
@@ -48,43 +247,359 @@ public class HopfieldNetwork {
         if (newWeights.length != size || newWeights[0].length != size) {
             throw new IllegalArgumentException("Weight matrix must have size " + size + "x" + size);
         }
-        this.weightMatrix = newWeights;
+        switch (storage) {
+            case DENSE:
+                // Kopie, Hebbovy aktualizace nesmí měnit pole volajícího
+                int[][] copy = new int[size][];
+                for (int i = 0; i < size; i++) {
+                    if (newWeights[i].length != size) {
+                        throw new IllegalArgumentException("Weight matrix must have size " + size + "x" + size);
+                    }
+                    copy[i] = newWeights[i].clone();
+                }
+                this.weightMatrix = copy;
+                weights = DenseWeights.of(copy);
+                break;
+            case SPARSE:
+                weights = SparseWeights.of(newWeights);
+                break;
+            default:
+                throw new IllegalStateException("Low-rank weights are defined by the stored patterns");
+        }
+        weightsDirty = false;
+        weightsSetDirectly = true;
+    }
+
+    // Řídké váhy ve formátu CSR: sloupce a hodnoty řádku i leží na indexech rowPointers[i] až rowPointers[i + 1] - 1
+    public void setWeightsDirectly(int[] rowPointers, int[] columnIndices, int[] values) {
+        if (storage != WeightStorage.SPARSE) {
+            throw new IllegalStateException("CSR weights require sparse storage");
+        }
+        weights = new SparseWeights(size, rowPointers.clone(), columnIndices.clone(), values.clone());
+        weightsSetDirectly = true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // U LOW_RANK a SPARSE se plná matice sestaví při každém volání
+    public int[][] getWeightMatrix() {
+        ensureWeights();
+        if (storage == WeightStorage.DENSE) {
+            return weightMatrix;
+        }
+        int[][] matrix = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = weights.get(i, j);
+            }
+        }
+        return matrix;
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+        this.tracingSteps = tracer.tracesSteps();
+        this.timing = tracer.measuresTime();
+    }
+
+    public PackedHopfieldNetwork toPacked() {
+        return PackedHopfieldNetwork.fromWeights(getWeightMatrix());
+    }
+
+    public void setUpdateSchedule(UpdateSchedule updateSchedule) {
+        this.updateSchedule = updateSchedule;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Max iterations must be positive");
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    // Zastaví vybavování, pokud energie neklesla po zadaný počet iterací, 0 vypne
+    public void setEnergyPlateau(int energyPlateau) {
+        if (energyPlateau < 0) {
+            throw new IllegalArgumentException("Energy plateau must be non-negative");
+        }
+        this.energyPlateau = energyPlateau;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    public double getLastEnergy() {
+        return lastEnergy;
+    }
+
+    // E = -1/2 * sum_i s_i * h_i
+    public double energy(int[] state) {
+        ensureWeights();
+        int[] fields = new int[size];
+        weights.computeFields(state, fields, null);
+        return energy(state, fields);
     }
 
     public int[] recall(int[] pattern) {
         if (pattern.length != size) {
             throw new IllegalArgumentException("Pattern must have size " + size);
         }
-        int[] recalledPattern = Arrays.copyOf(pattern, size);
-        int[] newPattern = Arrays.copyOf(recalledPattern, recalledPattern.length);
-        boolean stable;
+        ensureWeights();
+        long start = timing ? System.nanoTime() : 0;
+        int[] state = Arrays.copyOf(pattern, size);
+        int[] fields = new int[size];
+        int[] result = updateSchedule == UpdateSchedule.ASYNCHRONOUS ? recallAsynchronous(state, fields) : recallSynchronous(state, fields);
+        if (timing) {
+            tracer.callFinished(Operation.HOPFIELD_RECALL, 1, System.nanoTime() - start);
+            tracer.recallFinished(lastIterations, lastConverged);
+        }
+        return result;
+    }
+
+    private int[] recallSynchronous(int[] state, int[] fields) {
+        int[] next = new int[size];
+        double bestEnergy = Double.POSITIVE_INFINITY;
+        int sinceImprovement = 0;
         int iteration = 0;
-        do {
-            System.out.println("Iteration " + (iteration + 1) + ": " + Arrays.toString(recalledPattern));
+        boolean stable = false;
+        while (!stable && iteration < maxIterations) {
+            if (tracingSteps) {
+                tracer.iterationStarted(iteration, state);
+            }
+            weights.computeFields(state, fields, updateSchedule == UpdateSchedule.PARALLEL_SYNCHRONOUS ? pool : null);
+
             stable = true;
             for (int i = 0; i < size; i++) {
-                int sum = 0;
-                for (int j = 0; j < size; j++) {
-                    sum += weightMatrix[i][j] * recalledPattern[j];
+                int updatedValue = fields[i] >= 0 ? 1 : -1;
+                if (tracingSteps) {
+                    tracer.neuronUpdated(i, fields[i], updatedValue);
                 }
-                int updatedValue = sum >= 0 ? 1 : -1;
-                System.out.printf("y%d = f(%d) = %d%n", i + 1, sum, updatedValue);
-                if (updatedValue != recalledPattern[i]) {
-                    newPattern[i] = updatedValue;
+                next[i] = updatedValue;
+                if (updatedValue != state[i]) {
                     stable = false;
                 }
             }
-            recalledPattern = Arrays.copyOf(newPattern, newPattern.length);
-            System.out.println();
+            int[] swap = state;
+            state = next;
+            next = swap;
+            if (tracingSteps) {
+                tracer.iterationFinished(iteration);
+            }
             iteration++;
-        } while (!stable);
-        return recalledPattern;
+
+            if (energyPlateau > 0 && !stable) {
+                double energy = energy(next, fields);
+                if (energy < bestEnergy) {
+                    bestEnergy = energy;
+                    sinceImprovement = 0;
+                } else if (++sinceImprovement >= energyPlateau) {
+                    break;
+                }
+            }
+        }
+        lastIterations = iteration;
+        lastConverged = stable;
+        if (!stable) {
+            weights.computeFields(state, fields, null);
+        }
+        lastEnergy = energy(state, fields);
+        return state;
+    }
+
+    /**
+     * Synchronous recall of many probes at once. Every sweep multiplies the weight matrix
+     * by all still active probes tile by tile, so each tile of weights is read once per sweep
+     * instead of once per probe, and row blocks run in parallel on the pool. A probe whose
+     * state stops changing drops out of later sweeps; probes still changing after
+     * {@code maxIterations} sweeps are returned as not converged.
+     */
+    public RecallResult[] recallBatch(int[][] probes) {
+        for (int[] probe : probes) {
+            checkPattern(probe);
+        }
+        ensureWeights();
+        long start = timing ? System.nanoTime() : 0;
+
+        int count = probes.length;
+        int[][] states = new int[count][];
+        int[][] fields = new int[count][size];
+        int[] active = new int[count];
+        for (int p = 0; p < count; p++) {
+            states[p] = Arrays.copyOf(probes[p], size);
+            active[p] = p;
+        }
+
+        RecallResult[] results = new RecallResult[count];
+        int activeCount = count;
+        int iteration = 0;
+        while (activeCount > 0 && iteration < maxIterations) {
+            weights.computeFields(states, fields, active, activeCount, pool);
+            iteration++;
+
+            int remaining = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int p = active[a];
+                int[] state = states[p];
+                int[] probeFields = fields[p];
+                boolean stable = true;
+                for (int i = 0; i < size; i++) {
+                    int updatedValue = probeFields[i] >= 0 ? 1 : -1;
+                    if (updatedValue != state[i]) {
+                        state[i] = updatedValue;
+                        stable = false;
+                    }
+                }
+                if (stable) {
+                    results[p] = new RecallResult(state, iteration, energy(state, probeFields), true);
+                } else {
+                    active[remaining++] = p;
+                }
+            }
+            activeCount = remaining;
+        }
+
+        if (activeCount > 0) {
+            weights.computeFields(states, fields, active, activeCount, pool);
+            for (int a = 0; a < activeCount; a++) {
+                int p = active[a];
+                results[p] = new RecallResult(states[p], iteration, energy(states[p], fields[p]), false);
+            }
+        }
+        if (timing) {
+            tracer.callFinished(Operation.HOPFIELD_RECALL, count, System.nanoTime() - start);
+            for (RecallResult result : results) {
+                tracer.recallFinished(result.getIterations(), result.isConverged());
+            }
+        }
+        return results;
+    }
+
+    // Proudové vybavování po blocích přes recallBatch; hodnoty řádků musí být 1 nebo -1
+    public long recall(RowSource source, int batchSize, RowSink sink) throws IOException {
+        if (source.getColumns() != size || sink.getColumns() != size) {
+            throw new IllegalArgumentException("Dataset and output must have " + size + " columns");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        int[][] probes = new int[batchSize][size];
+        double[] recalled = new double[batchSize * size];
+        long[] firstRow = {0};
+        return source.forEachBatch(batchSize, (batch, rows) -> {
+            int[][] block = rows == batchSize ? probes : Arrays.copyOf(probes, rows);
+            for (int p = 0; p < rows; p++) {
+                for (int i = 0; i < size; i++) {
+                    double value = batch[p * size + i];
+                    // Stejná kontrola jako u HTTP endpointu, (int) by z 0.7 udělal 0
+                    if (value != 1 && value != -1) {
+                        throw new IllegalArgumentException("Row " + (firstRow[0] + p) + ": pattern values must be 1 or -1, got " + value);
+                    }
+                    block[p][i] = (int) value;
+                }
+            }
+            firstRow[0] += rows;
+            RecallResult[] results = recallBatch(block);
+            for (int p = 0; p < rows; p++) {
+                int[] pattern = results[p].getPattern();
+                for (int i = 0; i < size; i++) {
+                    recalled[p * size + i] = pattern[i];
+                }
+            }
+            sink.write(recalled, rows);
+        });
+    }
+
+    /*
+    Lokální pole se spočítá jednou a při překlopení neuronu k se jen aktualizuje:
+    h_i += (s_k' - s_k) * w_ik, tedy O(n) místo O(n^2).
+     */
+    private int[] recallAsynchronous(int[] state, int[] fields) {
+        weights.computeFields(state, fields, null);
+        Random random = new Random(seed);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        double energy = energy(state, fields);
+        double bestEnergy = energy;
+        int sinceImprovement = 0;
+        int iteration = 0;
+        boolean stable = false;
+        while (!stable && iteration < maxIterations) {
+            if (tracingSteps) {
+                tracer.iterationStarted(iteration, state);
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            stable = true;
+            for (int k : order) {
+                int updatedValue = fields[k] >= 0 ? 1 : -1;
+                if (tracingSteps) {
+                    tracer.neuronUpdated(k, fields[k], updatedValue);
+                }
+                if (updatedValue == state[k]) {
+                    continue;
+                }
+                int delta = updatedValue - state[k];
+                state[k] = updatedValue;
+                stable = false;
+                weights.addColumn(k, delta, fields);
+            }
+            if (tracingSteps) {
+                tracer.iterationFinished(iteration);
+            }
+            iteration++;
+
+            if (energyPlateau > 0 && !stable) {
+                energy = energy(state, fields);
+                if (energy < bestEnergy) {
+                    bestEnergy = energy;
+                    sinceImprovement = 0;
+                } else if (++sinceImprovement >= energyPlateau) {
+                    break;
+                }
+            }
+        }
+        lastIterations = iteration;
+        lastConverged = stable;
+        lastEnergy = energy(state, fields);
+        return state;
+    }
+
+    private double energy(int[] state, int[] fields) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += (long) state[i] * fields[i];
+        }
+        return -0.5 * sum;
     }
 
     public void printMatrix() {
-        for (int[] row : weightMatrix) {
-            for (int val : row) {
-                System.out.printf("%4d", val);
+        ensureWeights();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                System.out.printf("%4d", weights.get(i, j));
             }
             System.out.println();
         }
@@ -92,11 +607,12 @@ public class HopfieldNetwork {
     }
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        TokenReader reader = new TokenReader(System.in);
         System.out.println("Input vector size: ");
-        int size = scanner.nextInt();
+        int size = reader.nextInt();
 
         HopfieldNetwork network = new HopfieldNetwork(size);
+        network.setTracer(new TextbookTracer());
 
         while (true) {
             System.out.println("\nMenu:");
@@ -107,14 +623,14 @@ public class HopfieldNetwork {
             System.out.println("5) Exit");
             System.out.print("Input choice: ");
 
-            int choice = scanner.nextInt();
+            int choice = reader.nextInt();
             switch (choice) {
                 case 1:
                     for (int i = 0; i < 2; i++) {
                         System.out.println("Input " + (i == 0 ? "first" : "second") + " pattern separated by spaces:");
                         int[] pattern = new int[size];
                         for (int j = 0; j < size; j++) {
-                            pattern[j] = scanner.nextInt();
+                            pattern[j] = reader.nextInt();
                         }
                         network.addPattern(pattern);
                     }
@@ -124,7 +640,7 @@ public class HopfieldNetwork {
                     int[][] weights = new int[size][size];
                     for (int i = 0; i < size; i++) {
                         for (int j = 0; j < size; j++) {
-                            weights[i][j] = scanner.nextInt();
+                            weights[i][j] = reader.nextInt();
                         }
                     }
                     network.setWeightsDirectly(weights);
@@ -136,14 +652,14 @@ public class HopfieldNetwork {
                     System.out.println("Input pattern to recall separated by spaces:");
                     int[] testPattern = new int[size];
                     for (int i = 0; i < size; i++) {
-                        testPattern[i] = scanner.nextInt();
+                        testPattern[i] = reader.nextInt();
                     }
                     int[] recalledPattern = network.recall(testPattern);
                     System.out.println("Recalled pattern: " + Arrays.toString(recalledPattern));
                     break;
                 case 5:
                     System.out.println("Exiting...");
-                    scanner.close();
+                    reader.close();
                     return;
                 default:
                     System.out.println("Invalid choice!");
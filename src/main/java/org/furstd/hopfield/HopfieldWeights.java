@@ -0,0 +1,23 @@
+package org.furstd.hopfield;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Backing of the weight matrix of a {@link HopfieldNetwork}. Implementations only have
+ * to provide local fields {@code h = W s} and the column update used by asynchronous recall.
+ */
+interface HopfieldWeights {
+    int get(int i, int j);
+
+    // pool může být null, pak se počítá v aktuálním vlákně
+    void computeFields(int[] state, int[] fields, ForkJoinPool pool);
+
+    default void computeFields(int[][] states, int[][] fields, int[] active, int activeCount, ForkJoinPool pool) {
+        for (int a = 0; a < activeCount; a++) {
+            computeFields(states[active[a]], fields[active[a]], pool);
+        }
+    }
+
+    // fields[i] += delta * w_ik pro všechna i
+    void addColumn(int column, int delta, int[] fields);
+}
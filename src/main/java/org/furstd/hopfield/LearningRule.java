@@ -0,0 +1,10 @@
+package org.furstd.hopfield;
+
+public enum LearningRule {
+    // Součet vnějších součinů vzorů, přidání i odebrání vzoru je aktualizace řádu 1
+    HEBBIAN,
+    // Storkeyho pravidlo, vyšší kapacita než Hebbovo
+    STORKEY,
+    // Projekce na podprostor vzorů, W = X^T (X X^T)^-1 X pro vzory v řádcích X
+    PSEUDO_INVERSE
+}
@@ -0,0 +1,106 @@
+package org.furstd.hopfield;
+
+import org.furstd.kernel.Kernels;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+/**
+ * Hebbian weights {@code w_ij = sum_p x_pi * x_pj} (i != j) kept only as the P x N pattern
+ * matrix. Fields are {@code h = X^T (X s) - D s} with {@code D_ii = sum_p x_pi^2} (just P for
+ * bipolar patterns), which costs O(P * N) instead of O(N^2).
+ */
+final class LowRankWeights implements HopfieldWeights {
+    private static final int BLOCK = 64;
+
+    private final List<int[]> patterns;
+    private final int size;
+    private final int[] diagonal;
+
+    LowRankWeights(List<int[]> patterns, int size) {
+        this.patterns = patterns;
+        this.size = size;
+        this.diagonal = new int[size];
+        for (int[] pattern : patterns) {
+            updateDiagonal(pattern, 1);
+        }
+    }
+
+    // Volá síť při každém přidání (sign = 1) a odebrání (sign = -1) vzoru
+    void updateDiagonal(int[] pattern, int sign) {
+        for (int i = 0; i < size; i++) {
+            diagonal[i] += sign * pattern[i] * pattern[i];
+        }
+    }
+
+    @Override
+    public int get(int i, int j) {
+        if (i == j) {
+            return 0;
+        }
+        int sum = 0;
+        for (int[] pattern : patterns) {
+            sum += pattern[i] * pattern[j];
+        }
+        return sum;
+    }
+
+    @Override
+    public void computeFields(int[] state, int[] fields, ForkJoinPool pool) {
+        int[] overlaps = new int[patterns.size()];
+        if (pool == null) {
+            computeOverlaps(state, overlaps, 0, overlaps.length);
+            computeRows(state, fields, overlaps, 0, size);
+            return;
+        }
+        // Nejdřív překryvy po blocích vzorů, pak pole po blocích řádků
+        forBlocks(pool, overlaps.length, (from, to) -> computeOverlaps(state, overlaps, from, to));
+        forBlocks(pool, size, (from, to) -> computeRows(state, fields, overlaps, from, to));
+    }
+
+    private void computeOverlaps(int[] state, int[] overlaps, int from, int to) {
+        for (int p = from; p < to; p++) {
+            overlaps[p] = Kernels.dot(patterns.get(p), 0, state, 0, size);
+        }
+    }
+
+    private void computeRows(int[] state, int[] fields, int[] overlaps, int from, int to) {
+        int count = overlaps.length;
+        for (int i = from; i < to; i++) {
+            fields[i] = -diagonal[i] * state[i];
+        }
+        for (int p = 0; p < count; p++) {
+            int[] pattern = patterns.get(p);
+            int overlap = overlaps[p];
+            for (int i = from; i < to; i++) {
+                fields[i] += pattern[i] * overlap;
+            }
+        }
+    }
+
+    private static void forBlocks(ForkJoinPool pool, int length, BiConsumer<Integer, Integer> body) {
+        int blocks = Math.max(1, Math.min(pool.getParallelism() * 4, length / BLOCK));
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int from = (int) ((long) length * b / blocks);
+            int to = (int) ((long) length * (b + 1) / blocks);
+            tasks[b] = pool.submit(() -> body.accept(from, to));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    @Override
+    public void addColumn(int column, int delta, int[] fields) {
+        for (int[] pattern : patterns) {
+            int factor = delta * pattern[column];
+            for (int i = 0; i < size; i++) {
+                fields[i] += factor * pattern[i];
+            }
+        }
+        fields[column] -= delta * diagonal[column];
+    }
+}
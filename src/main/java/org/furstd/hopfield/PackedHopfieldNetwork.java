@@ -0,0 +1,165 @@
+package org.furstd.hopfield;
+
+/**
+ * Hopfield network with bipolar states packed into {@code long[]} bitsets (bit 1 = +1,
+ * bit 0 = -1). The integer weights are stored bit-sliced: one sign bitset and one bitset
+ * per magnitude bit for every row. The product of a weight and a state is positive exactly
+ * where {@code sign XOR state} is set, so the local field of neuron i is
+ * <pre>
+ * h_i = sum_b 2^b * (2 * popcount(magnitude_b & (sign ^ state)) - popcount(magnitude_b))
+ * </pre>
+ * and one recall sweep costs {@code size * bits * size / 64} popcounts without any output.
+ */
+public class PackedHopfieldNetwork {
+    private final int size;
+    private final int words;
+    private final int bits;
+    private final long[] sign;
+    private final long[] magnitude;
+    private final int[] magnitudeCounts;
+    private int maxIterations = HopfieldNetwork.DEFAULT_MAX_ITERATIONS;
+
+    private PackedHopfieldNetwork(int size, int bits) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.bits = bits;
+        this.sign = new long[size * words];
+        this.magnitude = new long[size * bits * words];
+        this.magnitudeCounts = new int[size * bits];
+    }
+
+    // Přesná bitová reprezentace celočíselných vah
+    public static PackedHopfieldNetwork fromWeights(int[][] weights) {
+        int maxAbs = 0;
+        for (int[] row : weights) {
+            for (int value : row) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxAbs));
+        PackedHopfieldNetwork network = new PackedHopfieldNetwork(weights.length, bits);
+        network.load(weights, false);
+        return network;
+    }
+
+    // Ponechá jen znaménko vah, nenulové váhy mají velikost 1
+    public static PackedHopfieldNetwork signQuantised(int[][] weights) {
+        PackedHopfieldNetwork network = new PackedHopfieldNetwork(weights.length, 1);
+        network.load(weights, true);
+        return network;
+    }
+
+    public static long[] pack(int[] pattern) {
+        long[] packed = new long[(pattern.length + 63) >>> 6];
+        for (int i = 0; i < pattern.length; i++) {
+            if (pattern[i] > 0) {
+                packed[i >>> 6] |= 1L << i;
+            }
+        }
+        return packed;
+    }
+
+    public static int[] unpack(long[] packed, int size) {
+        int[] pattern = new int[size];
+        for (int i = 0; i < size; i++) {
+            pattern[i] = (packed[i >>> 6] >>> i & 1L) != 0 ? 1 : -1;
+        }
+        return pattern;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getBits() {
+        return bits;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Max iterations must be positive");
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    public long localField(int neuron, long[] state) {
+        int signOffset = neuron * words;
+        long field = 0;
+        for (int b = 0; b < bits; b++) {
+            int row = neuron * bits + b;
+            int offset = row * words;
+            long positive = 0;
+            for (int w = 0; w < words; w++) {
+                positive += Long.bitCount(magnitude[offset + w] & (sign[signOffset + w] ^ state[w]));
+            }
+            field += (2 * positive - magnitudeCounts[row]) << b;
+        }
+        return field;
+    }
+
+    public int[] recall(int[] pattern) {
+        if (pattern.length != size) {
+            throw new IllegalArgumentException("Pattern must have size " + size);
+        }
+        return unpack(recall(pack(pattern)), size);
+    }
+
+    // Synchronní aktualizace jako HopfieldNetwork.recall, dokud se stav nezmění nebo nedojdou iterace
+    public long[] recall(long[] pattern) {
+        if (pattern.length != words) {
+            throw new IllegalArgumentException("Packed pattern must have " + words + " words");
+        }
+        long[] current = pattern.clone();
+        long[] next = new long[words];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            boolean stable = true;
+            for (int w = 0; w < words; w++) {
+                long word = 0;
+                int end = Math.min(64, size - (w << 6));
+                for (int bit = 0; bit < end; bit++) {
+                    if (localField((w << 6) + bit, current) >= 0) {
+                        word |= 1L << bit;
+                    }
+                }
+                next[w] = word;
+                long mask = end == 64 ? -1L : (1L << end) - 1;
+                if (((word ^ current[w]) & mask) != 0) {
+                    stable = false;
+                }
+            }
+            long[] swap = current;
+            current = next;
+            next = swap;
+            if (stable) {
+                break;
+            }
+        }
+        return current;
+    }
+
+    private void load(int[][] weights, boolean signOnly) {
+        for (int i = 0; i < size; i++) {
+            if (weights[i].length != size) {
+                throw new IllegalArgumentException("Weight matrix must have size " + size + "x" + size);
+            }
+            for (int j = 0; j < size; j++) {
+                int value = weights[i][j];
+                if (value == 0) {
+                    continue;
+                }
+                long bit = 1L << j;
+                int word = j >>> 6;
+                if (value < 0) {
+                    sign[i * words + word] |= bit;
+                }
+                int abs = signOnly ? 1 : Math.abs(value);
+                for (int b = 0; b < bits; b++) {
+                    if ((abs >>> b & 1) != 0) {
+                        magnitude[(i * bits + b) * words + word] |= bit;
+                        magnitudeCounts[i * bits + b]++;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.furstd.hopfield;
+
+public class RecallResult {
+    private final int[] pattern;
+    private final int iterations;
+    private final double energy;
+    private final boolean converged;
+
+    public RecallResult(int[] pattern, int iterations, double energy, boolean converged) {
+        this.pattern = pattern;
+        this.iterations = iterations;
+        this.energy = energy;
+        this.converged = converged;
+    }
+
+    public int[] getPattern() {
+        return pattern;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,133 @@
+package org.furstd.hopfield;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compressed sparse row weights for diluted networks. A transposed copy is kept as well,
+ * so asynchronous recall can walk one column in O(non-zeros of the column).
+ */
+final class SparseWeights implements HopfieldWeights {
+    private static final int BLOCK_ROWS = 256;
+
+    private final int size;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final int[] values;
+    private final int[] columnPointers;
+    private final int[] rowIndices;
+    private final int[] columnValues;
+
+    SparseWeights(int size, int[] rowPointers, int[] columnIndices, int[] values) {
+        if (rowPointers.length != size + 1 || rowPointers[0] != 0 || rowPointers[size] != columnIndices.length
+                || columnIndices.length != values.length) {
+            throw new IllegalArgumentException("Invalid CSR weights for size " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            if (rowPointers[i] > rowPointers[i + 1]) {
+                throw new IllegalArgumentException("Row pointers must not decrease");
+            }
+        }
+        for (int column : columnIndices) {
+            if (column < 0 || column >= size) {
+                throw new IllegalArgumentException("Column index " + column + " out of range");
+            }
+        }
+        this.size = size;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+
+        // Transpozice do CSC
+        columnPointers = new int[size + 1];
+        for (int column : columnIndices) {
+            columnPointers[column + 1]++;
+        }
+        for (int j = 0; j < size; j++) {
+            columnPointers[j + 1] += columnPointers[j];
+        }
+        rowIndices = new int[values.length];
+        columnValues = new int[values.length];
+        int[] next = Arrays.copyOf(columnPointers, size);
+        for (int i = 0; i < size; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int position = next[columnIndices[k]]++;
+                rowIndices[position] = i;
+                columnValues[position] = values[k];
+            }
+        }
+    }
+
+    static SparseWeights of(int[][] matrix) {
+        int size = matrix.length;
+        int[] rowPointers = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int count = 0;
+            for (int value : matrix[i]) {
+                if (value != 0) {
+                    count++;
+                }
+            }
+            rowPointers[i + 1] = rowPointers[i] + count;
+        }
+        int[] columnIndices = new int[rowPointers[size]];
+        int[] values = new int[rowPointers[size]];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (matrix[i][j] != 0) {
+                    columnIndices[k] = j;
+                    values[k++] = matrix[i][j];
+                }
+            }
+        }
+        return new SparseWeights(size, rowPointers, columnIndices, values);
+    }
+
+    @Override
+    public int get(int i, int j) {
+        int sum = 0;
+        for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+            if (columnIndices[k] == j) {
+                sum += values[k];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void computeFields(int[] state, int[] fields, ForkJoinPool pool) {
+        if (pool == null) {
+            computeRows(state, fields, 0, size);
+            return;
+        }
+        int blocks = Math.max(1, Math.min(pool.getParallelism() * 4, size / BLOCK_ROWS));
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int from = (int) ((long) size * b / blocks);
+            int to = (int) ((long) size * (b + 1) / blocks);
+            tasks[b] = pool.submit(() -> computeRows(state, fields, from, to));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    @Override
+    public void addColumn(int column, int delta, int[] fields) {
+        for (int k = columnPointers[column]; k < columnPointers[column + 1]; k++) {
+            fields[rowIndices[k]] += delta * columnValues[k];
+        }
+    }
+
+    private void computeRows(int[] state, int[] fields, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int sum = 0;
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                sum += values[k] * state[columnIndices[k]];
+            }
+            fields[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.furstd.hopfield;
+
+public enum UpdateSchedule {
+    // Všechny neurony najednou z předchozího stavu, může oscilovat
+    SYNCHRONOUS,
+    // Neurony jeden po druhém v náhodném pořadí, pro symetrické váhy s nulovou diagonálou vždy konverguje
+    ASYNCHRONOUS,
+    // Jako SYNCHRONOUS, násobení maticí je rozdělené do bloků řádků na ForkJoinPool
+    PARALLEL_SYNCHRONOUS
+}
@@ -0,0 +1,195 @@
+package org.furstd.hopfield;
+
+/**
+ * Real-valued weight rules for {@link HopfieldNetwork}. Patterns are rows of {@code x},
+ * results are dense row-major {@code size x size} matrices with a zero diagonal.
+ */
+final class WeightSolver {
+    private static final int BLOCK = 64;
+
+    private WeightSolver() {
+    }
+
+    static double[] storkey(int[][] x, int size) {
+        double[] w = new double[size * size];
+        double[] h = new double[size];
+        for (int[] pattern : x) {
+            // h_i = sum_k w_ik * x_k, diagonála je nulová
+            for (int i = 0; i < size; i++) {
+                double sum = 0;
+                int row = i * size;
+                for (int k = 0; k < size; k++) {
+                    sum += w[row + k] * pattern[k];
+                }
+                h[i] = sum;
+            }
+            // h_ij = h_i - w_ij * x_j; přírůstek je symetrický, spočte se jednou z vah před vzorem a zapíše do obou polovin
+            for (int i = 0; i < size; i++) {
+                int row = i * size;
+                for (int j = i + 1; j < size; j++) {
+                    double hij = h[i] - w[row + j] * pattern[j];
+                    double hji = h[j] - w[j * size + i] * pattern[i];
+                    double delta = (pattern[i] * pattern[j] - pattern[i] * hji - hij * pattern[j]) / size;
+                    w[row + j] += delta;
+                    w[j * size + i] += delta;
+                }
+            }
+        }
+        return w;
+    }
+
+    static double[] pseudoInverse(int[][] x, int size) {
+        int p = x.length;
+        double[] gram = new double[p * p];
+        // C = X X^T po blocích vzorů
+        for (int aStart = 0; aStart < p; aStart += BLOCK) {
+            int aEnd = Math.min(p, aStart + BLOCK);
+            for (int bStart = 0; bStart <= aStart; bStart += BLOCK) {
+                int bEnd = Math.min(p, bStart + BLOCK);
+                for (int a = aStart; a < aEnd; a++) {
+                    for (int b = bStart; b < Math.min(bEnd, a + 1); b++) {
+                        long dot = 0;
+                        int[] xa = x[a];
+                        int[] xb = x[b];
+                        for (int i = 0; i < size; i++) {
+                            dot += xa[i] * xb[i];
+                        }
+                        gram[a * p + b] = dot;
+                        gram[b * p + a] = dot;
+                    }
+                }
+            }
+        }
+
+        if (!cholesky(gram.clone(), p, gram)) {
+            // Lineárně závislé vzory, regularizace
+            for (int i = 0; i < p; i++) {
+                gram[i * p + i] += 1e-9 * size;
+            }
+            if (!cholesky(gram.clone(), p, gram)) {
+                throw new IllegalStateException("Pattern Gram matrix is singular");
+            }
+        }
+
+        // Y = C^-1 X, sloupec po sloupci přes L L^T
+        double[] y = new double[p * size];
+        for (int a = 0; a < p; a++) {
+            for (int i = 0; i < size; i++) {
+                y[a * size + i] = x[a][i];
+            }
+        }
+        solveLower(gram, p, y, size);
+        solveUpper(gram, p, y, size);
+
+        // W = X^T Y po řádcích
+        double[] w = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            int row = i * size;
+            for (int a = 0; a < p; a++) {
+                double value = x[a][i];
+                int yRow = a * size;
+                for (int j = 0; j < size; j++) {
+                    w[row + j] += value * y[yRow + j];
+                }
+            }
+            w[row + i] = 0;
+        }
+        // X^T C^-1 X je symetrická jen přesně, zaokrouhlovací chyby se zprůměrují
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                double mean = (w[i * size + j] + w[j * size + i]) / 2;
+                w[i * size + j] = mean;
+                w[j * size + i] = mean;
+            }
+        }
+        return w;
+    }
+
+    // Bloková Choleského faktorizace, výsledné L je v dolním trojúhelníku l
+    private static boolean cholesky(double[] a, int n, double[] l) {
+        for (int kStart = 0; kStart < n; kStart += BLOCK) {
+            int kEnd = Math.min(n, kStart + BLOCK);
+            // Diagonální blok
+            for (int j = kStart; j < kEnd; j++) {
+                double diagonal = a[j * n + j];
+                for (int k = kStart; k < j; k++) {
+                    diagonal -= a[j * n + k] * a[j * n + k];
+                }
+                if (diagonal <= 0) {
+                    return false;
+                }
+                diagonal = Math.sqrt(diagonal);
+                a[j * n + j] = diagonal;
+                for (int i = j + 1; i < kEnd; i++) {
+                    double sum = a[i * n + j];
+                    for (int k = kStart; k < j; k++) {
+                        sum -= a[i * n + k] * a[j * n + k];
+                    }
+                    a[i * n + j] = sum / diagonal;
+                }
+            }
+            // Panel pod diagonálním blokem
+            for (int i = kEnd; i < n; i++) {
+                for (int j = kStart; j < kEnd; j++) {
+                    double sum = a[i * n + j];
+                    for (int k = kStart; k < j; k++) {
+                        sum -= a[i * n + k] * a[j * n + k];
+                    }
+                    a[i * n + j] = sum / a[j * n + j];
+                }
+            }
+            // Aktualizace zbytku matice
+            for (int i = kEnd; i < n; i++) {
+                for (int j = kEnd; j <= i; j++) {
+                    double sum = 0;
+                    for (int k = kStart; k < kEnd; k++) {
+                        sum += a[i * n + k] * a[j * n + k];
+                    }
+                    a[i * n + j] -= sum;
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                l[i * n + j] = j <= i ? a[i * n + j] : 0;
+            }
+        }
+        return true;
+    }
+
+    // L Z = B, B má n řádků o délce columns
+    private static void solveLower(double[] l, int n, double[] b, int columns) {
+        for (int i = 0; i < n; i++) {
+            int row = i * columns;
+            for (int k = 0; k < i; k++) {
+                double factor = l[i * n + k];
+                int kRow = k * columns;
+                for (int c = 0; c < columns; c++) {
+                    b[row + c] -= factor * b[kRow + c];
+                }
+            }
+            double diagonal = l[i * n + i];
+            for (int c = 0; c < columns; c++) {
+                b[row + c] /= diagonal;
+            }
+        }
+    }
+
+    // L^T Y = Z
+    private static void solveUpper(double[] l, int n, double[] b, int columns) {
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * columns;
+            for (int k = i + 1; k < n; k++) {
+                double factor = l[k * n + i];
+                int kRow = k * columns;
+                for (int c = 0; c < columns; c++) {
+                    b[row + c] -= factor * b[kRow + c];
+                }
+            }
+            double diagonal = l[i * n + i];
+            for (int c = 0; c < columns; c++) {
+                b[row + c] /= diagonal;
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.furstd.hopfield;
+
+public enum WeightStorage {
+    // Plná matice size x size
+    DENSE,
+    // Jen matice vzorů P x size, pole se počítá jako X^T (X s) - P s, pouze Hebbovo pravidlo
+    LOW_RANK,
+    // CSR matice s nenulovými vahami zadanými přes setWeightsDirectly
+    SPARSE
+}
@@ -0,0 +1,83 @@
+package org.furstd.kernel;
+
+/**
+ * Shared inner loops of all networks. When the JVM runs with
+ * {@code --add-modules jdk.incubator.vector} the loops use the Vector API, otherwise
+ * (or with {@code -Dfurstd.kernel=scalar}) they fall back to plain loops that add in
+ * the same order as the original code. Vectorised reductions may differ from the scalar
+ * ones in the last bits; {@link #axpy} and the integer {@link #dot} are exact.
+ */
+public final class Kernels {
+    private static final VectorKernel KERNEL = select();
+
+    private Kernels() {
+    }
+
+    private static VectorKernel select() {
+        if ("scalar".equals(System.getProperty("furstd.kernel"))) {
+            return new ScalarKernel();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarKernel();
+        }
+        // Přes reflexi, aby se třídy Vector API nenačítaly bez modulu
+        try {
+            return (VectorKernel) Class.forName("org.furstd.kernel.SimdKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarKernel();
+        }
+    }
+
+    public static boolean isVectorized() {
+        return !(KERNEL instanceof ScalarKernel);
+    }
+
+    // sum + a . b
+    public static double dotAdd(double sum, double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return KERNEL.dotAdd(sum, a, aOffset, b, bOffset, length);
+    }
+
+    public static double dot(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return KERNEL.dotAdd(0, a, aOffset, b, bOffset, length);
+    }
+
+    public static int dot(int[] a, int aOffset, int[] b, int bOffset, int length) {
+        return KERNEL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    // Int8 součin se sčítá v int, přesný i ve SIMD
+    public static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        return KERNEL.dot(a, aOffset, b, bOffset, length);
+    }
+
+    public static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        return KERNEL.squaredDistance(a, aOffset, b, bOffset, length);
+    }
+
+    // y += alpha * x
+    public static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        KERNEL.axpy(alpha, x, xOffset, y, yOffset, length);
+    }
+
+    // Varianty pro Precision.FLOAT32: ukládá i sčítá ve float
+    public static float dotAdd(float sum, float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.dotAdd(sum, a, aOffset, b, bOffset, length);
+    }
+
+    public static float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNEL.squaredDistance(a, aOffset, b, bOffset, length);
+    }
+
+    public static void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        KERNEL.axpy(alpha, x, xOffset, y, yOffset, length);
+    }
+
+    // Varianty pro Precision.MIXED: float váhy, double vstupy i součet
+    public static double dotAdd(double sum, float[] a, int aOffset, double[] b, int bOffset, int length) {
+        return KERNEL.dotAdd(sum, a, aOffset, b, bOffset, length);
+    }
+
+    public static double squaredDistance(float[] a, int aOffset, double[] b, int bOffset, int length) {
+        return KERNEL.squaredDistance(a, aOffset, b, bOffset, length);
+    }
+}
@@ -0,0 +1,10 @@
+package org.furstd.kernel;
+
+public enum Precision {
+    // Ukládá i počítá v double
+    DOUBLE,
+    // Ukládá i počítá ve float, poloviční paměť a dvojnásobná šířka SIMD
+    FLOAT32,
+    // Ukládá ve float, sčítá a trénuje v double
+    MIXED
+}
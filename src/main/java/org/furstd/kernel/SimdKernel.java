@@ -0,0 +1,206 @@
+package org.furstd.kernel;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/*
+Redukce (dot, squaredDistance) sčítají po pruzích, takže se od skalární verze liší
+v posledních bitech. axpy a celočíselný dot jsou přesné, protože nic nepřeuspořádávají.
+ */
+final class SimdKernel implements VectorKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    // Tolik bajtů, kolik je pruhů int, ale aspoň 64 bitů: 32bitový tvar neexistuje, na 128bitových strojích se rozšiřuje po polovinách
+    private static final VectorSpecies<Byte> BYTES = byteSpecies();
+    private static final int BYTE_PARTS = BYTES != null ? BYTES.length() / INTS.length() : 0;
+    // Tolik floatů, kolik je pruhů double, aby se daly rozšířit do jednoho DoubleVector
+    private static final VectorSpecies<Float> HALF_FLOATS = VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    @Override
+    public double dotAdd(double sum, double[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector va = DoubleVector.fromArray(DOUBLES, a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, bOffset + i);
+            acc = va.mul(vb).add(acc);
+        }
+        sum += acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int dot(int[] a, int aOffset, int[] b, int bOffset, int length) {
+        IntVector acc = IntVector.zero(INTS);
+        int upper = INTS.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += INTS.length()) {
+            IntVector va = IntVector.fromArray(INTS, a, aOffset + i);
+            IntVector vb = IntVector.fromArray(INTS, b, bOffset + i);
+            acc = va.mul(vb).add(acc);
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        IntVector acc = IntVector.zero(INTS);
+        // Bez bajtového tvaru počítá jen skalární smyčka
+        int upper = BYTE_PARTS > 0 ? BYTES.loopBound(length) : 0;
+        int i = 0;
+        for (; i < upper; i += BYTES.length()) {
+            ByteVector va = ByteVector.fromArray(BYTES, a, aOffset + i);
+            ByteVector vb = ByteVector.fromArray(BYTES, b, bOffset + i);
+            for (int part = 0; part < BYTE_PARTS; part++) {
+                IntVector wa = (IntVector) va.convertShape(VectorOperators.B2I, INTS, part);
+                IntVector wb = (IntVector) vb.convertShape(VectorOperators.B2I, INTS, part);
+                acc = wa.mul(wb).add(acc);
+            }
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(DOUBLES, a, aOffset + i).sub(DoubleVector.fromArray(DOUBLES, b, bOffset + i));
+            acc = diff.mul(diff).add(acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double diff = a[aOffset + i] - b[bOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector vx = DoubleVector.fromArray(DOUBLES, x, xOffset + i);
+            DoubleVector vy = DoubleVector.fromArray(DOUBLES, y, yOffset + i);
+            vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public float dotAdd(float sum, float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int upper = FLOATS.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector va = FloatVector.fromArray(FLOATS, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(FLOATS, b, bOffset + i);
+            acc = va.mul(vb).add(acc);
+        }
+        sum += acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dotAdd(double sum, float[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector va = widen(a, aOffset + i);
+            DoubleVector vb = DoubleVector.fromArray(DOUBLES, b, bOffset + i);
+            acc = va.mul(vb).add(acc);
+        }
+        sum += acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(FLOATS);
+        int upper = FLOATS.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector diff = FloatVector.fromArray(FLOATS, a, aOffset + i).sub(FloatVector.fromArray(FLOATS, b, bOffset + i));
+            acc = diff.mul(diff).add(acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float diff = a[aOffset + i] - b[bOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(float[] a, int aOffset, double[] b, int bOffset, int length) {
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        int upper = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += DOUBLES.length()) {
+            DoubleVector diff = widen(a, aOffset + i).sub(DoubleVector.fromArray(DOUBLES, b, bOffset + i));
+            acc = diff.mul(diff).add(acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double diff = a[aOffset + i] - b[bOffset + i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length) {
+        int upper = FLOATS.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += FLOATS.length()) {
+            FloatVector vx = FloatVector.fromArray(FLOATS, x, xOffset + i);
+            FloatVector vy = FloatVector.fromArray(FLOATS, y, yOffset + i);
+            vx.mul(alpha).add(vy).intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    // Nepodporovaný tvar vypne jen SIMD bajtový součin, ne celé jádro
+    private static VectorSpecies<Byte> byteSpecies() {
+        try {
+            return VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, INTS.vectorBitSize() / 4)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static DoubleVector widen(float[] a, int offset) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOATS, a, offset).convertShape(VectorOperators.F2D, DOUBLES, 0);
+    }
+}
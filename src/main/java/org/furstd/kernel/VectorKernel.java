@@ -0,0 +1,23 @@
+package org.furstd.kernel;
+
+interface VectorKernel {
+    double dotAdd(double sum, double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    int dot(int[] a, int aOffset, int[] b, int bOffset, int length);
+
+    int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+
+    double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int length);
+
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    float dotAdd(float sum, float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    double dotAdd(double sum, float[] a, int aOffset, double[] b, int bOffset, int length);
+
+    float squaredDistance(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    double squaredDistance(float[] a, int aOffset, double[] b, int bOffset, int length);
+
+    void axpy(float alpha, float[] x, int xOffset, float[] y, int yOffset, int length);
+}
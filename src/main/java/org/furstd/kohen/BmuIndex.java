@@ -0,0 +1,227 @@
+package org.furstd.kohen;
+
+/**
+ * K-d tree over the codebook of a {@link KohonenMap} for best-matching-unit search.
+ * Every node keeps the bounding box of its neurons, which is only ever grown when a
+ * neuron moves, so the tree stays correct between rebuilds; it is rebuilt once the
+ * number of moves since the last build reaches the number of neurons.
+ * With {@code epsilon > 0} the search is approximate: the returned neuron is at most
+ * {@code (1 + epsilon)} times farther than the true BMU.
+ */
+public final class BmuIndex {
+    private static final int LEAF_SIZE = 8;
+
+    private final double[][] codebook;
+    private final int dim;
+    private final double pruneFactor;
+    private final int[] order;
+    private final int[] leafOf;
+
+    private int nodeCount;
+    private int[] start;
+    private int[] end;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private double[] min;
+    private double[] max;
+    private int updatesSinceBuild;
+
+    public BmuIndex(double[][] codebook, double epsilon) {
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("Epsilon must be non-negative");
+        }
+        if (codebook.length == 0) {
+            throw new IllegalArgumentException("Codebook must not be empty");
+        }
+        this.codebook = codebook;
+        this.dim = codebook[0].length;
+        this.pruneFactor = (1 + epsilon) * (1 + epsilon);
+        this.order = new int[codebook.length];
+        this.leafOf = new int[codebook.length];
+        rebuild();
+    }
+
+    public void rebuild() {
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int capacity = 2 * (order.length / (LEAF_SIZE / 2) + 1);
+        start = new int[capacity];
+        end = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        min = new double[capacity * dim];
+        max = new double[capacity * dim];
+        nodeCount = 0;
+        build(0, order.length, -1);
+        updatesSinceBuild = 0;
+    }
+
+    // Neuron se posunul, rozšíří se boxy na cestě od listu ke kořeni
+    public void update(int neuron) {
+        if (++updatesSinceBuild >= order.length) {
+            rebuild();
+            return;
+        }
+        double[] point = codebook[neuron];
+        for (int node = leafOf[neuron]; node >= 0; node = parent[node]) {
+            int offset = node * dim;
+            boolean grown = false;
+            for (int d = 0; d < dim; d++) {
+                if (point[d] < min[offset + d]) {
+                    min[offset + d] = point[d];
+                    grown = true;
+                }
+                if (point[d] > max[offset + d]) {
+                    max[offset + d] = point[d];
+                    grown = true;
+                }
+            }
+            if (!grown) {
+                break;
+            }
+        }
+    }
+
+    // Hledání strom nemění, takže může běžet z více vláken, dokud se váhy nemění
+    public int nearest(double[] query) {
+        Search search = new Search();
+        search(0, query, search);
+        return search.bestIndex;
+    }
+
+    private void search(int node, double[] query, Search search) {
+        if (left[node] < 0) {
+            for (int i = start[node]; i < end[node]; i++) {
+                int neuron = order[i];
+                double dist = squaredDistance(codebook[neuron], query, search.bestDistance);
+                if (dist < search.bestDistance || (dist == search.bestDistance && neuron < search.bestIndex)) {
+                    search.bestDistance = dist;
+                    search.bestIndex = neuron;
+                }
+            }
+            return;
+        }
+
+        double leftDistance = boxDistance(left[node], query);
+        double rightDistance = boxDistance(right[node], query);
+        int first = leftDistance <= rightDistance ? left[node] : right[node];
+        int second = first == left[node] ? right[node] : left[node];
+        double secondDistance = Math.max(leftDistance, rightDistance);
+
+        if (Math.min(leftDistance, rightDistance) * pruneFactor <= search.bestDistance) {
+            search(first, query, search);
+        }
+        if (secondDistance * pruneFactor <= search.bestDistance) {
+            search(second, query, search);
+        }
+    }
+
+    private int build(int from, int to, int parentNode) {
+        int node = nodeCount++;
+        start[node] = from;
+        end[node] = to;
+        parent[node] = parentNode;
+        left[node] = -1;
+        right[node] = -1;
+
+        int offset = node * dim;
+        for (int d = 0; d < dim; d++) {
+            min[offset + d] = Double.POSITIVE_INFINITY;
+            max[offset + d] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = from; i < to; i++) {
+            double[] point = codebook[order[i]];
+            for (int d = 0; d < dim; d++) {
+                min[offset + d] = Math.min(min[offset + d], point[d]);
+                max[offset + d] = Math.max(max[offset + d], point[d]);
+            }
+        }
+
+        if (to - from <= LEAF_SIZE) {
+            for (int i = from; i < to; i++) {
+                leafOf[order[i]] = node;
+            }
+            return node;
+        }
+
+        int splitDim = 0;
+        for (int d = 1; d < dim; d++) {
+            if (max[offset + d] - min[offset + d] > max[offset + splitDim] - min[offset + splitDim]) {
+                splitDim = d;
+            }
+        }
+        int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, splitDim);
+
+        left[node] = build(from, middle, node);
+        right[node] = build(middle, to, node);
+        return node;
+    }
+
+    // Quickselect: na pozici k bude medián podle souřadnice splitDim
+    private void select(int lo, int hi, int k, int splitDim) {
+        while (lo < hi) {
+            double pivot = codebook[order[(lo + hi) >>> 1]][splitDim];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (codebook[order[i]][splitDim] < pivot) {
+                    i++;
+                }
+                while (codebook[order[j]][splitDim] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private double boxDistance(int node, double[] query) {
+        int offset = node * dim;
+        double dist = 0;
+        for (int d = 0; d < dim; d++) {
+            double diff = 0;
+            if (query[d] < min[offset + d]) {
+                diff = min[offset + d] - query[d];
+            } else if (query[d] > max[offset + d]) {
+                diff = query[d] - max[offset + d];
+            }
+            dist += diff * diff;
+        }
+        return dist;
+    }
+
+    private double squaredDistance(double[] point, double[] query, double limit) {
+        double dist = 0;
+        for (int d = 0; d < dim; d++) {
+            double diff = point[d] - query[d];
+            dist += diff * diff;
+            if (dist > limit) {
+                return dist;
+            }
+        }
+        return dist;
+    }
+
+    // Jako lineární hledání: při nekonečných (přetečených) nebo NaN vzdálenostech zůstane neuron 0
+    private static final class Search {
+        private int bestIndex = 0;
+        private double bestDistance = Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,39 @@
+package org.furstd.kohen;
+
+/**
+ * Value that moves from {@code start} in the first epoch to {@code end} in the last one.
+ */
+public final class Decay {
+    private final double start;
+    private final double end;
+    private final boolean exponential;
+
+    private Decay(double start, double end, boolean exponential) {
+        this.start = start;
+        this.end = end;
+        this.exponential = exponential;
+    }
+
+    public static Decay constant(double value) {
+        return new Decay(value, value, false);
+    }
+
+    public static Decay linear(double start, double end) {
+        return new Decay(start, end, false);
+    }
+
+    public static Decay exponential(double start, double end) {
+        if (start <= 0 || end <= 0) {
+            throw new IllegalArgumentException("Exponential decay needs positive start and end values");
+        }
+        return new Decay(start, end, true);
+    }
+
+    public double valueAt(int epoch, int epochs) {
+        double progress = epochs > 1 ? (double) epoch / (epochs - 1) : 0;
+        if (exponential) {
+            return start * Math.pow(end / start, progress);
+        }
+        return start + (end - start) * progress;
+    }
+}
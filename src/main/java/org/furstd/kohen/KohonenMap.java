@@ -1,60 +1,562 @@
 package org.furstd.kohen;
 
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.dataset.TokenReader;
+import org.furstd.kernel.Kernels;
+import org.furstd.kernel.Precision;
+import org.furstd.trace.Operation;
+import org.furstd.trace.TextbookTracer;
+import org.furstd.trace.Tracer;
+
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Scanner;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class KohonenMap {
+    private static final int DEFAULT_PARTITIONS = 16;
+
+    // Váhy jsou uložené po neuronech, aby byl vektor každého neuronu v paměti souvisle
     private final double[][] weights;
+    // Při FLOAT32 a MIXED je kódová kniha jen ve floatWeights a weights je null
+    private final float[][] floatWeights;
+    private final Precision precision;
     private final int numNeurons;
     private final int inputDim;
+    private final Lattice lattice;
+    private Tracer tracer = Tracer.NONE;
+    private boolean tracingSteps;
+    private boolean timing;
+    private BmuIndex bmuIndex;
 
     public KohonenMap(int numNeurons, int inputDim) {
-        this.numNeurons = numNeurons;
+        this(new Lattice(1, numNeurons, LatticeType.RECTANGULAR), inputDim);
+    }
+
+    public KohonenMap(Lattice lattice, int inputDim) {
+        this(lattice, inputDim, Precision.DOUBLE);
+    }
+
+    public KohonenMap(Lattice lattice, int inputDim, Precision precision) {
+        this.lattice = lattice;
+        this.numNeurons = lattice.size();
         this.inputDim = inputDim;
-        this.weights = new double[inputDim][numNeurons];
+        this.precision = precision;
+        this.weights = precision == Precision.DOUBLE ? new double[numNeurons][inputDim] : null;
+        this.floatWeights = precision == Precision.DOUBLE ? null : new float[numNeurons][inputDim];
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public Lattice getLattice() {
+        return lattice;
+    }
+
+    public int getNumNeurons() {
+        return numNeurons;
+    }
+
+    public int getInputDim() {
+        return inputDim;
+    }
+
+    public double[][] getWeights() {
+        if (weights == null) {
+            throw new IllegalStateException("Weights are stored as float, use getFloatWeights()");
+        }
+        return weights;
+    }
+
+    public float[][] getFloatWeights() {
+        if (floatWeights == null) {
+            throw new IllegalStateException("Weights are stored as double, use getWeights()");
+        }
+        return floatWeights;
+    }
+
+    public double getWeight(int neuron, int dimension) {
+        return weights != null ? weights[neuron][dimension] : floatWeights[neuron][dimension];
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+        this.tracingSteps = tracer.tracesSteps();
+        this.timing = tracer.measuresTime();
+    }
+
+    // epsilon = 0 hledá přesně, epsilon > 0 vrátí neuron nejvýše (1 + epsilon) krát dál než skutečný BMU
+    public void enableIndex(double epsilon) {
+        if (weights == null) {
+            throw new IllegalStateException("BMU index requires double weights");
+        }
+        bmuIndex = new BmuIndex(weights, epsilon);
+    }
+
+    public void disableIndex() {
+        bmuIndex = null;
+    }
+
+    // Volá se po přímé změně vah přes getWeights()
+    public void weightsChanged() {
+        if (bmuIndex != null) {
+            bmuIndex.rebuild();
+        }
     }
 
     public void train(double[] input, double alpha, int epochs) {
+        float[] floatInput = floatScratch();
         for (int epoch = 0; epoch < epochs; epoch++) {
-            System.out.println("\nEpoch " + (epoch + 1));
+            if (tracingSteps) {
+                tracer.epochStarted(epoch);
+            }
 
-            int bmuIndex = findBMU(input);
-            System.out.println("Chosen D" + (bmuIndex + 1));
+            int bmuIndex = findBMU(input, floatInput);
+            if (tracingSteps) {
+                tracer.bmuChosen(bmuIndex);
+            }
 
-            for (int j = 0; j < inputDim; j++) {
-                weights[j][bmuIndex] += alpha * (input[j] - weights[j][bmuIndex]);
+            moveTowards(bmuIndex, input, alpha);
+            if (this.bmuIndex != null) {
+                this.bmuIndex.update(bmuIndex);
             }
 
-            printWeights();
+            if (tracingSteps) {
+                tracer.codebookUpdated(copyWeights());
+            }
+        }
+    }
+
+    // Každý neuron začne na náhodně vybraném vzoru z dat
+    public void initializeFromSamples(double[][] data, Random random) {
+        for (int j = 0; j < numNeurons; j++) {
+            double[] sample = data[random.nextInt(data.length)];
+            for (int d = 0; d < inputDim; d++) {
+                setWeight(j, d, sample[d]);
+            }
+        }
+        weightsChanged();
+    }
+
+    /**
+     * Online SOM training over the whole dataset. In every epoch the samples are visited in
+     * a new random order and each one pulls its BMU and the lattice neighbours towards itself
+     * with weight {@code alpha * exp(-d^2 / (2 * radius^2))}, where d is the lattice distance.
+     * Neurons farther than {@code 3 * radius} are not touched.
+     */
+    public void trainOnline(double[][] data, int epochs, Decay learningRate, Decay radius, long seed) {
+        Random random = new Random(seed);
+        int[] order = new int[data.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int[] neighbours = new int[numNeurons];
+        double[] squaredDistances = new double[numNeurons];
+        float[] floatInput = floatScratch();
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = timing ? System.nanoTime() : 0;
+            double alpha = learningRate.valueAt(epoch, epochs);
+            double sigma = radius.valueAt(epoch, epochs);
+            double twoSigmaSquared = 2 * sigma * sigma;
+            shuffle(order, order.length, random);
+
+            for (int sample : order) {
+                onlineStep(data[sample], floatInput, alpha, twoSigmaSquared, 3 * sigma, neighbours, squaredDistances);
+            }
+
+            if (tracingSteps || timing) {
+                tracer.epochFinished(epoch, alpha, sigma, timing ? System.nanoTime() - start : 0);
+            }
+        }
+    }
+
+    /**
+     * Online training streamed from {@code source}, for datasets that do not fit in the heap.
+     * Every epoch re-reads the source; samples are shuffled only within each batch of
+     * {@code batchSize} rows, otherwise the update is the same as in {@link #trainOnline(double[][], int, Decay, Decay, long)}.
+     * Returns the number of rows read over all epochs.
+     */
+    public long trainOnline(RowSource source, int batchSize, int epochs, Decay learningRate, Decay radius, long seed) throws IOException {
+        checkSource(source, batchSize);
+        Random random = new Random(seed);
+        int[] order = new int[batchSize];
+        double[] input = new double[inputDim];
+        int[] neighbours = new int[numNeurons];
+        double[] squaredDistances = new double[numNeurons];
+        float[] floatInput = floatScratch();
+        long total = 0;
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = timing ? System.nanoTime() : 0;
+            double alpha = learningRate.valueAt(epoch, epochs);
+            double sigma = radius.valueAt(epoch, epochs);
+            double twoSigmaSquared = 2 * sigma * sigma;
+
+            source.reset();
+            total += source.forEachBatch(batchSize, (batch, rows) -> {
+                for (int i = 0; i < rows; i++) {
+                    order[i] = i;
+                }
+                shuffle(order, rows, random);
+                for (int i = 0; i < rows; i++) {
+                    System.arraycopy(batch, order[i] * inputDim, input, 0, inputDim);
+                    onlineStep(input, floatInput, alpha, twoSigmaSquared, 3 * sigma, neighbours, squaredDistances);
+                }
+            });
+
+            if (tracingSteps || timing) {
+                tracer.epochFinished(epoch, alpha, sigma, timing ? System.nanoTime() - start : 0);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Batch training streamed from {@code source}. Every epoch re-reads the source; each batch
+     * is split into partitions whose BMU sums accumulate in buffers owned by the partition
+     * and are merged in partition order at the end of the epoch, so only the codebook and the
+     * sums stay in memory and the result depends only on the batch size. Returns the number
+     * of rows read over all epochs.
+     */
+    public long trainBatch(RowSource source, int batchSize, int epochs, Decay radius) throws IOException {
+        return trainBatch(source, batchSize, epochs, radius, DEFAULT_PARTITIONS, ForkJoinPool.commonPool());
+    }
+
+    public long trainBatch(RowSource source, int batchSize, int epochs, Decay radius, int partitions, ForkJoinPool pool) throws IOException {
+        checkSource(source, batchSize);
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        double[][] sums = new double[partitions][numNeurons * inputDim];
+        long[][] counts = new long[partitions][numNeurons];
+        double[] updated = new double[numNeurons * inputDim];
+        long total = 0;
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = timing ? System.nanoTime() : 0;
+            for (int p = 0; p < partitions; p++) {
+                Arrays.fill(sums[p], 0);
+                Arrays.fill(counts[p], 0);
+            }
+            source.reset();
+            total += source.forEachBatch(batchSize, (batch, rows) -> {
+                int parts = Math.min(partitions, rows);
+                ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parts];
+                for (int p = 0; p < parts; p++) {
+                    int from = (int) ((long) rows * p / parts);
+                    int to = (int) ((long) rows * (p + 1) / parts);
+                    double[] sum = sums[p];
+                    long[] count = counts[p];
+                    tasks[p] = pool.submit(() -> {
+                        double[] input = new double[inputDim];
+                        float[] floatInput = floatScratch();
+                        for (int i = from; i < to; i++) {
+                            System.arraycopy(batch, i * inputDim, input, 0, inputDim);
+                            int bmu = bmuIndex != null ? bmuIndex.nearest(input) : scanBMU(input, floatInput, false);
+                            int offset = bmu * inputDim;
+                            for (int d = 0; d < inputDim; d++) {
+                                sum[offset + d] += input[d];
+                            }
+                            count[bmu]++;
+                        }
+                    });
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            });
+
+            double[] sum = sums[0];
+            long[] count = counts[0];
+            for (int p = 1; p < partitions; p++) {
+                for (int i = 0; i < sum.length; i++) {
+                    sum[i] += sums[p][i];
+                }
+                for (int j = 0; j < numNeurons; j++) {
+                    count[j] += counts[p][j];
+                }
+            }
+
+            double sigma = radius.valueAt(epoch, epochs);
+            smooth(sum, count, sigma, updated, pool);
+            weightsChanged();
+
+            if (tracingSteps || timing) {
+                tracer.epochFinished(epoch, Double.NaN, sigma, timing ? System.nanoTime() - start : 0);
+            }
+        }
+        return total;
+    }
+
+    // Zapíše index BMU (od 0) každého řádku jako jednosloupcový řádek, vrací počet řádků
+    public long findBMUs(RowSource source, int batchSize, RowSink sink) throws IOException {
+        checkSource(source, batchSize);
+        if (sink.getColumns() != 1) {
+            throw new IllegalArgumentException("BMU output must have 1 column, got " + sink.getColumns());
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        double[] bmus = new double[batchSize];
+        return source.forEachBatch(batchSize, (batch, rows) -> {
+            long start = timing ? System.nanoTime() : 0;
+            int parts = Math.min(DEFAULT_PARTITIONS, rows);
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parts];
+            for (int p = 0; p < parts; p++) {
+                int from = (int) ((long) rows * p / parts);
+                int to = (int) ((long) rows * (p + 1) / parts);
+                tasks[p] = pool.submit(() -> {
+                    double[] input = new double[inputDim];
+                    float[] floatInput = floatScratch();
+                    for (int i = from; i < to; i++) {
+                        System.arraycopy(batch, i * inputDim, input, 0, inputDim);
+                        bmus[i] = bmuIndex != null ? bmuIndex.nearest(input) : scanBMU(input, floatInput, false);
+                    }
+                });
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+            if (timing) {
+                tracer.callFinished(Operation.BMU_SEARCH, rows, System.nanoTime() - start);
+            }
+            sink.write(bmus, rows);
+        });
+    }
+
+    private void checkSource(RowSource source, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (source.getColumns() != inputDim) {
+            throw new IllegalArgumentException("Dataset has " + source.getColumns() + " columns, map expects " + inputDim);
+        }
+    }
+
+    public void trainBatch(double[][] data, int epochs, Decay radius) {
+        trainBatch(data, epochs, radius, DEFAULT_PARTITIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Batch SOM training. In every epoch the dataset is split into {@code partitions}
+     * contiguous parts; workers find the BMUs against the codebook of the previous epoch and
+     * sum the samples and their counts per BMU into buffers owned by their partition.
+     * The partition sums are merged in partition order and each neuron becomes the
+     * neighbourhood-weighted mean {@code sum_k h(j, k) * S_k / sum_k h(j, k) * n_k}.
+     * Nothing depends on which thread runs which partition, so for the same partition count
+     * the result is identical for any pool size.
+     */
+    public void trainBatch(double[][] data, int epochs, Decay radius, int partitions, ForkJoinPool pool) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        int parts = Math.min(partitions, Math.max(1, data.length));
+        double[][] sums = new double[parts][numNeurons * inputDim];
+        long[][] counts = new long[parts][numNeurons];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parts];
+        double[] updated = new double[numNeurons * inputDim];
+
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = timing ? System.nanoTime() : 0;
+            for (int p = 0; p < parts; p++) {
+                int from = (int) ((long) data.length * p / parts);
+                int to = (int) ((long) data.length * (p + 1) / parts);
+                double[] sum = sums[p];
+                long[] count = counts[p];
+                tasks[p] = pool.submit(() -> {
+                    Arrays.fill(sum, 0);
+                    Arrays.fill(count, 0);
+                    float[] floatInput = floatScratch();
+                    for (int i = from; i < to; i++) {
+                        double[] input = data[i];
+                        int bmu = bmuIndex != null ? bmuIndex.nearest(input) : scanBMU(input, floatInput, false);
+                        int offset = bmu * inputDim;
+                        for (int d = 0; d < inputDim; d++) {
+                            sum[offset + d] += input[d];
+                        }
+                        count[bmu]++;
+                    }
+                });
+            }
+
+            // Slučování vždy ve stejném pořadí oddílů
+            tasks[0].join();
+            double[] sum = sums[0];
+            long[] count = counts[0];
+            for (int p = 1; p < parts; p++) {
+                tasks[p].join();
+                for (int i = 0; i < sum.length; i++) {
+                    sum[i] += sums[p][i];
+                }
+                for (int j = 0; j < numNeurons; j++) {
+                    count[j] += counts[p][j];
+                }
+            }
+
+            double sigma = radius.valueAt(epoch, epochs);
+            smooth(sum, count, sigma, updated, pool);
+            weightsChanged();
+
+            if (tracingSteps || timing) {
+                tracer.epochFinished(epoch, Double.NaN, sigma, timing ? System.nanoTime() - start : 0);
+            }
+        }
+    }
+
+    private void smooth(double[] sum, long[] count, double sigma, double[] updated, ForkJoinPool pool) {
+        double twoSigmaSquared = 2 * sigma * sigma;
+        int blocks = Math.min(numNeurons, pool.getParallelism() * 4);
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+
+        for (int b = 0; b < blocks; b++) {
+            int from = (int) ((long) numNeurons * b / blocks);
+            int to = (int) ((long) numNeurons * (b + 1) / blocks);
+            tasks[b] = pool.submit(() -> {
+                int[] neighbours = new int[numNeurons];
+                double[] squaredDistances = new double[numNeurons];
+                for (int j = from; j < to; j++) {
+                    int target = j * inputDim;
+                    Arrays.fill(updated, target, target + inputDim, 0);
+                    double denominator = 0;
+                    int found = lattice.neighbours(j, 3 * sigma, neighbours, squaredDistances);
+                    for (int n = 0; n < found; n++) {
+                        int k = neighbours[n];
+                        if (count[k] == 0) {
+                            continue;
+                        }
+                        double h = twoSigmaSquared > 0 ? Math.exp(-squaredDistances[n] / twoSigmaSquared) : 1;
+                        int offset = k * inputDim;
+                        for (int d = 0; d < inputDim; d++) {
+                            updated[target + d] += h * sum[offset + d];
+                        }
+                        denominator += h * count[k];
+                    }
+                    // Neuron bez vzorů v okolí si ponechá původní váhy
+                    if (denominator > 0) {
+                        for (int d = 0; d < inputDim; d++) {
+                            setWeight(j, d, updated[target + d] / denominator);
+                        }
+                    }
+                }
+            });
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void onlineStep(double[] input, float[] floatInput, double alpha, double twoSigmaSquared, double reach, int[] neighbours, double[] squaredDistances) {
+        int bmu = nearest(input, floatInput);
+        int count = lattice.neighbours(bmu, reach, neighbours, squaredDistances);
+        for (int n = 0; n < count; n++) {
+            double rate = twoSigmaSquared > 0 ? alpha * Math.exp(-squaredDistances[n] / twoSigmaSquared) : alpha;
+            moveTowards(neighbours[n], input, rate);
+            if (bmuIndex != null) {
+                bmuIndex.update(neighbours[n]);
+            }
+        }
+    }
+
+    private static void shuffle(int[] order, int length, Random random) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
         }
     }
 
     public int recall(double[] inputVec) {
         int bmuIndex = findBMU(inputVec);
 
-        StringBuilder coords = new StringBuilder("[");
-        for (int i = 0; i < inputDim; i++) {
-            coords.append(weights[i][bmuIndex]);
-            if (i != inputDim - 1) {
-                coords.append(", ");
+        if (tracingSteps) {
+            double[] coords = new double[inputDim];
+            for (int i = 0; i < inputDim; i++) {
+                coords[i] = getWeight(bmuIndex, i);
             }
+            tracer.bmuRecalled(bmuIndex, coords);
         }
-        coords.append("]");
-
-        System.out.println("BMU Index: " + (bmuIndex + 1) + " with coordinates: " + coords);
         return bmuIndex;
     }
 
-    private int findBMU(double[] input) {
+    public int findBMU(double[] input) {
+        return findBMU(input, floatScratch());
+    }
+
+    /**
+     * BMU of every input; in FLOAT32 mode all searches share one float copy of the query,
+     * so prefer this over repeated {@link #findBMU(double[])} calls.
+     */
+    public int[] findBMUs(double[][] inputs) {
+        long start = timing ? System.nanoTime() : 0;
+        float[] floatInput = floatScratch();
+        int[] bmus = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            checkInput(inputs[i]);
+            bmus[i] = nearest(inputs[i], floatInput);
+        }
+        if (timing) {
+            tracer.callFinished(Operation.BMU_SEARCH, inputs.length, System.nanoTime() - start);
+        }
+        return bmus;
+    }
+
+    private int findBMU(double[] input, float[] floatInput) {
+        checkInput(input);
+        if (!timing) {
+            return nearest(input, floatInput);
+        }
+        long start = System.nanoTime();
+        int bmu = nearest(input, floatInput);
+        tracer.callFinished(Operation.BMU_SEARCH, 1, System.nanoTime() - start);
+        return bmu;
+    }
+
+    private void checkInput(double[] input) {
+        if (input.length != inputDim) {
+            throw new IllegalArgumentException("Input must have size " + inputDim);
+        }
+    }
+
+    // Buffer pro float kopii dotazu v režimu FLOAT32, volající ho drží přes všechna hledání
+    private float[] floatScratch() {
+        return precision == Precision.FLOAT32 ? new float[inputDim] : null;
+    }
+
+    private int nearest(double[] input, float[] floatInput) {
+        if (bmuIndex != null) {
+            return bmuIndex.nearest(input);
+        }
+        return scanBMU(input, floatInput, tracingSteps);
+    }
+
+    private int scanBMU(double[] input, float[] floatInput, boolean trace) {
         int bmuIndex = 0;
         double minDist = Double.MAX_VALUE;
+        if (precision == Precision.FLOAT32) {
+            for (int i = 0; i < inputDim; i++) {
+                floatInput[i] = (float) input[i];
+            }
+        }
 
         for (int j = 0; j < numNeurons; j++) {
-            double dist = 0;
-            for (int i = 0; i < inputDim; i++) {
-                dist += Math.pow(weights[i][j] - input[i], 2);
+            double dist;
+            if (precision == Precision.FLOAT32) {
+                dist = Kernels.squaredDistance(floatWeights[j], 0, floatInput, 0, inputDim);
+            } else if (precision == Precision.MIXED) {
+                dist = Kernels.squaredDistance(floatWeights[j], 0, input, 0, inputDim);
+            } else {
+                dist = Kernels.squaredDistance(weights[j], 0, input, 0, inputDim);
+            }
+            if (trace) {
+                tracer.distanceComputed(j, dist);
             }
-            System.out.println("D" + (j + 1) + ": " + dist);
 
             if (dist < minDist) {
                 minDist = dist;
@@ -64,28 +566,72 @@ public class KohonenMap {
         return bmuIndex;
     }
 
+    // w += rate * (x - w); FLOAT32 počítá ve float, MIXED v double a výsledek uloží jako float
+    private void moveTowards(int neuron, double[] input, double rate) {
+        if (precision == Precision.FLOAT32) {
+            float[] neuronWeights = floatWeights[neuron];
+            float floatRate = (float) rate;
+            for (int d = 0; d < inputDim; d++) {
+                neuronWeights[d] += floatRate * ((float) input[d] - neuronWeights[d]);
+            }
+        } else if (precision == Precision.MIXED) {
+            float[] neuronWeights = floatWeights[neuron];
+            for (int d = 0; d < inputDim; d++) {
+                neuronWeights[d] = (float) (neuronWeights[d] + rate * (input[d] - neuronWeights[d]));
+            }
+        } else {
+            double[] neuronWeights = weights[neuron];
+            for (int d = 0; d < inputDim; d++) {
+                neuronWeights[d] += rate * (input[d] - neuronWeights[d]);
+            }
+        }
+    }
+
+    private void setWeight(int neuron, int dimension, double value) {
+        if (weights != null) {
+            weights[neuron][dimension] = value;
+        } else {
+            floatWeights[neuron][dimension] = (float) value;
+        }
+    }
+
+    private double[][] copyWeights() {
+        double[][] copy = new double[numNeurons][inputDim];
+        for (int j = 0; j < numNeurons; j++) {
+            for (int d = 0; d < inputDim; d++) {
+                copy[j][d] = getWeight(j, d);
+            }
+        }
+        return copy;
+    }
+
     public void printWeights() {
         System.out.println("Weights:");
-        for (double[] weight : weights) {
-            System.out.println(Arrays.toString(weight));
+        double[] row = new double[numNeurons];
+        for (int i = 0; i < inputDim; i++) {
+            for (int j = 0; j < numNeurons; j++) {
+                row[j] = getWeight(j, i);
+            }
+            System.out.println(Arrays.toString(row));
         }
     }
 
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+        TokenReader reader = new TokenReader(System.in);
         System.out.println("Enter number of neurons:");
-        int numNeurons = scanner.nextInt();
+        int numNeurons = reader.nextInt();
         System.out.println("Enter input dimension:");
-        int inputDim = scanner.nextInt();
+        int inputDim = reader.nextInt();
 
         KohonenMap map = new KohonenMap(numNeurons, inputDim);
+        map.setTracer(new TextbookTracer());
 
         // Požádáme uživatele, aby zadal matici vah
         System.out.println("You must enter the initial weights matrix:");
         for (int i = 0; i < inputDim; i++) {
             System.out.println("Input " + (i + 1) + " weights:");
             for (int j = 0; j < numNeurons; j++) {
-                map.weights[i][j] = scanner.nextDouble();
+                map.weights[j][i] = reader.nextDouble();
             }
         }
 
@@ -98,18 +644,18 @@ public class KohonenMap {
             System.out.println("4) Exit");
             System.out.print("Input choice: ");
 
-            int choice = scanner.nextInt();
+            int choice = reader.nextInt();
             switch (choice) {
                 case 1:
                     System.out.println("Enter alpha (learning rate):");
-                    double alpha = scanner.nextDouble();
+                    double alpha = reader.nextDouble();
                     System.out.println("Enter number of epochs:");
-                    int epochs = scanner.nextInt();
+                    int epochs = reader.nextInt();
                     System.out.println("Enter training patterns separated by spaces (each line a new pattern):");
 
                     double[] input = new double[inputDim];
                     for (int i = 0; i < inputDim; i++) {
-                        input[i] = scanner.nextDouble();
+                        input[i] = reader.nextDouble();
                     }
 
                     map.train(input, alpha, epochs);
@@ -121,13 +667,13 @@ public class KohonenMap {
                     System.out.println("Input pattern to recall separated by spaces:");
                     double[] testPattern = new double[inputDim];
                     for (int i = 0; i < inputDim; i++) {
-                        testPattern[i] = scanner.nextDouble();
+                        testPattern[i] = reader.nextDouble();
                     }
                     map.recall(testPattern);
                     break;
                 case 4:
                     System.out.println("Exiting...");
-                    scanner.close();
+                    reader.close();
                     return;
                 default:
                     System.out.println("Invalid choice!");
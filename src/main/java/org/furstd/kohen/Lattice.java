@@ -0,0 +1,90 @@
+package org.furstd.kohen;
+
+/**
+ * 2-D grid of map neurons, numbered row by row. In a hexagonal lattice odd rows are
+ * shifted by half a cell and rows are sqrt(3)/2 apart, so all six neighbours of a
+ * neuron are at distance 1.
+ */
+public class Lattice {
+    private static final double ROW_HEIGHT = Math.sqrt(3) / 2;
+
+    private final int rows;
+    private final int cols;
+    private final LatticeType type;
+
+    public Lattice(int rows, int cols, LatticeType type) {
+        if (rows < 1 || cols < 1) {
+            throw new IllegalArgumentException("Lattice must have at least one row and column");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.type = type;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public LatticeType getType() {
+        return type;
+    }
+
+    public int size() {
+        return rows * cols;
+    }
+
+    public double x(int neuron) {
+        int row = neuron / cols;
+        int col = neuron % cols;
+        return type == LatticeType.HEXAGONAL && (row & 1) == 1 ? col + 0.5 : col;
+    }
+
+    public double y(int neuron) {
+        int row = neuron / cols;
+        return type == LatticeType.HEXAGONAL ? row * ROW_HEIGHT : row;
+    }
+
+    public double squaredDistance(int a, int b) {
+        double dx = x(a) - x(b);
+        double dy = y(a) - y(b);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Writes every neuron within {@code radius} of {@code center} and its squared lattice
+     * distance into the given arrays and returns their count. Only the rows and columns
+     * that can fall inside the radius are visited.
+     */
+    public int neighbours(int center, double radius, int[] indices, double[] squaredDistances) {
+        int centerRow = center / cols;
+        double centerX = x(center);
+        double centerY = y(center);
+        double radiusSquared = radius * radius;
+        // Rozpětí se omezí velikostí mřížky už v double, obří nebo nekonečný poloměr by jinak v int přetekl
+        int rowSpan = (int) Math.min(rows, Math.ceil(radius / (type == LatticeType.HEXAGONAL ? ROW_HEIGHT : 1)));
+        int colSpan = (int) Math.min(cols, Math.ceil(radius) + 1);
+        int centerCol = center % cols;
+        int lastRow = (int) Math.min(rows - 1L, (long) centerRow + rowSpan);
+        int lastCol = (int) Math.min(cols - 1L, (long) centerCol + colSpan);
+
+        int count = 0;
+        for (int row = Math.max(0, centerRow - rowSpan); row <= lastRow; row++) {
+            double dy = (type == LatticeType.HEXAGONAL ? row * ROW_HEIGHT : row) - centerY;
+            double shift = type == LatticeType.HEXAGONAL && (row & 1) == 1 ? 0.5 : 0;
+            for (int col = Math.max(0, centerCol - colSpan); col <= lastCol; col++) {
+                double dx = col + shift - centerX;
+                double distance = dx * dx + dy * dy;
+                if (distance <= radiusSquared) {
+                    indices[count] = row * cols + col;
+                    squaredDistances[count] = distance;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
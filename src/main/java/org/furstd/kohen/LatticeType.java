@@ -0,0 +1,6 @@
+package org.furstd.kohen;
+
+public enum LatticeType {
+    RECTANGULAR,
+    HEXAGONAL
+}
@@ -0,0 +1,139 @@
+package org.furstd.kohen;
+
+import org.furstd.kernel.Precision;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of a trained {@link KohonenMap}, little-endian:
+ * <pre>
+ * int magic ("AISM"), int version, int rows, int cols, int inputDim,
+ * short nameLength, byte[nameLength] lattice type name,
+ * short nameLength, byte[nameLength] precision name,
+ * zero padding to 8 bytes, then double[rows * cols][inputDim] neuron by neuron
+ * </pre>
+ */
+public final class MapFile {
+    public static final int MAGIC = 0x4149534D;
+    public static final int VERSION = 1;
+
+    private static final int FIXED_HEADER_SIZE = 20;
+
+    private MapFile() {
+    }
+
+    public static void save(KohonenMap map, Path path) throws IOException {
+        Lattice lattice = map.getLattice();
+        String type = lattice.getType().name();
+        String precision = map.getPrecision().name();
+        int headerSize = (int) align(FIXED_HEADER_SIZE + 2 * Short.BYTES + type.length() + precision.length());
+
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + map.getNumNeurons() * map.getInputDim() * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(lattice.getRows());
+        buffer.putInt(lattice.getCols());
+        buffer.putInt(map.getInputDim());
+        putName(buffer, type);
+        putName(buffer, precision);
+        buffer.position(headerSize);
+        for (int j = 0; j < map.getNumNeurons(); j++) {
+            for (int d = 0; d < map.getInputDim(); d++) {
+                buffer.putDouble(map.getWeight(j, d));
+            }
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static KohonenMap load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), 1024)).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.remaining() < FIXED_HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a Kohonen map file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported map file version " + version + ": " + path);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int inputDim = header.getInt();
+            if (rows < 1 || cols < 1 || inputDim < 1) {
+                throw new IOException("Invalid map dimensions in " + path);
+            }
+            LatticeType type = valueOf(LatticeType.class, readName(header, path), path);
+            Precision precision = valueOf(Precision.class, readName(header, path), path);
+            long offset = align(header.position());
+
+            // Velikost se ověří dřív, než se podle hlavičky alokuje mapa
+            long neurons = (long) rows * cols;
+            if (neurons > (channel.size() - offset) / ((long) inputDim * Double.BYTES)) {
+                throw new IOException("Map file is truncated: " + path);
+            }
+            long bytes = neurons * inputDim * Double.BYTES;
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("Map is larger than 2 GB: " + path);
+            }
+
+            KohonenMap map = new KohonenMap(new Lattice(rows, cols, type), inputDim, precision);
+            DoubleBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            if (precision == Precision.DOUBLE) {
+                for (double[] neuron : map.getWeights()) {
+                    data.get(neuron);
+                }
+            } else {
+                for (float[] neuron : map.getFloatWeights()) {
+                    for (int d = 0; d < inputDim; d++) {
+                        neuron[d] = (float) data.get();
+                    }
+                }
+            }
+            map.weightsChanged();
+            return map;
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void putName(ByteBuffer buffer, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static <E extends Enum<E>> E valueOf(Class<E> type, String name, Path path) throws IOException {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " '" + name + "' in " + path, e);
+        }
+    }
+
+    private static String readName(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.remaining() < Short.BYTES) {
+            throw new IOException("Map file header is corrupted: " + path);
+        }
+        int length = buffer.getShort();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Map file header is corrupted: " + path);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
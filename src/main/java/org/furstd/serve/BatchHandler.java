@@ -0,0 +1,9 @@
+package org.furstd.serve;
+
+import java.util.List;
+
+// Zpracuje celou mikrodávku najednou, výsledky ve stejném pořadí jako požadavky
+@FunctionalInterface
+public interface BatchHandler<I, O> {
+    List<O> process(List<I> requests);
+}
@@ -0,0 +1,269 @@
+package org.furstd.serve;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.furstd.dataset.DoubleParser;
+import org.furstd.feed_forward.CompiledNetwork;
+import org.furstd.feed_forward.InferenceWorkspace;
+import org.furstd.feed_forward.PublishedModel;
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.hopfield.RecallResult;
+import org.furstd.kohen.KohonenMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Embedded HTTP endpoint for local inference. Every connection is served on its own virtual
+ * thread, which parses the request and blocks on a {@link MicroBatcher}; the batcher runs
+ * the model on whole batches. A request body is one vector of numbers separated by commas or
+ * whitespace and is answered with one line in the same format:
+ * <ul>
+ *     <li>feed-forward: the network output,</li>
+ *     <li>Kohonen map: the 0-based BMU index followed by its weights,</li>
+ *     <li>Hopfield network: the recalled pattern, with the iteration count and convergence
+ *     in the {@code X-Iterations} and {@code X-Converged} headers.</li>
+ * </ul>
+ * Malformed input is answered with 400, other methods than POST with 405 and a full request
+ * queue with 503. The response headers and body are written separately, so without
+ * {@code -Dsun.net.httpserver.nodelay=true} every response waits tens of milliseconds for a
+ * delayed ACK; {@code ServerRunner} sets the property, embedding applications should pass it
+ * on the command line.
+ */
+public class InferenceServer implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int queueCapacity;
+    private final List<MicroBatcher<?, ?>> batchers = new ArrayList<>();
+
+    public InferenceServer(InetSocketAddress address, int maxBatchSize, long maxWaitNanos) throws IOException {
+        this(address, maxBatchSize, maxWaitNanos, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public InferenceServer(InetSocketAddress address, int maxBatchSize, long maxWaitNanos, int queueCapacity) throws IOException {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.queueCapacity = queueCapacity;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+    }
+
+    // Model lze za běhu vyměnit přes PublishedModel.publish
+    public void addFeedForward(String path, PublishedModel model) {
+        InferenceWorkspace workspace = new InferenceWorkspace();
+        MicroBatcher<double[], double[]> batcher = createBatcher(path, inputs -> {
+            CompiledNetwork network = model.getSnapshot();
+            int n = network.getNumberOfInputs();
+            int m = network.getNumberOfOutputs();
+            double[] packedInputs = new double[inputs.size() * n];
+            for (int row = 0; row < inputs.size(); row++) {
+                System.arraycopy(inputs.get(row), 0, packedInputs, row * n, n);
+            }
+            double[] packedOutputs = new double[inputs.size() * m];
+            network.computeResponses(packedInputs, inputs.size(), packedOutputs, workspace);
+
+            List<double[]> outputs = new ArrayList<>(inputs.size());
+            for (int row = 0; row < inputs.size(); row++) {
+                double[] output = new double[m];
+                System.arraycopy(packedOutputs, row * m, output, 0, m);
+                outputs.add(output);
+            }
+            return outputs;
+        });
+        server.createContext(path, exchange -> handle(exchange, body -> {
+            double[] input = parseVector(body, model.getSnapshot().getNumberOfInputs());
+            return formatVector(join(batcher.submit(input)), null);
+        }));
+    }
+
+    public void addKohonen(String path, KohonenMap map) {
+        MicroBatcher<double[], Integer> batcher = createBatcher(path, inputs -> {
+            int[] found = map.findBMUs(inputs.toArray(new double[0][]));
+            List<Integer> bmus = new ArrayList<>(found.length);
+            for (int bmu : found) {
+                bmus.add(bmu);
+            }
+            return bmus;
+        });
+        server.createContext(path, exchange -> handle(exchange, body -> {
+            double[] input = parseVector(body, map.getInputDim());
+            int bmu = join(batcher.submit(input));
+            double[] weights = new double[map.getInputDim()];
+            for (int d = 0; d < weights.length; d++) {
+                weights[d] = map.getWeight(bmu, d);
+            }
+            return formatVector(weights, Integer.toString(bmu));
+        }));
+    }
+
+    public void addHopfield(String path, HopfieldNetwork network) {
+        MicroBatcher<int[], RecallResult> batcher = createBatcher(path, probes -> List.of(network.recallBatch(probes.toArray(new int[0][]))));
+        server.createContext(path, exchange -> handle(exchange, body -> {
+            double[] values = parseVector(body, network.getSize());
+            int[] probe = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != 1 && values[i] != -1) {
+                    throw new IllegalArgumentException("Pattern values must be 1 or -1");
+                }
+                probe[i] = (int) values[i];
+            }
+            RecallResult result = join(batcher.submit(probe));
+            exchange.getResponseHeaders().set("X-Iterations", Integer.toString(result.getIterations()));
+            exchange.getResponseHeaders().set("X-Converged", Boolean.toString(result.isConverged()));
+            int[] pattern = result.getPattern();
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < pattern.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(pattern[i]);
+            }
+            return line.append('\n').toString();
+        }));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public List<MicroBatcher<?, ?>> getBatchers() {
+        return List.copyOf(batchers);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        for (MicroBatcher<?, ?> batcher : batchers) {
+            batcher.close();
+        }
+        executor.close();
+    }
+
+    private <I, O> MicroBatcher<I, O> createBatcher(String path, BatchHandler<I, O> handler) {
+        MicroBatcher<I, O> batcher = new MicroBatcher<>("batcher " + path, maxBatchSize, maxWaitNanos, queueCapacity, handler);
+        batchers.add(batcher);
+        return batcher;
+    }
+
+    private static void handle(HttpExchange exchange, Function<byte[], String> responder) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Use POST\n");
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            int status = 200;
+            String response;
+            try {
+                response = responder.apply(body);
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                response = e.getMessage() + "\n";
+            } catch (RejectedExecutionException e) {
+                status = 503;
+                response = e.getMessage() + "\n";
+            } catch (RuntimeException e) {
+                status = 500;
+                response = e.getClass().getSimpleName() + ": " + e.getMessage() + "\n";
+            }
+            respond(exchange, status, response);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Virtuální vlákno čeká na výsledek dávky, výjimku modelu předá dál
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Čísla oddělená čárkami, středníky nebo bílými znaky, parsuje přímo z bajtů těla
+    static double[] parseVector(byte[] body, int size) {
+        double[] values = new double[size];
+        int count = 0;
+        int i = 0;
+        while (true) {
+            while (i < body.length && isSeparator(body[i])) {
+                i++;
+            }
+            if (i == body.length) {
+                break;
+            }
+            int from = i;
+            while (i < body.length && !isSeparator(body[i])) {
+                i++;
+            }
+            if (count < size) {
+                try {
+                    values[count] = DoubleParser.parseDouble(body, from, i);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a number: " + new String(body, from, i - from, StandardCharsets.US_ASCII));
+                }
+            }
+            count++;
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Empty request, expected " + size + " values");
+        }
+        if (count != size) {
+            throw new IllegalArgumentException("Expected " + size + " values, got " + count);
+        }
+        return values;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ',' || b == ';' || b == ' ' || b == '\t' || b == 0x0B || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    private static String formatVector(double[] values, String prefix) {
+        StringBuilder line = new StringBuilder();
+        if (prefix != null) {
+            line.append(prefix);
+        }
+        for (double value : values) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            line.append(value);
+        }
+        return line.append('\n').toString();
+    }
+}
@@ -0,0 +1,150 @@
+package org.furstd.serve;
+
+import org.furstd.trace.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for an {@link InferenceServer} endpoint. Each of
+ * {@code concurrency} virtual threads keeps one HTTP/1.1 connection open, sends a request,
+ * waits for the answer and sends the next, cycling through the given bodies until the
+ * duration is over. The client is a minimal keep-alive writer and reader over a socket, so
+ * on a small machine the measurement is not dominated by the client itself. Any status
+ * other than 200 and any I/O failure counts as an error; the connection is then reopened.
+ */
+public class LoadGenerator {
+
+    public LoadReport run(URI uri, List<String> bodies, int concurrency, Duration duration) {
+        if (bodies.isEmpty()) {
+            throw new IllegalArgumentException("At least one request body is required");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        if (!"http".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("Expected an http:// URL, got " + uri);
+        }
+        String host = uri.getHost();
+        int port = uri.getPort() == -1 ? 80 : uri.getPort();
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        byte[][] requests = new byte[bodies.size()][];
+        for (int i = 0; i < requests.length; i++) {
+            String body = bodies.get(i);
+            requests[i] = String.format(Locale.ROOT, "POST %s HTTP/1.1\r\nHost: %s:%d\r\nContent-Type: text/plain\r\nContent-Length: %d\r\n\r\n%s",
+                    path, host, port, body.length(), body).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        Histogram latency = new Histogram();
+        LongAdder sent = new LongAdder();
+        LongAdder errors = new LongAdder();
+        AtomicLong next = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                clients.submit(() -> {
+                    Connection connection = null;
+                    while (System.nanoTime() < deadline) {
+                        byte[] request = requests[(int) (next.getAndIncrement() % requests.length)];
+                        long begin = System.nanoTime();
+                        try {
+                            if (connection == null) {
+                                connection = new Connection(host, port);
+                            }
+                            if (connection.exchange(request) != 200) {
+                                errors.increment();
+                            }
+                        } catch (IOException | NumberFormatException e) {
+                            errors.increment();
+                            closeQuietly(connection);
+                            connection = null;
+                        }
+                        latency.record(System.nanoTime() - begin);
+                        sent.increment();
+                    }
+                    closeQuietly(connection);
+                    return null;
+                });
+            }
+        }
+        return new LoadReport(sent.sum(), errors.sum(), System.nanoTime() - start, latency.snapshot());
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.socket.close();
+        } catch (IOException e) {
+            // Spojení už je stejně k ničemu
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = socket.getOutputStream();
+        }
+
+        // Odešle požadavek a přečte celou odpověď, vrací stavový kód
+        int exchange(byte[] request) throws IOException {
+            out.write(request);
+            out.flush();
+
+            String statusLine = readLine();
+            String[] status = statusLine.split(" ", 3);
+            if (status.length < 2) {
+                throw new IOException("Malformed status line: " + statusLine);
+            }
+            int contentLength = -1;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon > 0 && line.substring(0, colon).equalsIgnoreCase("Content-Length")) {
+                    contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+                }
+            }
+            if (contentLength < 0) {
+                throw new IOException("Response without Content-Length");
+            }
+            in.skipNBytes(contentLength);
+            return Integer.parseInt(status[1]);
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c == -1) {
+                    throw new EOFException("Connection closed");
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.furstd.serve;
+
+import org.furstd.trace.HistogramSnapshot;
+
+import java.util.Locale;
+
+// Výsledek běhu LoadGenerator, latence v nanosekundách
+public class LoadReport {
+    private final long requests;
+    private final long errors;
+    private final long nanos;
+    private final HistogramSnapshot latency;
+
+    public LoadReport(long requests, long errors, long nanos, HistogramSnapshot latency) {
+        this.requests = requests;
+        this.errors = errors;
+        this.nanos = nanos;
+        this.latency = latency;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getSeconds() {
+        return nanos / 1e9;
+    }
+
+    public double getRequestsPerSecond() {
+        return nanos > 0 ? requests / getSeconds() : 0;
+    }
+
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d requests in %.3f s (%.0f requests/s), %d errors, latency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms",
+                requests, getSeconds(), getRequestsPerSecond(), errors,
+                latency.getP50() / 1e6, latency.getP90() / 1e6, latency.getP99() / 1e6, latency.getMax() / 1e6);
+    }
+}
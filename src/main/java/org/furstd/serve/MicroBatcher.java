@@ -0,0 +1,156 @@
+package org.furstd.serve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent single requests into batches for a {@link BatchHandler}. One worker
+ * thread takes the first waiting request, then keeps collecting until the batch holds
+ * {@code maxBatchSize} requests or {@code maxWaitNanos} have passed since that first request,
+ * so under load the handler sees full batches and a lone request waits at most
+ * {@code maxWaitNanos}. Only the worker thread calls the handler, so the model behind it
+ * needs no locking. A full queue rejects new requests instead of growing the latency.
+ */
+public class MicroBatcher<I, O> implements AutoCloseable {
+    private final BlockingQueue<Pending<I, O>> queue;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BatchHandler<I, O> handler;
+    private final Thread worker;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private volatile boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, long maxWaitNanos, int queueCapacity, BatchHandler<I, O> handler) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+        if (maxWaitNanos < 0) {
+            throw new IllegalArgumentException("Max wait must be non-negative");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.handler = handler;
+        // Platformové vlákno, dávka je čistě výpočetní práce
+        this.worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    public CompletableFuture<O> submit(I request) {
+        if (closed) {
+            throw new IllegalStateException("Batcher is closed");
+        }
+        Pending<I, O> pending = new Pending<>(request);
+        if (!queue.offer(pending)) {
+            throw new RejectedExecutionException("Request queue is full");
+        }
+        // Pracovní vlákno mohlo mezitím skončit a frontu už nevybere
+        if (closed && queue.remove(pending)) {
+            pending.result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+        }
+        return pending.result;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public double getMeanBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) requests.sum() / count;
+    }
+
+    private void run() {
+        List<Pending<I, O>> batch = new ArrayList<>(maxBatchSize);
+        List<I> inputs = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                // Nejdřív vše, co už čeká, pak nejvýše do termínu prvního požadavku
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending<I, O> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                dispatch(batch, inputs);
+                batch.clear();
+                inputs.clear();
+            }
+        } catch (InterruptedException e) {
+            // close() ukončuje čekání přerušením
+        }
+        RuntimeException closedError = new IllegalStateException("Batcher is closed");
+        for (Pending<I, O> pending : batch) {
+            pending.result.completeExceptionally(closedError);
+        }
+        Pending<I, O> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(closedError);
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch, List<I> inputs) {
+        for (Pending<I, O> pending : batch) {
+            inputs.add(pending.request);
+        }
+        // Statistiky dřív než výsledky, aby je volající po dokončení viděl aktuální
+        batches.increment();
+        requests.add(batch.size());
+        try {
+            List<O> results = handler.process(inputs);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Handler returned " + results.size() + " results for " + batch.size() + " requests");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (Throwable e) {
+            // I Error z modelu selže jen tuto dávku, pracovní vlákno musí běžet dál
+            for (Pending<I, O> pending : batch) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Pending<I, O> {
+        private final I request;
+        private final CompletableFuture<O> result = new CompletableFuture<>();
+
+        Pending(I request) {
+            this.request = request;
+        }
+    }
+}
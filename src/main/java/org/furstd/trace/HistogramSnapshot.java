@@ -0,0 +1,56 @@
+package org.furstd.trace;
+
+import java.util.Locale;
+
+// Neměnný stav histogramu, přes JMX se zobrazí jako CompositeData
+public class HistogramSnapshot {
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+
+    public HistogramSnapshot(long count, long sum, long max, long p50, long p90, long p99) {
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count = %d, mean = %.1f, p50 = %d, p90 = %d, p99 = %d, max = %d",
+                count, getMean(), p50, p90, p99, max);
+    }
+}
@@ -0,0 +1,120 @@
+package org.furstd.trace;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead metrics sink: per-call latency and row counts for every {@link Operation},
+ * iterations to convergence of Hopfield recalls and SOM epoch times, all updated without
+ * locks from any number of threads. It does not ask for step events, so tracing it costs
+ * one {@code System.nanoTime()} pair per call. {@link #register(String)} publishes it
+ * through JMX under {@code org.furstd:type=Metrics,name=...}.
+ */
+public class MetricsTracer implements Tracer, MetricsTracerMXBean {
+    private final Histogram[] latencies = new Histogram[Operation.values().length];
+    private final LongAdder[] rows = new LongAdder[Operation.values().length];
+    private final Histogram recallIterations = new Histogram();
+    private final LongAdder unconvergedRecalls = new LongAdder();
+    private final Histogram epochNanos = new Histogram();
+
+    public MetricsTracer() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new Histogram();
+            rows[i] = new LongAdder();
+        }
+    }
+
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("org.furstd:type=Metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    public static void unregister(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Override
+    public boolean measuresTime() {
+        return true;
+    }
+
+    @Override
+    public void callFinished(Operation operation, int rows, long nanos) {
+        latencies[operation.ordinal()].record(nanos);
+        this.rows[operation.ordinal()].add(rows);
+    }
+
+    @Override
+    public void recallFinished(int iterations, boolean converged) {
+        recallIterations.record(iterations);
+        if (!converged) {
+            unconvergedRecalls.increment();
+        }
+    }
+
+    @Override
+    public void epochFinished(int epoch, double alpha, double radius, long nanos) {
+        epochNanos.record(nanos);
+    }
+
+    public HistogramSnapshot getLatencyNanos(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    public long getRows(Operation operation) {
+        return rows[operation.ordinal()].sum();
+    }
+
+    @Override
+    public Map<String, HistogramSnapshot> getLatencyNanos() {
+        Map<String, HistogramSnapshot> result = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            result.put(operation.name(), getLatencyNanos(operation));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getRows() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            result.put(operation.name(), getRows(operation));
+        }
+        return result;
+    }
+
+    @Override
+    public HistogramSnapshot getRecallIterations() {
+        return recallIterations.snapshot();
+    }
+
+    @Override
+    public long getUnconvergedRecalls() {
+        return unconvergedRecalls.sum();
+    }
+
+    @Override
+    public HistogramSnapshot getEpochNanos() {
+        return epochNanos.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i].reset();
+            rows[i].reset();
+        }
+        recallIterations.reset();
+        unconvergedRecalls.reset();
+        epochNanos.reset();
+    }
+}
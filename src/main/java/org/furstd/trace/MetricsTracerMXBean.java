@@ -0,0 +1,19 @@
+package org.furstd.trace;
+
+import java.util.Map;
+
+public interface MetricsTracerMXBean {
+    // Doba volání v nanosekundách podle operace
+    Map<String, HistogramSnapshot> getLatencyNanos();
+
+    // Počet zpracovaných řádků podle operace
+    Map<String, Long> getRows();
+
+    HistogramSnapshot getRecallIterations();
+
+    long getUnconvergedRecalls();
+
+    HistogramSnapshot getEpochNanos();
+
+    void reset();
+}
@@ -0,0 +1,11 @@
+package org.furstd.trace;
+
+// Volání, u kterých se měří doba trvání
+public enum Operation {
+    FEED_FORWARD,
+    BACKPROPAGATION,
+    COMPILED_BATCH,
+    BMU_SEARCH,
+    HOPFIELD_RECALL,
+    CONVOLUTION
+}
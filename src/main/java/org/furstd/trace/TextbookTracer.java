@@ -0,0 +1,148 @@
+package org.furstd.trace;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Prints every intermediate step in the format of the original console programs, for
+ * following the computation by hand.
+ */
+public class TextbookTracer implements Tracer {
+    private final PrintStream out;
+
+    public TextbookTracer() {
+        this(System.out);
+    }
+
+    public TextbookTracer(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean tracesSteps() {
+        return true;
+    }
+
+    @Override
+    public void layerComputed(int layer, double[] preActivation, double[] output) {
+        out.println("\ny" + (layer + 1) + "a = " + Arrays.toString(preActivation));
+        out.println("y" + (layer + 1) + " = " + Arrays.toString(output));
+    }
+
+    @Override
+    public void outputError(double[] error) {
+        out.println("Error vector e: " + Arrays.toString(error));
+    }
+
+    @Override
+    public void backpropagatedTerm(double[] neuronWeights, double[] nextLocalGradients) {
+        out.println("Neuron weights: " + Arrays.toString(neuronWeights));
+        out.println("Local gradient of next layer: " + Arrays.toString(nextLocalGradients));
+    }
+
+    @Override
+    public void localGradientsComputed(int layer, double[] localGradients) {
+        out.println("Local gradients for layer " + layer + ": " + Arrays.toString(localGradients));
+    }
+
+    @Override
+    public void weightsUpdated(double[][][] deltas, double[][][] weights) {
+        out.println("\nBackpropagation weights:");
+        printWeights(deltas);
+        out.println("\nNew weights:");
+        printWeights(weights);
+    }
+
+    @Override
+    public void epochStarted(int epoch) {
+        out.println("\nEpoch " + (epoch + 1));
+    }
+
+    @Override
+    public void distanceComputed(int neuron, double distance) {
+        out.println("D" + (neuron + 1) + ": " + distance);
+    }
+
+    @Override
+    public void bmuChosen(int neuron) {
+        out.println("Chosen D" + (neuron + 1));
+    }
+
+    // Po vstupních dimenzích, jako KohonenMap.printWeights
+    @Override
+    public void codebookUpdated(double[][] weights) {
+        out.println("Weights:");
+        double[] row = new double[weights.length];
+        for (int i = 0; i < (weights.length > 0 ? weights[0].length : 0); i++) {
+            for (int j = 0; j < weights.length; j++) {
+                row[j] = weights[j][i];
+            }
+            out.println(Arrays.toString(row));
+        }
+    }
+
+    @Override
+    public void bmuRecalled(int neuron, double[] coordinates) {
+        out.println("BMU Index: " + (neuron + 1) + " with coordinates: " + Arrays.toString(coordinates));
+    }
+
+    @Override
+    public void epochFinished(int epoch, double alpha, double radius, long nanos) {
+        if (Double.isNaN(alpha)) {
+            out.println("Epoch " + (epoch + 1) + ": radius = " + radius);
+        } else {
+            out.println("Epoch " + (epoch + 1) + ": alpha = " + alpha + ", radius = " + radius);
+        }
+    }
+
+    @Override
+    public void iterationStarted(int iteration, int[] state) {
+        out.println("Iteration " + (iteration + 1) + ": " + Arrays.toString(state));
+    }
+
+    @Override
+    public void neuronUpdated(int neuron, int field, int value) {
+        out.printf("y%d = f(%d) = %d%n", neuron + 1, field, value);
+    }
+
+    @Override
+    public void iterationFinished(int iteration) {
+        out.println();
+    }
+
+    @Override
+    public void convolutionComputed(double[][] convolved, double[][] pooled) {
+        out.println("\nOutput matrix after convolution:");
+        printMatrix(convolved);
+        out.println("\nOutput matrix after max pooling:");
+        printMatrix(pooled);
+    }
+
+    @Override
+    public void poolingComputed(double[][] pooled) {
+        printMatrix(pooled);
+    }
+
+    private void printWeights(double[][][] weights) {
+        for (int layer = 0; layer < weights.length; layer++) {
+            out.println("Weights of layer w" + (layer + 1) + ":");
+
+            for (int neuron = 0; neuron < weights[layer].length; neuron++) {
+                for (int input = 0; input < weights[layer][0].length; input++) {
+                    out.print(String.format("%.4f ", weights[layer][neuron][input]).replace(",", "."));
+                }
+                out.println();
+            }
+            out.println();
+        }
+    }
+
+    private void printMatrix(double[][] matrix) {
+        for (double[] row : matrix) {
+            for (int j = 0; j < matrix[0].length; j++) {
+                out.print(row[j] + " ");
+            }
+            out.println();
+        }
+    }
+}
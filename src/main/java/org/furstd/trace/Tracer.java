@@ -0,0 +1,79 @@
+package org.furstd.trace;
+
+/**
+ * Receives what the networks do step by step and how long their calls take. Every event
+ * has an empty default, so an implementation overrides only what it needs. Networks ask
+ * {@link #tracesSteps()} and {@link #measuresTime()} once when the tracer is set and skip
+ * the event calls, their arguments and {@code System.nanoTime()} when the answer is false,
+ * so {@link #NONE} costs a predictable branch per call.
+ */
+public interface Tracer {
+    Tracer NONE = new Tracer() {
+    };
+
+    // Události po jednotlivých neuronech a vrstvách
+    default boolean tracesSteps() {
+        return false;
+    }
+
+    // Doby volání, epoch a počty iterací
+    default boolean measuresTime() {
+        return false;
+    }
+
+    default void layerComputed(int layer, double[] preActivation, double[] output) {
+    }
+
+    default void outputError(double[] error) {
+    }
+
+    default void backpropagatedTerm(double[] neuronWeights, double[] nextLocalGradients) {
+    }
+
+    default void localGradientsComputed(int layer, double[] localGradients) {
+    }
+
+    default void weightsUpdated(double[][][] deltas, double[][][] weights) {
+    }
+
+    default void epochStarted(int epoch) {
+    }
+
+    default void distanceComputed(int neuron, double distance) {
+    }
+
+    default void bmuChosen(int neuron) {
+    }
+
+    // Váhy mapy po neuronech
+    default void codebookUpdated(double[][] weights) {
+    }
+
+    default void bmuRecalled(int neuron, double[] coordinates) {
+    }
+
+    // alpha je NaN u dávkového učení, které rychlost učení nemá
+    default void epochFinished(int epoch, double alpha, double radius, long nanos) {
+    }
+
+    default void iterationStarted(int iteration, int[] state) {
+    }
+
+    default void neuronUpdated(int neuron, int field, int value) {
+    }
+
+    default void iterationFinished(int iteration) {
+    }
+
+    default void convolutionComputed(double[][] convolved, double[][] pooled) {
+    }
+
+    default void poolingComputed(double[][] pooled) {
+    }
+
+    default void callFinished(Operation operation, int rows, long nanos) {
+    }
+
+    default void recallFinished(int iterations, boolean converged) {
+    }
+}
@@ -0,0 +1,190 @@
+package org.furstd.cli;
+
+import org.furstd.dataset.Datasets;
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.furstd.feed_forward.ModelFile;
+import org.furstd.hopfield.HopfieldFile;
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.kohen.KohonenMap;
+import org.furstd.kohen.MapFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the batch commands end to end on temporary files and checks every output row
+ * against the same model loaded and evaluated in process.
+ */
+class BatchRunnerTest {
+    private static final int ROWS = 200;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void trainAndInferFeedForward() throws IOException {
+        Random random = new Random(1);
+        double[][] data = new double[ROWS][4];
+        double[][] inputs = new double[ROWS][3];
+        for (int row = 0; row < ROWS; row++) {
+            for (int i = 0; i < 3; i++) {
+                inputs[row][i] = data[row][i] = random.nextDouble() * 2 - 1;
+            }
+            data[row][3] = data[row][0] + data[row][1];
+        }
+        Path train = write("train.csv", data);
+        Path model = directory.resolve("model.ffn");
+        String report = run("train", "ffn", "--data", train.toString(), "--output", model.toString(),
+                "--layers", "3,8,1", "--activations", "hyperbolic_tangent,linear_ident", "--epochs", "3", "--batch-size", "7");
+        assertTrue(report.startsWith("train ffn: " + 3 * ROWS + " rows in "), report);
+
+        Path output = directory.resolve("out.bin");
+        report = run("infer", "--model", model.toString(), "--data", write("inputs.bin", inputs).toString(), "--output", output.toString(), "--batch-size", "7");
+        assertTrue(report.startsWith("infer: " + ROWS + " rows in "), report);
+        double[][] expected = ModelFile.load(model).compile().computeResponses(inputs);
+        assertRowsEqual(expected, read(output));
+    }
+
+    @Test
+    void trainSomAndFindBmus() throws IOException {
+        Random random = new Random(2);
+        double[][] data = new double[ROWS][3];
+        for (double[] row : data) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble();
+            }
+        }
+        Path input = write("som.bin", data);
+        Path map = directory.resolve("map.som");
+        for (String mode : new String[]{"batch", "online"}) {
+            run("train", "som", "--data", input.toString(), "--output", map.toString(), "--lattice", "3x4", "--mode", mode, "--epochs", "4", "--batch-size", "16");
+            Path output = directory.resolve("bmu.csv");
+            run("bmu", "--model", map.toString(), "--data", input.toString(), "--output", output.toString());
+
+            KohonenMap loaded = MapFile.load(map);
+            assertEquals(12, loaded.getNumNeurons());
+            double[][] bmus = read(output);
+            assertEquals(ROWS, bmus.length);
+            for (int row = 0; row < ROWS; row++) {
+                assertEquals(loaded.findBMU(data[row]), bmus[row][0], mode + " row " + row);
+            }
+        }
+    }
+
+    @Test
+    void trainHopfieldAndRecall() throws IOException {
+        Random random = new Random(3);
+        double[][] patterns = new double[3][64];
+        for (double[] pattern : patterns) {
+            for (int i = 0; i < pattern.length; i++) {
+                pattern[i] = random.nextBoolean() ? 1 : -1;
+            }
+        }
+        // Zašuměné kopie uložených vzorů
+        double[][] noisy = new double[patterns.length][];
+        for (int p = 0; p < patterns.length; p++) {
+            noisy[p] = patterns[p].clone();
+            for (int flip = 0; flip < 4; flip++) {
+                noisy[p][random.nextInt(64)] *= -1;
+            }
+        }
+        Path net = directory.resolve("net.hop");
+        run("train", "hopfield", "--data", write("patterns.csv", patterns).toString(), "--output", net.toString());
+        for (String storage : new String[]{"dense", "sparse"}) {
+            Path output = directory.resolve("recall.bin");
+            run("recall", "--model", net.toString(), "--data", write("noisy.bin", noisy).toString(), "--output", output.toString(), "--storage", storage);
+
+            HopfieldNetwork loaded = HopfieldFile.load(net);
+            double[][] recalled = read(output);
+            for (int p = 0; p < noisy.length; p++) {
+                int[] pattern = new int[64];
+                for (int i = 0; i < 64; i++) {
+                    pattern[i] = (int) noisy[p][i];
+                }
+                int[] expected = loaded.recall(pattern);
+                for (int i = 0; i < 64; i++) {
+                    assertEquals(expected[i], recalled[p][i], storage + " pattern " + p);
+                }
+            }
+        }
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() throws IOException {
+        Path data = write("bad.csv", new double[][]{{1, 2}});
+        assertThrows(IllegalArgumentException.class, () -> run());
+        assertThrows(IllegalArgumentException.class, () -> run("train"));
+        assertThrows(IllegalArgumentException.class, () -> run("predict", "--data", data.toString()));
+        assertThrows(IllegalArgumentException.class, () -> run("bmu", "--model", "m", "--data", data.toString(), "--output", "o", "--epochs", "3"));
+        // Dva sloupce nestačí na tři vstupy a jeden cíl
+        assertThrows(IllegalArgumentException.class, () -> run("train", "ffn", "--data", data.toString(), "--output", directory.resolve("m").toString(),
+                "--layers", "3,1", "--activations", "linear_ident"));
+    }
+
+    @Test
+    void corruptedModelFailsWithIOException() throws IOException {
+        Path data = write("points.bin", new double[][]{{1, 2, 3}});
+        Path map = directory.resolve("map.som");
+        run("train", "som", "--data", data.toString(), "--output", map.toString(), "--lattice", "2x2", "--epochs", "1");
+        byte[] bytes = Files.readAllBytes(map);
+        // Mřížka 50 000 x 50 000 z poškozené hlavičky nesmí skončit alokací mapy
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(8, 50_000).putInt(12, 50_000);
+        Files.write(map, bytes);
+        assertThrows(IOException.class, () -> run("bmu", "--model", map.toString(), "--data", data.toString(), "--output", directory.resolve("o.bin").toString()));
+    }
+
+    private static String run(String... args) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals(0, BatchRunner.run(args, new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private Path write(String name, double[][] rows) throws IOException {
+        Path path = directory.resolve(name);
+        try (RowSink sink = Datasets.create(path, rows[0].length)) {
+            for (double[] row : rows) {
+                sink.write(row, 1);
+            }
+        }
+        return path;
+    }
+
+    private static double[][] read(Path path) throws IOException {
+        try (RowSource source = Datasets.open(path)) {
+            List<double[]> rows = new ArrayList<>();
+            int columns = source.getColumns();
+            source.forEachBatch(16, (batch, count) -> {
+                for (int row = 0; row < count; row++) {
+                    double[] values = new double[columns];
+                    System.arraycopy(batch, row * columns, values, 0, columns);
+                    rows.add(values);
+                }
+            });
+            return rows.toArray(new double[0][]);
+        }
+    }
+
+    private static void assertRowsEqual(double[][] expected, double[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int row = 0; row < expected.length; row++) {
+            assertArrayEquals(expected[row], actual[row], "row " + row);
+        }
+    }
+}
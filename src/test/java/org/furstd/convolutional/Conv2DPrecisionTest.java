@@ -0,0 +1,77 @@
+package org.furstd.convolutional;
+
+import org.furstd.kernel.Precision;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Conv2DPrecisionTest {
+    private static final int BATCH = 3;
+    private static final int HEIGHT = 12;
+    private static final int WIDTH = 10;
+
+    @Test
+    void floatFiltersStayCloseToDouble() {
+        double[] input = random(new Random(1), BATCH * 2 * HEIGHT * WIDTH);
+        double[] expected = layer(Precision.DOUBLE).forward(input, BATCH, HEIGHT, WIDTH);
+        for (Precision precision : new Precision[]{Precision.FLOAT32, Precision.MIXED}) {
+            double[] actual = layer(precision).forward(input, BATCH, HEIGHT, WIDTH);
+            assertClose(expected, actual, 1e-5, precision);
+        }
+    }
+
+    @Test
+    void gradientStepsFollowDouble() {
+        Random random = new Random(2);
+        double[] input = random(random, BATCH * 2 * HEIGHT * WIDTH);
+        Conv2DLayer reference = layer(Precision.DOUBLE);
+        double[] gradOutput = random(random, reference.forward(input, BATCH, HEIGHT, WIDTH).length);
+
+        for (Precision precision : new Precision[]{Precision.FLOAT32, Precision.MIXED}) {
+            Conv2DLayer expected = layer(Precision.DOUBLE);
+            Conv2DLayer actual = layer(precision);
+            for (int step = 0; step < 20; step++) {
+                step(expected, input, gradOutput);
+                step(actual, input, gradOutput);
+            }
+            double[] expectedFilters = expected.getFilters();
+            float[] actualFilters = actual.getFloatFilters();
+            for (int i = 0; i < expectedFilters.length; i++) {
+                assertEquals(expectedFilters[i], actualFilters[i], 1e-5, precision + " filter " + i);
+            }
+            assertClose(expected.forward(input, BATCH, HEIGHT, WIDTH), actual.forward(input, BATCH, HEIGHT, WIDTH), 1e-4, precision);
+        }
+    }
+
+    private static void step(Conv2DLayer layer, double[] input, double[] gradOutput) {
+        layer.forward(input, BATCH, HEIGHT, WIDTH);
+        double[] filterGradients = new double[layer.getFilterWeightCount()];
+        double[] biasGradients = new double[layer.getOutChannels()];
+        layer.backward(input, BATCH, HEIGHT, WIDTH, gradOutput, filterGradients, biasGradients, null);
+        layer.applyGradients(filterGradients, biasGradients, 0.001);
+    }
+
+    // Stejné semínko dává u všech přesností stejné váhy až na zaokrouhlení na float
+    private static Conv2DLayer layer(Precision precision) {
+        Conv2DLayer layer = new Conv2DLayer(2, 4, 3, 3, 1, 1, precision);
+        layer.initializeRandom(new Random(3));
+        return layer;
+    }
+
+    private static double[] random(Random random, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble() * 2 - 1;
+        }
+        return values;
+    }
+
+    private static void assertClose(double[] expected, double[] actual, double tolerance, Precision precision) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], tolerance, precision + " output " + i);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.furstd.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRowSourceTest {
+    private static final int COLUMNS = 3;
+    private static final int ROWS = 10_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripAcrossBuffers() throws IOException {
+        double[] values = new double[ROWS * COLUMNS];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 0.5;
+        }
+        for (boolean singlePrecision : new boolean[]{false, true}) {
+            Path path = directory.resolve("rows.bin");
+            try (BinaryRowSink sink = new BinaryRowSink(path, COLUMNS, singlePrecision)) {
+                sink.write(values, ROWS);
+            }
+            try (BinaryRowSource source = new BinaryRowSource(path)) {
+                assertEquals(ROWS, source.getRowCount());
+                for (int pass = 0; pass < 2; pass++) {
+                    double[] read = new double[values.length];
+                    double[] batch = new double[777 * COLUMNS];
+                    int total = 0;
+                    int rows;
+                    while ((rows = source.read(batch, 777)) > 0) {
+                        System.arraycopy(batch, 0, read, total * COLUMNS, rows * COLUMNS);
+                        total += rows;
+                    }
+                    assertEquals(ROWS, total);
+                    assertArrayEquals(values, read);
+                    source.reset();
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyFileHasNoRows() throws IOException {
+        Path path = directory.resolve("empty.bin");
+        new BinaryRowSink(path, COLUMNS).close();
+        try (BinaryRowSource source = new BinaryRowSource(path)) {
+            assertEquals(0, source.getRowCount());
+            assertEquals(0, source.read(new double[COLUMNS], 1));
+        }
+    }
+
+    @Test
+    void corruptedHeaderIsRejected() throws IOException {
+        byte[] bytes = saved();
+        // Řádek přes 2 GB, dříve dělení nulou po přetečení int
+        assertCorrupted(header(bytes, 1 << 29, Double.BYTES));
+        assertCorrupted(header(bytes, Integer.MAX_VALUE, Float.BYTES));
+        assertCorrupted(header(bytes, 0, Double.BYTES));
+        assertCorrupted(header(bytes, COLUMNS, 2));
+        assertCorrupted(Arrays.copyOf(bytes, bytes.length - 1));
+        assertCorrupted(Arrays.copyOf(bytes, 10));
+    }
+
+    @Test
+    void hugeRowsInEmptyFileAllocateNothing() throws IOException {
+        // 100 milionů sloupců by dříve alokovalo 800 MB přímé paměti
+        Path path = directory.resolve("huge.bin");
+        Files.write(path, header(Arrays.copyOf(saved(), BinaryRowFormat.HEADER_SIZE), 100_000_000, Double.BYTES));
+        try (BinaryRowSource source = new BinaryRowSource(path)) {
+            assertEquals(0, source.getRowCount());
+        }
+    }
+
+    private void assertCorrupted(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.bin");
+        Files.write(path, bytes);
+        IOException error = assertThrows(IOException.class, () -> new BinaryRowSource(path));
+        assertTrue(error.getMessage().contains(path.toString()), error.getMessage());
+    }
+
+    private byte[] saved() throws IOException {
+        Path path = directory.resolve("saved.bin");
+        try (BinaryRowSink sink = new BinaryRowSink(path, COLUMNS)) {
+            sink.write(new double[]{1, 2, 3, 4, 5, 6}, 2);
+        }
+        return Files.readAllBytes(path);
+    }
+
+    private static byte[] header(byte[] bytes, int columns, int elementBytes) {
+        byte[] copy = bytes.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(8, columns).putInt(12, elementBytes);
+        return copy;
+    }
+}
@@ -0,0 +1,55 @@
+package org.furstd.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvRowSourceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void detectsHeaderAndRereadsAfterReset() throws IOException {
+        Path file = directory.resolve("data.csv");
+        Files.writeString(file, "a;b\r\n1;2.5\n\n  -3 ; 4e1\n");
+        try (CsvRowSource source = new CsvRowSource(file)) {
+            assertEquals(2, source.getColumns());
+            double[] batch = new double[6];
+            for (int pass = 0; pass < 2; pass++) {
+                assertEquals(2, source.read(batch, 3));
+                assertArrayEquals(new double[]{1, 2.5, -3, 40, 0, 0}, batch);
+                assertEquals(0, source.read(batch, 3));
+                source.reset();
+                batch = new double[6];
+            }
+        }
+    }
+
+    @Test
+    void whitespaceDelimitedWithoutHeader() throws IOException {
+        Path file = directory.resolve("data.txt");
+        Files.writeString(file, "1 \t 2  3\n4 5 6");
+        try (CsvRowSource source = new CsvRowSource(file)) {
+            double[] batch = new double[6];
+            assertEquals(2, source.read(batch, 2));
+            assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, batch);
+        }
+    }
+
+    @Test
+    void reportsLineOfBadRow() throws IOException {
+        Path file = directory.resolve("bad.csv");
+        Files.writeString(file, "1,2\n3\n");
+        try (CsvRowSource source = new CsvRowSource(file)) {
+            IOException error = assertThrows(IOException.class, () -> source.read(new double[4], 2));
+            assertEquals("Line 2 has 1 columns, expected 2", error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.furstd.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fuzzes DoubleParser against Double.parseDouble and Integer.parseInt: every accepted text
+ * must give the same bits, every rejected text must be rejected by both.
+ */
+class DoubleParserTest {
+    private static final int CASES = 100_000;
+    private static final String ALPHABET = "0123456789.eE+-";
+
+    private final Random random = new Random(11);
+
+    @Test
+    void formattedDoublesMatch() {
+        for (int c = 0; c < CASES; c++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            assertParsesLikeJdk(Double.toString(value));
+            assertParsesLikeJdk(String.format(Locale.ROOT, "%." + random.nextInt(20) + "f", random.nextDouble() * 2000 - 1000));
+            assertParsesLikeJdk(String.format(Locale.ROOT, "%." + random.nextInt(20) + "e", random.nextGaussian() * Math.pow(10, random.nextInt(60) - 30)));
+        }
+    }
+
+    @Test
+    void generatedNumbersMatch() {
+        for (int c = 0; c < CASES; c++) {
+            StringBuilder text = new StringBuilder();
+            if (random.nextInt(4) == 0) {
+                text.append(random.nextBoolean() ? '-' : '+');
+            }
+            appendDigits(text, random.nextInt(22));
+            if (random.nextBoolean()) {
+                text.append('.');
+                appendDigits(text, random.nextInt(22));
+            }
+            if (random.nextInt(3) == 0) {
+                text.append(random.nextBoolean() ? 'e' : 'E');
+                if (random.nextBoolean()) {
+                    text.append(random.nextBoolean() ? '-' : '+');
+                }
+                appendDigits(text, random.nextInt(4));
+            }
+            assertParsesLikeJdk(text.toString());
+        }
+    }
+
+    @Test
+    void randomTextMatches() {
+        for (int c = 0; c < CASES; c++) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertParsesLikeJdk(text.toString());
+        }
+    }
+
+    @Test
+    void specialValuesMatch() {
+        String[] texts = {"0", "-0", "+0.0", "-0.0e5", "1.", ".5", "-.5e-3", "NaN", "Infinity", "-Infinity", "1d", "2f",
+                "0x1p3", " 7 ", "9007199254740993", "123456789012345678901234567890", "1e22", "1e23", "1e-22", "1e-23",
+                "4.9e-324", "2.2250738585072014E-308", "1.7976931348623157e308", "1e309", "1e-400", "1e99999999", "", "-", ".", "e5", "1e", "1e+"};
+        for (String text : texts) {
+            assertParsesLikeJdk(text);
+        }
+    }
+
+    @Test
+    void integersMatch() {
+        for (int c = 0; c < CASES; c++) {
+            String text = switch (random.nextInt(3)) {
+                case 0 -> Integer.toString(random.nextInt());
+                case 1 -> Long.toString(random.nextLong() >> random.nextInt(64));
+                default -> (random.nextBoolean() ? "+" : "") + random.nextInt(1000);
+            };
+            byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+            Integer expected;
+            try {
+                expected = Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+            if (expected == null) {
+                assertThrows(NumberFormatException.class, () -> DoubleParser.parseInt(bytes, 0, bytes.length), text);
+            } else {
+                assertEquals(expected.intValue(), DoubleParser.parseInt(bytes, 0, bytes.length), text);
+            }
+        }
+    }
+
+    private void appendDigits(StringBuilder text, int count) {
+        for (int i = 0; i < count; i++) {
+            text.append((char) ('0' + random.nextInt(10)));
+        }
+    }
+
+    // Text se vloží doprostřed bufferu, aby se ověřily i meze from a to
+    private static void assertParsesLikeJdk(String text) {
+        byte[] bytes = ("#" + text + "#").getBytes(StandardCharsets.US_ASCII);
+        Double expected;
+        try {
+            expected = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            expected = null;
+        }
+        double actual;
+        try {
+            actual = DoubleParser.parseDouble(bytes, 1, bytes.length - 1);
+        } catch (NumberFormatException e) {
+            if (expected != null) {
+                fail("'" + text + "' rejected, expected " + expected);
+            }
+            return;
+        }
+        if (expected == null) {
+            fail("'" + text + "' parsed as " + actual + ", expected NumberFormatException");
+        }
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), "'" + text + "'");
+    }
+}
@@ -0,0 +1,42 @@
+package org.furstd.feed_forward;
+
+import org.furstd.kernel.Precision;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledPrecisionTest {
+    private static final int[] LAYERS = {32, 64, 64, 8};
+
+    @Test
+    void floatStorageStaysCloseToDouble() {
+        Random random = new Random(1);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        double[][] inputs = TestNetworks.inputs(random, 100, LAYERS[0]);
+
+        CompiledNetwork reference = network.compile(Precision.DOUBLE);
+        double[][] expected = reference.computeResponses(inputs);
+        // MIXED sčítá v double, proto musí být přesnější než FLOAT32
+        assertClose(expected, network.compile(Precision.FLOAT32).computeResponses(inputs), 1e-4);
+        assertClose(expected, network.compile(Precision.MIXED).computeResponses(inputs), 1e-5);
+    }
+
+    @Test
+    void floatStorageHalvesWeightBytes() {
+        FeedForwardNetwork network = TestNetworks.network(new Random(2), LAYERS);
+        long weights = (33L * 64 + 65 * 64 + 65 * 8);
+        assertEquals(weights * Double.BYTES, network.compile(Precision.DOUBLE).getWeightBytes());
+        assertEquals(weights * Float.BYTES, network.compile(Precision.FLOAT32).getWeightBytes());
+        assertEquals(weights * Float.BYTES, network.compile(Precision.MIXED).getWeightBytes());
+    }
+
+    private static void assertClose(double[][] expected, double[][] actual, double tolerance) {
+        for (int row = 0; row < expected.length; row++) {
+            for (int k = 0; k < expected[row].length; k++) {
+                assertEquals(expected[row][k], actual[row][k], tolerance, "row " + row + ", output " + k);
+            }
+        }
+    }
+}
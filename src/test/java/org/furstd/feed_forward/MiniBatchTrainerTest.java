@@ -0,0 +1,61 @@
+package org.furstd.feed_forward;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MiniBatchTrainerTest {
+    @Test
+    void sameSeedGivesSameWeightsForAnyPoolSize() {
+        double[][][] expected = null;
+        for (int parallelism : new int[]{1, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                double[][][] weights = train(pool, 0);
+                if (expected == null) {
+                    expected = weights;
+                } else {
+                    assertTrue(Arrays.deepEquals(expected, weights), "parallelism " + parallelism);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void partitionCountStaysTunable() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            double[][][] sixteen = train(pool, 16);
+            assertTrue(Arrays.deepEquals(train(pool, 0), sixteen));
+            // Jiný počet oddílů sčítá gradienty v jiném pořadí
+            assertFalse(Arrays.deepEquals(train(pool, 3), sixteen));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // partitions = 0 ponechá výchozí počet
+    private static double[][][] train(ForkJoinPool pool, int partitions) {
+        Random random = new Random(1);
+        FeedForwardNetwork network = TestNetworks.network(random, 4, 16, 2);
+        double[][] inputs = TestNetworks.inputs(random, 256, 4);
+        double[][] targets = new double[256][2];
+        for (int row = 0; row < inputs.length; row++) {
+            targets[row][0] = Math.sin(inputs[row][0] + inputs[row][1]);
+            targets[row][1] = inputs[row][2] * inputs[row][3];
+        }
+        MiniBatchTrainer trainer = new MiniBatchTrainer(network, pool);
+        if (partitions > 0) {
+            trainer.setPartitions(partitions);
+        }
+        trainer.train(inputs, targets, 64, 3, 0.05);
+        return network.getWeights();
+    }
+}
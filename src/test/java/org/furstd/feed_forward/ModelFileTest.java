@@ -0,0 +1,113 @@
+package org.furstd.feed_forward;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every corrupted header must end in an IOException naming the file, never in a runtime
+ * exception from array allocation or enum lookup.
+ */
+class ModelFileTest {
+    private static final int[] LAYERS = {3, 5, 2};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrip() throws IOException {
+        FeedForwardNetwork network = TestNetworks.network(new Random(5), LAYERS);
+        Path path = directory.resolve("model.bin");
+        ModelFile.save(network, path);
+
+        FeedForwardNetwork loaded = ModelFile.load(path);
+        assertEquals(network.getNumericMode(), loaded.getNumericMode());
+        assertTrue(Arrays.deepEquals(network.getWeights(), loaded.getWeights()));
+        double[] input = {0.1, -0.4, 0.7};
+        assertArrayEquals(network.compile().computeResponses(new double[][]{input})[0], loaded.compile().computeResponses(new double[][]{input})[0]);
+    }
+
+    @Test
+    void corruptedLayerCountIsRejected() throws IOException {
+        assertCorrupted(putInt(saved(), 8, Integer.MAX_VALUE));
+        assertCorrupted(putInt(saved(), 8, -3));
+    }
+
+    @Test
+    void corruptedLayerSizeIsRejected() throws IOException {
+        assertCorrupted(putInt(saved(), 12, -1));
+        assertCorrupted(putInt(saved(), 16, 0));
+        assertCorrupted(putInt(saved(), 16, Integer.MAX_VALUE));
+        assertCorrupted(putInt(saved(), 20, Integer.MAX_VALUE));
+        // Velikost vrstvy v bajtech přeteče long
+        assertCorrupted(putInt(putInt(saved(), 12, Integer.MAX_VALUE), 16, 1 << 30));
+        assertCorrupted(putInt(putInt(saved(), 16, Integer.MAX_VALUE), 20, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void unknownNamesAreRejected() throws IOException {
+        // První jméno aktivace začíná hned za velikostmi vrstev
+        int firstName = 12 + Integer.BYTES * LAYERS.length;
+        byte[] activation = saved();
+        activation[firstName + Short.BYTES] = 'X';
+        assertCorrupted(activation);
+
+        byte[] negativeLength = saved();
+        ByteBuffer.wrap(negativeLength).order(ByteOrder.LITTLE_ENDIAN).putShort(firstName, (short) -1);
+        assertCorrupted(negativeLength);
+
+        byte[] mode = saved();
+        String name = new FeedForwardNetwork().getNumericMode().name();
+        int modeName = indexOf(mode, name);
+        mode[modeName] = 'X';
+        assertCorrupted(mode);
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = saved();
+        for (int length : new int[]{0, 6, 14, 40, bytes.length - 1}) {
+            assertCorrupted(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    private void assertCorrupted(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.bin");
+        Files.write(path, bytes);
+        IOException error = assertThrows(IOException.class, () -> ModelFile.load(path));
+        assertTrue(error.getMessage().contains(path.toString()), error.getMessage());
+    }
+
+    private byte[] saved() throws IOException {
+        Path path = directory.resolve("saved.bin");
+        ModelFile.save(TestNetworks.network(new Random(5), LAYERS), path);
+        return Files.readAllBytes(path);
+    }
+
+    private static byte[] putInt(byte[] bytes, int offset, int value) {
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return bytes;
+    }
+
+    private static int indexOf(byte[] bytes, String text) {
+        byte[] pattern = text.getBytes();
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(text);
+    }
+}
@@ -0,0 +1,227 @@
+package org.furstd.feed_forward;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Both numeric modes against the original String-based implementation on a corpus of
+ * random textbook networks: tanh hidden layers, a linear output layer and weights with
+ * three decimals. TEXTBOOK must match bit for bit, EXACT must match the same algorithm
+ * without rounding up to the summation order.
+ */
+class NumericModeRegressionTest {
+    private static final int NETWORKS = 300;
+    private static final int STEPS = 5;
+    private static final double ALPHA = 0.1;
+
+    @Test
+    void textbookMatchesStringRounding() {
+        runCorpus(NumericMode.TEXTBOOK, NumericModeRegressionTest::roundAsString, 0);
+    }
+
+    @Test
+    void exactMatchesUnroundedReference() {
+        runCorpus(NumericMode.EXACT, value -> value, 1e-12);
+    }
+
+    @Test
+    void textbookAgreesWithStringRoundingOnBoundaries() {
+        double[] values = {0.99, 0.9899999, 0.98951, 0.9896, 0.999999, 1.0, -0.99, -0.9896, -1.0, 0.0005, -0.0005, 0.0015, 2.4995, 123.4567};
+        for (double value : values) {
+            assertEquals(roundAsString(value), NumericMode.TEXTBOOK.apply(value), "value " + value);
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000_000; i++) {
+            double value = (random.nextDouble() * 2 - 1) * (random.nextBoolean() ? 1.01 : 10);
+            assertEquals(roundAsString(value), NumericMode.TEXTBOOK.apply(value), "value " + value);
+        }
+    }
+
+    @Test
+    void linearLayerIsRoundedOnlyOnce() {
+        FeedForwardNetwork network = network(new int[]{1, 1}, new double[][][]{{{0}, {0.9896}}}, NumericMode.TEXTBOOK);
+        network.addX(1);
+        network.computeResponse();
+
+        LayerData output = network.getLayersData().get(0);
+        assertEquals(0.99, output.getYa()[0]);
+        assertEquals(0.99, output.getY()[0]);
+
+        double[] compiled = new double[1];
+        network.compile().computeResponses(new double[]{1}, 1, compiled, new InferenceWorkspace());
+        assertEquals(0.99, compiled[0]);
+    }
+
+    private static void runCorpus(NumericMode mode, DoubleUnaryOperator rounding, double tolerance) {
+        Random random = new Random(42);
+        for (int n = 0; n < NETWORKS; n++) {
+            int layers = 2 + random.nextInt(2);
+            int[] sizes = new int[layers + 1];
+            sizes[0] = 1 + random.nextInt(4);
+            for (int l = 1; l <= layers; l++) {
+                // Původní aktualizace vah prochází jen tolik řádků, kolik má vrstva neuronů
+                sizes[l] = 1 + random.nextInt(sizes[l - 1] + 1);
+            }
+            double[][][] weights = new double[layers][][];
+            for (int l = 0; l < layers; l++) {
+                weights[l] = new double[sizes[l] + 1][sizes[l + 1]];
+                for (double[] row : weights[l]) {
+                    for (int k = 0; k < row.length; k++) {
+                        row[k] = threeDecimals(random, 1);
+                    }
+                }
+            }
+            double[] x = new double[sizes[0]];
+            double[] t = new double[sizes[layers]];
+            for (int i = 0; i < x.length; i++) {
+                x[i] = threeDecimals(random, 2);
+            }
+            for (int i = 0; i < t.length; i++) {
+                t[i] = threeDecimals(random, 1);
+            }
+
+            FeedForwardNetwork network = network(sizes, copy(weights), mode);
+            for (double value : x) {
+                network.addX(value);
+            }
+            Reference reference = new Reference(copy(weights), rounding);
+            for (int step = 0; step < STEPS; step++) {
+                network.computeResponse();
+                double[][] expectedY = reference.computeResponse(x);
+                for (int l = 0; l < layers; l++) {
+                    assertArrayEquals(expectedY[l], network.getLayersData().get(l).getY(), tolerance, "network " + n + " step " + step + " layer " + l);
+                }
+
+                double[] compiled = new double[t.length];
+                network.compile().computeResponses(x, 1, compiled, new InferenceWorkspace());
+                assertArrayEquals(expectedY[layers - 1], compiled, tolerance, "compiled network " + n + " step " + step);
+
+                network.computeBGD(t, ALPHA);
+                reference.computeBGD(x, t, ALPHA);
+                for (int l = 0; l < layers; l++) {
+                    for (int r = 0; r < weights[l].length; r++) {
+                        assertArrayEquals(reference.weights[l][r], network.getWeights()[l][r], tolerance, "network " + n + " step " + step + " weights " + l);
+                    }
+                }
+            }
+        }
+    }
+
+    private static FeedForwardNetwork network(int[] sizes, double[][][] weights, NumericMode mode) {
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        for (int l = 1; l < sizes.length; l++) {
+            LayerData layerData = new LayerData();
+            layerData.setNeuronCount(sizes[l]);
+            layerData.setActivationFunction(l == sizes.length - 1 ? ActivationFunction.LINEAR_IDENT : ActivationFunction.HYPERBOLIC_TANGENT);
+            network.addLayerData(layerData);
+        }
+        network.setWeights(weights);
+        network.setNumericMode(mode);
+        return network;
+    }
+
+    private static double threeDecimals(Random random, double range) {
+        return Math.round((random.nextDouble() * 2 - 1) * range * 1000) / 1000.0;
+    }
+
+    private static double[][][] copy(double[][][] weights) {
+        double[][][] copy = new double[weights.length][][];
+        for (int l = 0; l < weights.length; l++) {
+            copy[l] = new double[weights[l].length][];
+            for (int r = 0; r < weights[l].length; r++) {
+                copy[l][r] = weights[l][r].clone();
+            }
+        }
+        return copy;
+    }
+
+    // Původní roundTo4DecimalPlaces
+    private static double roundAsString(double value) {
+        String valueStr = String.valueOf(value);
+        if (valueStr.startsWith("0.99")) {
+            return 1;
+        } else if (valueStr.startsWith("-0.99")) {
+            return -1;
+        }
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    // Původní computeResponse a computeBGD bez výpisů, s volitelným zaokrouhlováním
+    private static final class Reference {
+        private final double[][][] weights;
+        private final DoubleUnaryOperator rounding;
+        private double[][] y;
+        private double[][] localGradients;
+
+        Reference(double[][][] weights, DoubleUnaryOperator rounding) {
+            this.weights = weights;
+            this.rounding = rounding;
+        }
+
+        double[][] computeResponse(double[] x) {
+            y = new double[weights.length][];
+            double[] input = x;
+            for (int layer = 0; layer < weights.length; layer++) {
+                input = withBias(input);
+                double[] output = new double[weights[layer][0].length];
+                for (int j = 0; j < output.length; j++) {
+                    for (int k = 0; k < input.length; k++) {
+                        output[j] += input[k] * weights[layer][k][j];
+                    }
+                    output[j] = rounding.applyAsDouble(output[j]);
+                }
+                if (layer < weights.length - 1) {
+                    for (int j = 0; j < output.length; j++) {
+                        output[j] = rounding.applyAsDouble(Math.tanh(output[j]));
+                    }
+                }
+                y[layer] = output;
+                input = output;
+            }
+            return y;
+        }
+
+        void computeBGD(double[] x, double[] t, double alpha) {
+            int last = weights.length - 1;
+            double[] e = new double[t.length];
+            for (int i = 0; i < t.length; i++) {
+                e[i] = rounding.applyAsDouble(t[i] - y[last][i]);
+            }
+
+            localGradients = new double[weights.length][];
+            localGradients[last] = e;
+            for (int layer = last - 1; layer >= 0; layer--) {
+                localGradients[layer] = new double[y[layer].length];
+                for (int neuron = 0; neuron < y[layer].length; neuron++) {
+                    double derivation = rounding.applyAsDouble(1 - Math.pow(y[layer][neuron], 2));
+                    double sum = 0;
+                    for (int i = 0; i < y[layer + 1].length; i++) {
+                        sum += localGradients[layer + 1][i] * weights[layer + 1][neuron + 1][i];
+                    }
+                    localGradients[layer][neuron] = rounding.applyAsDouble(derivation * sum);
+                }
+            }
+
+            for (int layer = last; layer >= 0; layer--) {
+                double[] previousY = withBias(layer == 0 ? x : y[layer - 1]);
+                for (int neuron = 0; neuron < y[layer].length; neuron++) {
+                    for (int i = 0; i < y[layer].length; i++) {
+                        weights[layer][neuron][i] += rounding.applyAsDouble(alpha * localGradients[layer][i] * previousY[neuron]);
+                    }
+                }
+            }
+        }
+
+        private static double[] withBias(double[] input) {
+            double[] withBias = new double[input.length + 1];
+            withBias[0] = 1;
+            System.arraycopy(input, 0, withBias, 1, input.length);
+            return withBias;
+        }
+    }
+}
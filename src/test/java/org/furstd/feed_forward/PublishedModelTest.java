@@ -0,0 +1,135 @@
+package org.furstd.feed_forward;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A snapshot shared by many threads, each with its own workspace, must give exactly the
+ * results of a single-threaded run, and a reader must never see a mix of two snapshots.
+ */
+class PublishedModelTest {
+    private static final int THREADS = 8;
+    private static final int CALLS = 300;
+    private static final int[] LAYERS = {6, 40, 3};
+
+    @Test
+    void sharedSnapshotMatchesSingleThread() throws Exception {
+        Random random = new Random(1);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        double[][] inputs = TestNetworks.inputs(random, 200, LAYERS[0]);
+        double[][] expected = network.compile().computeResponses(inputs);
+        PublishedModel model = new PublishedModel(network.compile());
+
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                results.add(executor.submit(() -> {
+                    Random local = new Random(seed);
+                    InferenceWorkspace workspace = new InferenceWorkspace();
+                    for (int call = 0; call < CALLS; call++) {
+                        // Střídají se jednotlivé řádky a dávky přes hranici bloku řádků
+                        int first = local.nextInt(inputs.length);
+                        int rows = local.nextBoolean() ? 1 : 1 + local.nextInt(inputs.length - first);
+                        double[] packed = new double[rows * network.getNumberOfInputs()];
+                        for (int r = 0; r < rows; r++) {
+                            System.arraycopy(inputs[first + r], 0, packed, r * network.getNumberOfInputs(), network.getNumberOfInputs());
+                        }
+                        int outputs = expected[0].length;
+                        double[] actual = new double[rows * outputs];
+                        model.computeResponses(packed, rows, actual, workspace);
+                        for (int r = 0; r < rows; r++) {
+                            double[] row = new double[outputs];
+                            System.arraycopy(actual, r * outputs, row, 0, outputs);
+                            assertArrayEquals(expected[first + r], row);
+                        }
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+    }
+
+    @Test
+    void readersSeeWholeSnapshotsWhilePublishing() throws Exception {
+        Random random = new Random(2);
+        FeedForwardNetwork a = TestNetworks.network(random, LAYERS);
+        FeedForwardNetwork b = TestNetworks.network(random, LAYERS);
+        double[] input = TestNetworks.inputs(random, 1, LAYERS[0])[0];
+        CompiledNetwork snapshotA = a.compile();
+        CompiledNetwork snapshotB = b.compile();
+        double[] expectedA = snapshotA.computeResponses(new double[][]{input})[0];
+        double[] expectedB = snapshotB.computeResponses(new double[][]{input})[0];
+        PublishedModel model = new PublishedModel(snapshotA);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<Integer>> readers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < THREADS; t++) {
+                readers.add(executor.submit(() -> {
+                    InferenceWorkspace workspace = new InferenceWorkspace();
+                    int calls = 0;
+                    while (running.get() || calls == 0) {
+                        double[] output = model.computeResponse(input, workspace);
+                        assertTrue(Arrays.equals(output, expectedA) || Arrays.equals(output, expectedB));
+                        calls++;
+                    }
+                    return calls;
+                }));
+            }
+            for (int i = 0; i < 200; i++) {
+                model.publish(i % 2 == 0 ? snapshotB : snapshotA);
+                Thread.yield();
+            }
+            running.set(false);
+        }
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get() > 0);
+        }
+        assertEquals(200, model.getVersion());
+    }
+
+    @Test
+    void publishRejectsDifferentShape() {
+        Random random = new Random(3);
+        PublishedModel model = new PublishedModel(TestNetworks.network(random, LAYERS).compile());
+        FeedForwardNetwork other = TestNetworks.network(random, 5, 4, 3);
+        assertThrows(IllegalArgumentException.class, () -> model.publish(other));
+        assertEquals(0, model.getVersion());
+    }
+
+    @Test
+    void trainerPublishesEveryEpoch() {
+        Random random = new Random(4);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        PublishedModel model = new PublishedModel(network.compile());
+        double[][] inputs = TestNetworks.inputs(random, 64, LAYERS[0]);
+        double[][] targets = new double[inputs.length][3];
+        for (int i = 0; i < inputs.length; i++) {
+            targets[i][0] = Math.sin(inputs[i][0]);
+        }
+
+        MiniBatchTrainer trainer = new MiniBatchTrainer(network);
+        trainer.setPublishTarget(model);
+        trainer.train(inputs, targets, 16, 3, 0.05);
+
+        assertEquals(3, model.getVersion());
+        assertArrayEquals(network.compile().computeResponses(inputs)[0], model.computeResponse(inputs[0], new InferenceWorkspace()));
+    }
+}
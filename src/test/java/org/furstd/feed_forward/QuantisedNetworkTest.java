@@ -0,0 +1,99 @@
+package org.furstd.feed_forward;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantisedNetworkTest {
+    private static final int[] LAYERS = {16, 48, 48, 6};
+
+    @Test
+    void quantisedOutputStaysCloseToDouble() {
+        Random random = new Random(1);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        double[][] calibration = TestNetworks.inputs(random, 200, LAYERS[0]);
+        double[][] test = TestNetworks.inputs(random, 500, LAYERS[0]);
+
+        for (QuantisationMode mode : QuantisationMode.values()) {
+            QuantisationReport report = network.quantise(calibration, mode).compare(network, test);
+            assertTrue(report.getMaxAbsoluteError() < 0.05, mode + ": " + report);
+            assertTrue(report.getArgmaxAgreement() >= 0.95, mode + ": " + report);
+            assertTrue(report.getQuantisedBytes() * 3 < report.getReferenceBytes(), mode + ": " + report);
+        }
+    }
+
+    @Test
+    void perChannelScalesHelpUnevenNeurons() {
+        Random random = new Random(2);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        // Jeden výstupní neuron má o dva řády menší váhy než ostatní
+        for (double[] row : network.getWeights()[LAYERS.length - 2]) {
+            row[0] *= 0.01;
+        }
+        double[][] calibration = TestNetworks.inputs(random, 200, LAYERS[0]);
+        double[][] test = TestNetworks.inputs(random, 500, LAYERS[0]);
+
+        double perLayer = network.quantise(calibration, QuantisationMode.PER_LAYER).compare(network, test).getMeanAbsoluteError();
+        double perChannel = network.quantise(calibration, QuantisationMode.PER_CHANNEL).compare(network, test).getMeanAbsoluteError();
+        assertTrue(perChannel < perLayer, perChannel + " >= " + perLayer);
+    }
+
+    @Test
+    void largeBiasDoesNotOverflow() {
+        FeedForwardNetwork network = TestNetworks.network(new Random(5), 4, 1);
+        double[][] w = network.getWeights()[0];
+        w[0][0] = 20;
+        for (int j = 1; j < w.length; j++) {
+            w[j][0] = 0.01;
+        }
+        double[][] calibration = new double[10][4];
+        for (double[] row : calibration) {
+            Arrays.fill(row, 0.01);
+        }
+        double expected = network.compile().computeResponses(calibration)[0][0];
+        assertEquals(expected, network.quantise(calibration, QuantisationMode.PER_LAYER).computeResponse(calibration[0])[0], 1e-3);
+    }
+
+    @Test
+    void wideLayerDoesNotOverflowAccumulator() {
+        // 127 * 127 * 140 000 je víc než Integer.MAX_VALUE
+        int inputs = 140_000;
+        FeedForwardNetwork network = TestNetworks.network(new Random(5), inputs, 1);
+        for (double[] row : network.getWeights()[0]) {
+            row[0] = 1;
+        }
+        double[] input = new double[inputs];
+        Arrays.fill(input, 1);
+        QuantisedNetwork quantised = network.quantise(new double[][]{input}, QuantisationMode.PER_LAYER);
+        assertEquals(inputs + 1, quantised.computeResponse(input)[0], 1e-6 * inputs);
+    }
+
+    @Test
+    void batchesMatchSingleRows() {
+        Random random = new Random(3);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        QuantisedNetwork quantised = network.quantise(TestNetworks.inputs(random, 50, LAYERS[0]), QuantisationMode.PER_CHANNEL);
+        // Víc řádků než jeden blok, poslední blok je neúplný
+        double[][] inputs = TestNetworks.inputs(random, 70, LAYERS[0]);
+        double[][] batch = quantised.computeResponses(inputs);
+        for (int row = 0; row < inputs.length; row++) {
+            assertArrayEquals(quantised.computeResponse(inputs[row]), batch[row], "row " + row);
+        }
+    }
+
+    @Test
+    void invalidInputsAreRejected() {
+        Random random = new Random(4);
+        FeedForwardNetwork network = TestNetworks.network(random, LAYERS);
+        assertThrows(IllegalArgumentException.class, () -> network.quantise(new double[0][], QuantisationMode.PER_LAYER));
+        assertThrows(IllegalArgumentException.class, () -> network.quantise(new double[][]{new double[3]}, QuantisationMode.PER_LAYER));
+        QuantisedNetwork quantised = network.quantise(TestNetworks.inputs(random, 10, LAYERS[0]), QuantisationMode.PER_LAYER);
+        assertThrows(IllegalArgumentException.class, () -> quantised.computeResponse(new double[3]));
+    }
+}
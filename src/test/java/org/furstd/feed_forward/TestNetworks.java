@@ -0,0 +1,35 @@
+package org.furstd.feed_forward;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Random networks and inputs shared by the tests. Public, so tests of other packages
+ * (tracing, serving) build the same networks.
+ */
+public final class TestNetworks {
+
+    private TestNetworks() {
+    }
+
+    // Skryté vrstvy tanh, výstupní vrstva lineární
+    public static FeedForwardNetwork network(Random random, int... layers) {
+        ActivationFunction[] activations = new ActivationFunction[layers.length - 1];
+        Arrays.fill(activations, ActivationFunction.HYPERBOLIC_TANGENT);
+        activations[activations.length - 1] = ActivationFunction.LINEAR_IDENT;
+        FeedForwardNetwork network = new FeedForwardNetwork();
+        network.initializeRandom(layers, activations, random);
+        return network;
+    }
+
+    // Hodnoty rovnoměrně z [-1, 1)
+    public static double[][] inputs(Random random, int rows, int columns) {
+        double[][] inputs = new double[rows][columns];
+        for (double[] row : inputs) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,62 @@
+package org.furstd.hopfield;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HopfieldFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrip() throws IOException {
+        HopfieldNetwork network = network();
+        Path path = directory.resolve("net.hop");
+        HopfieldFile.save(network, path);
+        assertArrayEquals(network.getWeightMatrix(), HopfieldFile.load(path).getWeightMatrix());
+        assertArrayEquals(network.getWeightMatrix(), HopfieldFile.load(path, WeightStorage.SPARSE).getWeightMatrix());
+    }
+
+    @Test
+    void corruptedHeaderIsRejected() throws IOException {
+        byte[] bytes = saved();
+        // size * size * 4 přeteče long
+        for (int size : new int[]{Integer.MAX_VALUE, 1 << 16, 0, -5}) {
+            byte[] corrupted = bytes.clone();
+            ByteBuffer.wrap(corrupted).order(ByteOrder.LITTLE_ENDIAN).putInt(8, size);
+            assertCorrupted(corrupted);
+        }
+        assertCorrupted(Arrays.copyOf(bytes, bytes.length - 1));
+        assertCorrupted(Arrays.copyOf(bytes, 10));
+    }
+
+    private void assertCorrupted(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.hop");
+        Files.write(path, bytes);
+        IOException error = assertThrows(IOException.class, () -> HopfieldFile.load(path));
+        assertTrue(error.getMessage().contains(path.toString()), error.getMessage());
+    }
+
+    private byte[] saved() throws IOException {
+        Path path = directory.resolve("saved.hop");
+        HopfieldFile.save(network(), path);
+        return Files.readAllBytes(path);
+    }
+
+    private static HopfieldNetwork network() {
+        HopfieldNetwork network = new HopfieldNetwork(6);
+        network.addPatterns(List.of(new int[]{1, -1, 1, -1, 1, -1}, new int[]{1, 1, -1, -1, 1, 1}));
+        return network;
+    }
+}
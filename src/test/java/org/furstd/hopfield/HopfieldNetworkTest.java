@@ -0,0 +1,140 @@
+package org.furstd.hopfield;
+
+import org.furstd.dataset.Datasets;
+import org.furstd.dataset.RowSink;
+import org.furstd.dataset.RowSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HopfieldNetworkTest {
+    private static final int SIZE = 256;
+
+    @Test
+    void sparseWeightsRejectRuleChange() {
+        HopfieldNetwork network = new HopfieldNetwork(3, WeightStorage.SPARSE);
+        network.setWeightsDirectly(new int[][]{{0, 1, 0}, {1, 0, -1}, {0, -1, 0}});
+        assertThrows(IllegalStateException.class, () -> network.setLearningRule(LearningRule.STORKEY));
+        assertArrayEquals(new int[]{1, 1, -1}, network.recall(new int[]{1, 1, -1}));
+    }
+
+    @Test
+    void directDenseWeightsAreCopiedAndKept() {
+        int[][] weights = {{0, 1, -1}, {1, 0, -1}, {-1, -1, 0}};
+        int[][] original = {weights[0].clone(), weights[1].clone(), weights[2].clone()};
+        HopfieldNetwork network = new HopfieldNetwork(3);
+        network.setWeightsDirectly(weights);
+
+        assertThrows(IllegalStateException.class, () -> network.setLearningRule(LearningRule.PSEUDO_INVERSE));
+        network.addPattern(new int[]{1, -1, 1});
+        assertArrayEquals(original, weights);
+        assertEquals(0, network.getWeightMatrix()[0][1]);
+    }
+
+    @Test
+    void directWeightsRejectRebuildingRules() {
+        HopfieldNetwork network = new HopfieldNetwork(3);
+        network.setLearningRule(LearningRule.STORKEY);
+        network.setWeightsDirectly(new int[][]{{0, 1, 0}, {1, 0, 0}, {0, 0, 0}});
+        assertThrows(IllegalStateException.class, () -> network.addPattern(new int[]{1, 1, 1}));
+        assertEquals(1, network.getWeightMatrix()[0][1]);
+    }
+
+    @Test
+    void lowRankParallelRecallUsesPoolAndMatchesDense() {
+        List<int[]> patterns = patterns(12, new Random(5));
+        HopfieldNetwork dense = new HopfieldNetwork(SIZE);
+        HopfieldNetwork lowRank = new HopfieldNetwork(SIZE, WeightStorage.LOW_RANK);
+        dense.addPatterns(patterns);
+        lowRank.addPatterns(patterns);
+
+        AtomicInteger workers = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(2, p -> {
+            workers.incrementAndGet();
+            return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        }, null, false);
+        try {
+            lowRank.setPool(pool);
+            lowRank.setUpdateSchedule(UpdateSchedule.PARALLEL_SYNCHRONOUS);
+            for (int[] probe : patterns(20, new Random(6))) {
+                assertArrayEquals(dense.recall(probe), lowRank.recall(probe));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(workers.get() > 0, "pool was not used");
+    }
+
+    @Test
+    void lowRankMatchesDenseForNonBipolarPatterns() {
+        // Vzory 0/1 a s hodnotami mimo +-1, diagonála už není počet vzorů
+        Random random = new Random(7);
+        List<int[]> patterns = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            int[] pattern = new int[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                pattern[i] = p % 2 == 0 ? random.nextInt(2) : random.nextInt(5) - 2;
+            }
+            patterns.add(pattern);
+        }
+        HopfieldNetwork dense = new HopfieldNetwork(SIZE);
+        HopfieldNetwork lowRank = new HopfieldNetwork(SIZE, WeightStorage.LOW_RANK);
+        dense.addPatterns(patterns.subList(0, 4));
+        lowRank.addPatterns(patterns.subList(0, 4));
+        for (int[] pattern : patterns.subList(4, 8)) {
+            dense.addPattern(pattern);
+            lowRank.addPattern(pattern);
+        }
+        dense.removePattern(2);
+        lowRank.removePattern(2);
+
+        assertArrayEquals(dense.getWeightMatrix(), lowRank.getWeightMatrix());
+        for (UpdateSchedule schedule : new UpdateSchedule[]{UpdateSchedule.SYNCHRONOUS, UpdateSchedule.ASYNCHRONOUS}) {
+            dense.setUpdateSchedule(schedule);
+            lowRank.setUpdateSchedule(schedule);
+            for (int[] probe : patterns(10, new Random(8))) {
+                assertEquals(dense.energy(probe), lowRank.energy(probe));
+                assertArrayEquals(dense.recall(probe), lowRank.recall(probe), schedule.toString());
+            }
+        }
+    }
+
+    @Test
+    void streamedRecallRejectsNonBipolarValues(@TempDir Path directory) throws IOException {
+        HopfieldNetwork network = new HopfieldNetwork(3);
+        network.addPattern(new int[]{1, -1, 1});
+        Path data = directory.resolve("probes.csv");
+        Files.writeString(data, "1;-1;1\n1;0.7;-1\n");
+        try (RowSource source = Datasets.open(data);
+             RowSink sink = Datasets.create(directory.resolve("recalled.bin"), 3)) {
+            // (int) by z 0.7 udělal 0, řádek se musí odmítnout
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> network.recall(source, 1, sink));
+            assertTrue(error.getMessage().startsWith("Row 1:"), error.getMessage());
+        }
+    }
+
+    private static List<int[]> patterns(int count, Random random) {
+        List<int[]> patterns = new ArrayList<>();
+        for (int p = 0; p < count; p++) {
+            int[] pattern = new int[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                pattern[i] = random.nextBoolean() ? 1 : -1;
+            }
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+}
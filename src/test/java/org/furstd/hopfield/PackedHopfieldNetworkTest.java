@@ -0,0 +1,49 @@
+package org.furstd.hopfield;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PackedHopfieldNetworkTest {
+    @Test
+    void matchesSynchronousRecall() {
+        Random random = new Random(1);
+        List<int[]> patterns = new ArrayList<>();
+        for (int p = 0; p < 6; p++) {
+            patterns.add(pattern(random, 100));
+        }
+        HopfieldNetwork network = new HopfieldNetwork(100);
+        network.addPatterns(patterns);
+        PackedHopfieldNetwork packed = PackedHopfieldNetwork.fromWeights(network.getWeightMatrix());
+        for (int trial = 0; trial < 50; trial++) {
+            int[] probe = pattern(random, 100);
+            assertArrayEquals(network.recall(probe), packed.recall(probe));
+        }
+    }
+
+    @Test
+    void oscillationStopsAtDefaultLimit() {
+        // Dva neurony s zápornou vazbou se synchronně střídají mezi [1, 1] a [-1, -1]
+        int[][] weights = {{0, -1}, {-1, 0}};
+        HopfieldNetwork network = new HopfieldNetwork(2);
+        network.setWeightsDirectly(weights);
+        PackedHopfieldNetwork packed = PackedHopfieldNetwork.fromWeights(weights);
+        int[] probe = {1, 1};
+        int[] recalled = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> packed.recall(probe));
+        assertArrayEquals(network.recall(probe), recalled);
+    }
+
+    private static int[] pattern(Random random, int size) {
+        int[] pattern = new int[size];
+        for (int i = 0; i < size; i++) {
+            pattern[i] = random.nextBoolean() ? 1 : -1;
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,65 @@
+package org.furstd.hopfield;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeightSolverTest {
+    private static final int SIZE = 96;
+
+    @Test
+    void storkeyIsSymmetricWithZeroDiagonal() {
+        assertSymmetric(WeightSolver.storkey(patterns(12, 1), SIZE));
+    }
+
+    @Test
+    void pseudoInverseIsSymmetricWithZeroDiagonal() {
+        assertSymmetric(WeightSolver.pseudoInverse(patterns(40, 2), SIZE));
+    }
+
+    @Test
+    void realValuedRulesKeepStoredPatternsAsFixedPoints() {
+        for (LearningRule rule : new LearningRule[]{LearningRule.STORKEY, LearningRule.PSEUDO_INVERSE}) {
+            HopfieldNetwork network = new HopfieldNetwork(SIZE);
+            network.setLearningRule(rule);
+            List<int[]> stored = new ArrayList<>(List.of(patterns(8, 3)));
+            network.addPatterns(stored);
+            network.setUpdateSchedule(UpdateSchedule.ASYNCHRONOUS);
+
+            int[][] matrix = network.getWeightMatrix();
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    assertEquals(matrix[i][j], matrix[j][i], rule + " w[" + i + "][" + j + "]");
+                }
+            }
+            for (int[] pattern : stored) {
+                assertArrayEquals(pattern, network.recall(pattern), rule.toString());
+            }
+        }
+    }
+
+    private static void assertSymmetric(double[] w) {
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(0, w[i * SIZE + i]);
+            for (int j = i + 1; j < SIZE; j++) {
+                assertEquals(w[i * SIZE + j], w[j * SIZE + i], "w[" + i + "][" + j + "]");
+            }
+        }
+    }
+
+    private static int[][] patterns(int count, long seed) {
+        Random random = new Random(seed);
+        int[][] patterns = new int[count][SIZE];
+        for (int[] pattern : patterns) {
+            for (int i = 0; i < SIZE; i++) {
+                pattern[i] = random.nextBoolean() ? 1 : -1;
+            }
+        }
+        return patterns;
+    }
+}
@@ -0,0 +1,137 @@
+package org.furstd.kernel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SimdKernel against ScalarKernel on random lengths and offsets, so both the vector loop
+ * and the scalar tail are covered. Reductions may differ in the last bits because of the
+ * lane order, axpy and the integer dots must be identical.
+ */
+class KernelEquivalenceTest {
+    private static final int CASES = 2000;
+    private static final int MAX_LENGTH = 300;
+
+    private final VectorKernel simd = new SimdKernel();
+    private final VectorKernel scalar = new ScalarKernel();
+    private final Random random = new Random(7);
+
+    @Test
+    void doubleOperations() {
+        for (int c = 0; c < CASES; c++) {
+            int length = random.nextInt(MAX_LENGTH);
+            int aOffset = random.nextInt(8);
+            int bOffset = random.nextInt(8);
+            double[] a = doubles(aOffset + length);
+            double[] b = doubles(bOffset + length);
+            double sum = random.nextDouble();
+
+            assertClose(scalar.dotAdd(sum, a, aOffset, b, bOffset, length), simd.dotAdd(sum, a, aOffset, b, bOffset, length), length, 1e-12);
+            assertClose(scalar.squaredDistance(a, aOffset, b, bOffset, length), simd.squaredDistance(a, aOffset, b, bOffset, length), length, 1e-12);
+
+            double[] expected = b.clone();
+            double[] actual = b.clone();
+            scalar.axpy(sum, a, aOffset, expected, bOffset, length);
+            simd.axpy(sum, a, aOffset, actual, bOffset, length);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void floatOperations() {
+        for (int c = 0; c < CASES; c++) {
+            int length = random.nextInt(MAX_LENGTH);
+            int aOffset = random.nextInt(8);
+            int bOffset = random.nextInt(8);
+            float[] a = floats(aOffset + length);
+            float[] b = floats(bOffset + length);
+            float sum = random.nextFloat();
+
+            assertClose(scalar.dotAdd(sum, a, aOffset, b, bOffset, length), simd.dotAdd(sum, a, aOffset, b, bOffset, length), length, 1e-5);
+            assertClose(scalar.squaredDistance(a, aOffset, b, bOffset, length), simd.squaredDistance(a, aOffset, b, bOffset, length), length, 1e-5);
+
+            float[] expected = b.clone();
+            float[] actual = b.clone();
+            scalar.axpy(sum, a, aOffset, expected, bOffset, length);
+            simd.axpy(sum, a, aOffset, actual, bOffset, length);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void mixedOperations() {
+        for (int c = 0; c < CASES; c++) {
+            int length = random.nextInt(MAX_LENGTH);
+            int aOffset = random.nextInt(8);
+            int bOffset = random.nextInt(8);
+            float[] a = floats(aOffset + length);
+            double[] b = doubles(bOffset + length);
+            double sum = random.nextDouble();
+
+            assertClose(scalar.dotAdd(sum, a, aOffset, b, bOffset, length), simd.dotAdd(sum, a, aOffset, b, bOffset, length), length, 1e-12);
+            assertClose(scalar.squaredDistance(a, aOffset, b, bOffset, length), simd.squaredDistance(a, aOffset, b, bOffset, length), length, 1e-12);
+        }
+    }
+
+    @Test
+    void integerDotsAreExact() {
+        for (int c = 0; c < CASES; c++) {
+            int length = random.nextInt(MAX_LENGTH);
+            int aOffset = random.nextInt(8);
+            int bOffset = random.nextInt(8);
+
+            int[] a = new int[aOffset + length];
+            int[] b = new int[bOffset + length];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(2001) - 1000;
+            }
+            for (int i = 0; i < b.length; i++) {
+                b[i] = random.nextInt(2001) - 1000;
+            }
+            assertEquals(scalar.dot(a, aOffset, b, bOffset, length), simd.dot(a, aOffset, b, bOffset, length));
+
+            byte[] x = new byte[aOffset + length];
+            byte[] y = new byte[bOffset + length];
+            random.nextBytes(x);
+            random.nextBytes(y);
+            assertEquals(scalar.dot(x, aOffset, y, bOffset, length), simd.dot(x, aOffset, y, bOffset, length));
+        }
+    }
+
+    @Test
+    void byteDotHandlesExtremeValues() {
+        byte[] a = new byte[MAX_LENGTH];
+        byte[] b = new byte[MAX_LENGTH];
+        Arrays.fill(a, Byte.MIN_VALUE);
+        Arrays.fill(b, Byte.MIN_VALUE);
+        assertEquals(scalar.dot(a, 0, b, 0, MAX_LENGTH), simd.dot(a, 0, b, 0, MAX_LENGTH));
+        Arrays.fill(b, Byte.MAX_VALUE);
+        assertEquals(scalar.dot(a, 0, b, 0, MAX_LENGTH), simd.dot(a, 0, b, 0, MAX_LENGTH));
+    }
+
+    // Tolerance úměrná délce i velikosti součtu
+    private static void assertClose(double expected, double actual, int length, double relative) {
+        assertEquals(expected, actual, relative * (length + 1) * Math.max(1, Math.abs(expected)), "length " + length);
+    }
+
+    private double[] doubles(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble() * 2 - 1;
+        }
+        return values;
+    }
+
+    private float[] floats(int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextFloat() * 2 - 1;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,107 @@
+package org.furstd.kohen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BmuIndexTest {
+    private static final int NEURONS = 300;
+    private static final int DIM = 4;
+
+    @Test
+    void exactSearchMatchesLinearScan() {
+        Random random = new Random(1);
+        double[][] codebook = randomCodebook(random);
+        BmuIndex index = new BmuIndex(codebook, 0);
+        for (int q = 0; q < 2000; q++) {
+            double[] query = randomPoint(random);
+            assertEquals(linearScan(codebook, query), index.nearest(query));
+        }
+    }
+
+    @Test
+    void movedNeuronsAreStillFound() {
+        Random random = new Random(2);
+        double[][] codebook = randomCodebook(random);
+        BmuIndex index = new BmuIndex(codebook, 0);
+        for (int step = 0; step < 1000; step++) {
+            int neuron = random.nextInt(NEURONS);
+            codebook[neuron] = randomPoint(random);
+            index.update(neuron);
+            double[] query = randomPoint(random);
+            assertEquals(linearScan(codebook, query), index.nearest(query));
+        }
+    }
+
+    @Test
+    void approximateSearchStaysWithinBound() {
+        Random random = new Random(3);
+        double[][] codebook = randomCodebook(random);
+        double epsilon = 0.5;
+        BmuIndex index = new BmuIndex(codebook, epsilon);
+        for (int q = 0; q < 2000; q++) {
+            double[] query = randomPoint(random);
+            double best = distance(codebook[linearScan(codebook, query)], query);
+            double found = distance(codebook[index.nearest(query)], query);
+            assertTrue(found <= (1 + epsilon) * (1 + epsilon) * best + 1e-12);
+        }
+    }
+
+    @Test
+    void infiniteOrNaNDistancesReturnFirstNeuronLikeLinearScan() {
+        double[][] codebook = new double[20][DIM];
+        for (int i = 0; i < codebook.length; i++) {
+            codebook[i][0] = (i + 1) * 1e200;
+        }
+        BmuIndex index = new BmuIndex(codebook, 0);
+        assertEquals(0, index.nearest(new double[]{-1e200, 0, 0, 0}));
+        assertEquals(0, index.nearest(new double[]{Double.NaN, 0, 0, 0}));
+    }
+
+    @Test
+    void emptyCodebookIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BmuIndex(new double[0][], 0));
+    }
+
+    private static int linearScan(double[][] codebook, double[] query) {
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < codebook.length; i++) {
+            double dist = distance(codebook[i], query);
+            if (dist < bestDistance) {
+                bestDistance = dist;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dist = 0;
+        for (int d = 0; d < a.length; d++) {
+            dist += (a[d] - b[d]) * (a[d] - b[d]);
+        }
+        return dist;
+    }
+
+    private static double[][] randomCodebook(Random random) {
+        double[][] codebook = new double[NEURONS][];
+        for (int i = 0; i < NEURONS; i++) {
+            codebook[i] = randomPoint(random);
+        }
+        return codebook;
+    }
+
+    // Hrubá mřížka, aby se objevily i shodné vzdálenosti
+    private static double[] randomPoint(Random random) {
+        double[] point = new double[DIM];
+        for (int d = 0; d < DIM; d++) {
+            point[d] = random.nextInt(20) / 4.0;
+        }
+        return point;
+    }
+}
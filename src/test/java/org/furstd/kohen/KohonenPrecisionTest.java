@@ -0,0 +1,74 @@
+package org.furstd.kohen;
+
+import org.furstd.kernel.Precision;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KohonenPrecisionTest {
+    private static final int DIM = 6;
+    private static final int SAMPLES = 600;
+
+    @Test
+    void floatCodebooksTrainLikeDouble() {
+        double[][] data = clusters(new Random(1));
+        KohonenMap reference = trained(Precision.DOUBLE, data);
+        for (Precision precision : new Precision[]{Precision.FLOAT32, Precision.MIXED}) {
+            KohonenMap map = trained(precision, data);
+            for (int j = 0; j < map.getNumNeurons(); j++) {
+                for (int d = 0; d < DIM; d++) {
+                    assertEquals(reference.getWeight(j, d), map.getWeight(j, d), 1e-3, precision + " neuron " + j);
+                }
+            }
+            for (double[] sample : data) {
+                assertEquals(reference.findBMU(sample), map.findBMU(sample), precision.toString());
+            }
+        }
+    }
+
+    @Test
+    void batchedSearchMatchesSingleSearches() {
+        double[][] data = clusters(new Random(4));
+        KohonenMap map = trained(Precision.FLOAT32, data);
+        int[] bmus = map.findBMUs(data);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(map.findBMU(data[i]), bmus[i], "sample " + i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> map.findBMUs(new double[][]{new double[DIM - 1]}));
+    }
+
+    @Test
+    void floatCodebookHasNoDoubleView() {
+        KohonenMap map = new KohonenMap(new Lattice(2, 2, LatticeType.RECTANGULAR), DIM, Precision.FLOAT32);
+        assertThrows(IllegalStateException.class, map::getWeights);
+        assertThrows(IllegalStateException.class, () -> map.enableIndex(0));
+        assertThrows(IllegalStateException.class, () -> new KohonenMap(new Lattice(2, 2, LatticeType.RECTANGULAR), DIM).getFloatWeights());
+    }
+
+    private static KohonenMap trained(Precision precision, double[][] data) {
+        KohonenMap map = new KohonenMap(new Lattice(3, 3, LatticeType.RECTANGULAR), DIM, precision);
+        map.initializeFromSamples(data, new Random(2));
+        map.trainOnline(data, 5, Decay.linear(0.3, 0.02), Decay.linear(1.5, 0.5), 3);
+        map.trainBatch(data, 5, Decay.linear(1, 0.3));
+        return map;
+    }
+
+    // Oddělené shluky, aby hranice BMU neležely blízko vzorků
+    private static double[][] clusters(Random random) {
+        double[][] centres = new double[4][DIM];
+        for (int c = 0; c < centres.length; c++) {
+            centres[c][c] = 10;
+        }
+        double[][] data = new double[SAMPLES][DIM];
+        for (int i = 0; i < SAMPLES; i++) {
+            double[] centre = centres[i % centres.length];
+            for (int d = 0; d < DIM; d++) {
+                data[i][d] = centre[d] + random.nextGaussian() * 0.3;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,61 @@
+package org.furstd.kohen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatticeTest {
+    @Test
+    void neighboursMatchBruteForce() {
+        Random random = new Random(1);
+        for (LatticeType type : LatticeType.values()) {
+            Lattice lattice = new Lattice(7, 9, type);
+            for (int trial = 0; trial < 200; trial++) {
+                int center = random.nextInt(lattice.size());
+                double radius = random.nextDouble() * 6;
+                assertNeighbours(lattice, center, radius);
+            }
+        }
+    }
+
+    @Test
+    void hugeRadiusCoversWholeLattice() {
+        for (LatticeType type : LatticeType.values()) {
+            Lattice lattice = new Lattice(5, 6, type);
+            // Dříve (int) Math.ceil(radius) + 1 přeteklo a nezůstal ani samotný BMU
+            for (double radius : new double[]{Math.pow(2, 31), 1e300, Double.POSITIVE_INFINITY}) {
+                int[] indices = new int[lattice.size()];
+                int count = lattice.neighbours(7, radius, indices, new double[lattice.size()]);
+                assertEquals(lattice.size(), count, type + " radius " + radius);
+                Arrays.sort(indices);
+                for (int i = 0; i < indices.length; i++) {
+                    assertEquals(i, indices[i]);
+                }
+            }
+        }
+    }
+
+    private static void assertNeighbours(Lattice lattice, int center, double radius) {
+        int[] indices = new int[lattice.size()];
+        double[] distances = new double[lattice.size()];
+        int count = lattice.neighbours(center, radius, indices, distances);
+
+        int[] expected = new int[lattice.size()];
+        int expectedCount = 0;
+        for (int j = 0; j < lattice.size(); j++) {
+            if (lattice.squaredDistance(center, j) <= radius * radius) {
+                expected[expectedCount++] = j;
+            }
+        }
+        int[] actual = Arrays.copyOf(indices, count);
+        Arrays.sort(actual);
+        assertArrayEquals(Arrays.copyOf(expected, expectedCount), actual, "center " + center + ", radius " + radius);
+        for (int k = 0; k < count; k++) {
+            assertEquals(lattice.squaredDistance(center, indices[k]), distances[k], 1e-12);
+        }
+    }
+}
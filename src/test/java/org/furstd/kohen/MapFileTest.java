@@ -0,0 +1,102 @@
+package org.furstd.kohen;
+
+import org.furstd.kernel.Precision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapFileTest {
+    private static final int DIM = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrip() throws IOException {
+        for (Precision precision : Precision.values()) {
+            KohonenMap map = map(precision);
+            Path path = directory.resolve("map.som");
+            MapFile.save(map, path);
+
+            KohonenMap loaded = MapFile.load(path);
+            assertEquals(precision, loaded.getPrecision());
+            assertEquals(LatticeType.HEXAGONAL, loaded.getLattice().getType());
+            for (int j = 0; j < map.getNumNeurons(); j++) {
+                for (int d = 0; d < DIM; d++) {
+                    assertEquals(map.getWeight(j, d), loaded.getWeight(j, d));
+                }
+            }
+        }
+    }
+
+    @Test
+    void corruptedDimensionsAreRejected() throws IOException {
+        // Počet neuronů přeteče int, součin s dimenzí a 8 i long
+        assertCorrupted(putInt(putInt(saved(), 8, 50_000), 12, 50_000));
+        assertCorrupted(putInt(putInt(putInt(saved(), 8, Integer.MAX_VALUE), 12, Integer.MAX_VALUE), 16, Integer.MAX_VALUE));
+        assertCorrupted(putInt(saved(), 16, 0));
+        assertCorrupted(putInt(saved(), 8, -1));
+    }
+
+    @Test
+    void unknownNamesAreRejected() throws IOException {
+        byte[] type = saved();
+        type[20 + Short.BYTES] = 'X';
+        assertCorrupted(type);
+
+        byte[] precision = saved();
+        int typeLength = ByteBuffer.wrap(precision).order(ByteOrder.LITTLE_ENDIAN).getShort(20);
+        precision[20 + Short.BYTES + typeLength + Short.BYTES] = 'X';
+        assertCorrupted(precision);
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = saved();
+        for (int length : new int[]{0, 19, 20, 23, bytes.length - 1}) {
+            assertCorrupted(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    private void assertCorrupted(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.som");
+        Files.write(path, bytes);
+        IOException error = assertThrows(IOException.class, () -> MapFile.load(path));
+        assertTrue(error.getMessage().contains(path.toString()), error.getMessage());
+    }
+
+    private byte[] saved() throws IOException {
+        Path path = directory.resolve("saved.som");
+        MapFile.save(map(Precision.DOUBLE), path);
+        return Files.readAllBytes(path);
+    }
+
+    private static byte[] putInt(byte[] bytes, int offset, int value) {
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return bytes;
+    }
+
+    private static KohonenMap map(Precision precision) {
+        KohonenMap map = new KohonenMap(new Lattice(3, 4, LatticeType.HEXAGONAL), DIM, precision);
+        Random random = new Random(1);
+        double[][] data = new double[20][DIM];
+        for (double[] row : data) {
+            for (int d = 0; d < DIM; d++) {
+                row[d] = random.nextDouble();
+            }
+        }
+        map.initializeFromSamples(data, random);
+        return map;
+    }
+}
@@ -0,0 +1,174 @@
+package org.furstd.serve;
+
+import org.furstd.feed_forward.FeedForwardNetwork;
+import org.furstd.feed_forward.PublishedModel;
+import org.furstd.feed_forward.TestNetworks;
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.kohen.KohonenMap;
+import org.furstd.kohen.Lattice;
+import org.furstd.kohen.LatticeType;
+import org.furstd.trace.Operation;
+import org.furstd.trace.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the three endpoints over loopback, with {@link LoadGenerator} for the happy path
+ * and a plain HTTP client for the error statuses.
+ */
+class InferenceServerTest {
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int[] PATTERN = {1, -1, 1, -1, 1, -1};
+
+    private FeedForwardNetwork network;
+    private InferenceServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void start() throws IOException {
+        network = TestNetworks.network(new Random(1), 3, 5, 2);
+        HopfieldNetwork hopfield = new HopfieldNetwork(PATTERN.length);
+        hopfield.addPattern(PATTERN);
+
+        server = new InferenceServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 8, WAIT_NANOS);
+        server.addFeedForward("/ffn", new PublishedModel(network.compile()));
+        server.addKohonen("/som", new KohonenMap(new Lattice(2, 2, LatticeType.RECTANGULAR), 3));
+        server.addHopfield("/hopfield", hopfield);
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void endpointsServeLoad() {
+        LoadGenerator generator = new LoadGenerator();
+        List<String> vectors = List.of("0.1,0.2,0.3", "-1 0.5 2", "3;-0.25;1e-3");
+        for (String path : new String[]{"/ffn", "/som"}) {
+            LoadReport report = generator.run(uri(server, path), vectors, 4, Duration.ofMillis(300));
+            assertTrue(report.getRequests() > 0, path);
+            assertEquals(0, report.getErrors(), path);
+        }
+        LoadReport report = generator.run(uri(server, "/hopfield"), List.of("1,-1,1,-1,1,1", "1,1,1,-1,1,-1"), 4, Duration.ofMillis(300));
+        assertTrue(report.getRequests() > 0);
+        assertEquals(0, report.getErrors());
+    }
+
+    @Test
+    void responsesMatchTheModels() throws Exception {
+        HttpResponse<String> ffn = post(client, server, "/ffn", " 0.1, 0.2\t0.3\n");
+        assertEquals(200, ffn.statusCode());
+        double[] expected = network.compile().computeResponses(new double[][]{{0.1, 0.2, 0.3}})[0];
+        assertArrayEquals(expected, parse(ffn.body()));
+
+        HttpResponse<String> hopfield = post(client, server, "/hopfield", "1,-1,1,-1,1,1");
+        assertEquals(200, hopfield.statusCode());
+        assertEquals("1,-1,1,-1,1,-1\n", hopfield.body());
+        assertEquals("true", hopfield.headers().firstValue("X-Converged").orElseThrow());
+    }
+
+    @Test
+    void badRequestsAreRejected() throws Exception {
+        assertEquals(400, post(client, server, "/ffn", "").statusCode());
+        assertEquals(400, post(client, server, "/ffn", "1,2").statusCode());
+        assertEquals(400, post(client, server, "/ffn", "1,2,3,4").statusCode());
+        assertEquals(400, post(client, server, "/som", "1,x,3").statusCode());
+        assertEquals(400, post(client, server, "/hopfield", "1,0,1,-1,1,-1").statusCode());
+
+        for (String path : new String[]{"/ffn", "/som", "/hopfield"}) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(server, path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, response.statusCode(), path);
+            assertEquals("POST", response.headers().firstValue("Allow").orElseThrow());
+        }
+    }
+
+    @Test
+    void fullQueueAnswers503() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        KohonenMap map = new KohonenMap(new Lattice(2, 2, LatticeType.RECTANGULAR), 3);
+        // Zablokuje pracovní vlákno dávkovače uprostřed dávky
+        map.setTracer(new Tracer() {
+            @Override
+            public boolean measuresTime() {
+                return true;
+            }
+
+            @Override
+            public void callFinished(Operation operation, int rows, long nanos) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        try (InferenceServer blocked = new InferenceServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 0, 1)) {
+            blocked.addKohonen("/som", map);
+            blocked.start();
+            CompletableFuture<HttpResponse<String>> first = postAsync(blocked, "0,0,0");
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            // Jeden z dalších dvou se vejde do fronty, druhý musí být odmítnut hned
+            CompletableFuture<HttpResponse<String>> second = postAsync(blocked, "0,0,0");
+            CompletableFuture<HttpResponse<String>> third = postAsync(blocked, "0,0,0");
+            HttpResponse<?> rejected = (HttpResponse<?>) CompletableFuture.anyOf(second, third).get(10, TimeUnit.SECONDS);
+            assertEquals(503, rejected.statusCode());
+
+            release.countDown();
+            assertEquals(200, first.get(10, TimeUnit.SECONDS).statusCode());
+            int accepted = second.get(10, TimeUnit.SECONDS).statusCode() + third.get(10, TimeUnit.SECONDS).statusCode();
+            assertEquals(200 + 503, accepted);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> postAsync(InferenceServer target, String body) {
+        return client.sendAsync(request(target, "/som", body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(HttpClient client, InferenceServer server, String path, String body) throws IOException, InterruptedException {
+        return client.send(request(server, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest request(InferenceServer server, String path, String body) {
+        return HttpRequest.newBuilder(uri(server, path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static URI uri(InferenceServer server, String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private static double[] parse(String line) {
+        String[] parts = line.trim().split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i]);
+        }
+        return values;
+    }
+}
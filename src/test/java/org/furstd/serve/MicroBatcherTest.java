@@ -0,0 +1,111 @@
+package org.furstd.serve;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+    private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void batchesNeverExceedMaxSize() throws Exception {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 4, WAIT_NANOS, 100, requests -> {
+            sizes.add(requests.size());
+            List<Integer> results = new ArrayList<>();
+            for (int request : requests) {
+                results.add(request * 2);
+            }
+            return results;
+        })) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(batcher.submit(i));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i * 2, futures.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(10, sizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(sizes.stream().allMatch(size -> size <= 4), sizes.toString());
+            assertEquals(10, batcher.getRequests());
+            assertEquals(sizes.size(), batcher.getBatches());
+        }
+    }
+
+    @Test
+    void loneRequestWaitsForDeadlineAndCollectsLateArrivals() throws Exception {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 64, WAIT_NANOS, 100, requests -> {
+            sizes.add(requests.size());
+            return new ArrayList<>(requests);
+        })) {
+            long start = System.nanoTime();
+            CompletableFuture<Integer> first = batcher.submit(1);
+            // Přijde během čekání prvního požadavku, musí skončit ve stejné dávce
+            CompletableFuture<Integer> second = batcher.submit(2);
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(2, second.get(5, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= WAIT_NANOS, "batch was dispatched before the deadline");
+            assertEquals(List.of(2), sizes);
+        }
+    }
+
+    @Test
+    void errorFailsOnlyItsBatch() throws Exception {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 8, 0, 100, requests -> {
+            if (requests.contains(-1)) {
+                throw new StackOverflowError("model");
+            }
+            return new ArrayList<>(requests);
+        })) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> batcher.submit(-1).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, error.getCause());
+            assertEquals(7, batcher.submit(7).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void wrongResultCountFailsBatch() {
+        try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 8, 0, 100, requests -> List.of())) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> batcher.submit(1).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, error.getCause());
+        }
+    }
+
+    @Test
+    void fullQueueRejectsAndCloseFailsPending() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 1, 0, 1, requests -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ArrayList<>(requests);
+        });
+        CompletableFuture<Integer> running = batcher.submit(1);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = batcher.submit(2);
+        assertThrows(RejectedExecutionException.class, () -> batcher.submit(3));
+
+        release.countDown();
+        batcher.close();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.isDone());
+        assertThrows(IllegalStateException.class, () -> batcher.submit(4));
+    }
+}
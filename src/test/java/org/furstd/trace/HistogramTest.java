@@ -0,0 +1,78 @@
+package org.furstd.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HistogramTest {
+    @Test
+    void percentilesAreWithinOneBucketAboveTrueValue() {
+        Random random = new Random(1);
+        Histogram histogram = new Histogram();
+        long[] values = new long[10_000];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 30);
+            histogram.record(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(sum, snapshot.getSum());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        assertWithinBucket(values[(int) Math.ceil(0.5 * values.length) - 1], snapshot.getP50());
+        assertWithinBucket(values[(int) Math.ceil(0.9 * values.length) - 1], snapshot.getP90());
+        assertWithinBucket(values[(int) Math.ceil(0.99 * values.length) - 1], snapshot.getP99());
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        for (long value : new long[]{0, 1, 3, 4, 5, 7, 8, 1000, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(value);
+            assertTrue(Histogram.upperBound(bucket) >= value, Long.toString(value));
+            assertTrue(bucket == 0 || Histogram.upperBound(bucket - 1) < value, Long.toString(value));
+        }
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        Histogram histogram = new Histogram();
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 1; i <= 10_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(80_000, snapshot.getCount());
+        assertEquals(8 * 10_000L * 10_001 / 2, snapshot.getSum());
+        assertEquals(10_000, snapshot.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        assertEquals(0, histogram.snapshot().getP99());
+    }
+
+    // Percentil je horní mez koše, nejvýše o 25 % nad skutečnou hodnotou
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.25 + 1, expected + " reported as " + actual);
+    }
+}
@@ -0,0 +1,117 @@
+package org.furstd.trace;
+
+import org.furstd.feed_forward.FeedForwardNetwork;
+import org.furstd.feed_forward.TestNetworks;
+import org.furstd.hopfield.HopfieldNetwork;
+import org.furstd.kohen.Decay;
+import org.furstd.kohen.KohonenMap;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTracerTest {
+    @Test
+    void countsCallsAndRows() {
+        MetricsTracer metrics = new MetricsTracer();
+        FeedForwardNetwork network = TestNetworks.network(new Random(1), 4, 6, 2);
+        network.setTracer(metrics);
+        network.compile().computeResponses(new double[40][4]);
+        network.compile().computeResponses(new double[10][4]);
+        assertEquals(2, metrics.getLatencyNanos(Operation.COMPILED_BATCH).getCount());
+        assertEquals(50, metrics.getRows(Operation.COMPILED_BATCH));
+
+        KohonenMap map = new KohonenMap(9, 2);
+        map.setTracer(metrics);
+        double[][] data = points(new Random(2), 30);
+        map.initializeFromSamples(data, new Random(3));
+        map.trainOnline(data, 4, Decay.constant(0.1), Decay.constant(1), 5);
+        assertEquals(4, metrics.getEpochNanos().getCount());
+        map.findBMU(data[0]);
+        assertEquals(1, metrics.getRows(Operation.BMU_SEARCH));
+
+        HopfieldNetwork hopfield = new HopfieldNetwork(32);
+        hopfield.setTracer(metrics);
+        int[] pattern = new int[32];
+        for (int i = 0; i < pattern.length; i++) {
+            pattern[i] = i % 3 == 0 ? 1 : -1;
+        }
+        hopfield.addPatterns(List.of(pattern));
+        hopfield.recall(pattern);
+        assertEquals(1, metrics.getRecallIterations().getCount());
+        assertEquals(0, metrics.getUnconvergedRecalls());
+
+        metrics.reset();
+        assertEquals(0, metrics.getRows(Operation.COMPILED_BATCH));
+        assertEquals(0, metrics.getRecallIterations().getCount());
+    }
+
+    @Test
+    void publishedThroughJmx() throws Exception {
+        MetricsTracer metrics = new MetricsTracer();
+        metrics.callFinished(Operation.FEED_FORWARD, 3, 1000);
+        metrics.recallFinished(5, false);
+        ObjectName name = metrics.register("test-" + System.nanoTime());
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "UnconvergedRecalls"));
+            assertTrue(server.getAttribute(name, "Rows").toString().contains("FEED_FORWARD"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "UnconvergedRecalls"));
+        } finally {
+            MetricsTracer.unregister(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    void silentByDefaultAndTextbookOnRequest() {
+        PrintStream original = System.out;
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        try {
+            FeedForwardNetwork network = TestNetworks.network(new Random(1), 4, 6, 2);
+            network.addX(0.5);
+            network.addX(-0.5);
+            network.addX(1);
+            network.addX(0);
+            network.computeResponse();
+
+            KohonenMap map = new KohonenMap(4, 2);
+            double[][] data = points(new Random(6), 10);
+            map.initializeFromSamples(data, new Random(7));
+            map.trainOnline(data, 2, Decay.constant(0.1), Decay.constant(1), 8);
+        } finally {
+            System.setOut(original);
+        }
+        assertEquals("", console.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream textbook = new ByteArrayOutputStream();
+        FeedForwardNetwork network = TestNetworks.network(new Random(1), 4, 6, 2);
+        network.setTracer(new TextbookTracer(new PrintStream(textbook, true, StandardCharsets.UTF_8)));
+        for (int i = 0; i < 4; i++) {
+            network.addX(i);
+        }
+        network.computeResponse();
+        assertFalse(textbook.toString(StandardCharsets.UTF_8).isEmpty());
+    }
+
+    private static double[][] points(Random random, int rows) {
+        double[][] points = new double[rows][2];
+        for (double[] point : points) {
+            point[0] = random.nextDouble();
+            point[1] = random.nextDouble();
+        }
+        return points;
+    }
+}